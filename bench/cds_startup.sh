@@ -0,0 +1,101 @@
+#!/bin/sh
+# Cold start time of a job JVM with and without the per-JAR dynamic CDS archive that
+# CdsArchiveService creates (same JVM options as the executor).
+#
+#   bench/cds_startup.sh [job.jar] [runs]      (pass "" as job.jar for the sample job)
+#
+# Without a JAR, a sample job is generated that loads about 400 classes of its own plus
+# java.time, streams and HttpClient. Uses $JAVA_HOME/bin/java when JAVA_HOME is set. Each
+# variant runs a few times to warm the page cache, then reports the median and p95 wall
+# time over the given number of runs (default 15). Needs GNU date.
+set -eu
+
+RUNS=${2:-15}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVAC=${JAVA_HOME:+$JAVA_HOME/bin/}javac
+JAR_TOOL=${JAVA_HOME:+$JAVA_HOME/bin/}jar
+QUIET="-Xshare:auto -Xlog:cds=off -Xlog:cds+dynamic=off"
+
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+if [ -n "${1:-}" ]; then
+    JOB_JAR=$1
+else
+    mkdir -p "$WORK/src/bench" "$WORK/classes"
+    i=0
+    while [ $i -lt 400 ]; do
+        cat > "$WORK/src/bench/Step$i.java" <<EOF
+package bench;
+public class Step$i implements java.util.function.IntUnaryOperator {
+    public int applyAsInt(int value) { return value * 31 + $i; }
+}
+EOF
+        i=$((i + 1))
+    done
+    cat > "$WORK/src/bench/Main.java" <<'EOF'
+package bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+public class Main {
+    public static void main(String[] args) throws Exception {
+        int value = 1;
+        for (int i = 0; i < 400; i++) {
+            value = ((IntUnaryOperator) Class.forName("bench.Step" + i).getDeclaredConstructor().newInstance())
+                    .applyAsInt(value);
+        }
+        int sum = IntStream.range(0, 1000).filter(n -> n % 3 == 0).map(n -> n * 2).sum();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/")).timeout(Duration.ofSeconds(1)).build();
+        HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        System.out.println(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now()) + " " + value + " "
+                + sum + " " + request.method());
+    }
+}
+EOF
+    "$JAVAC" -d "$WORK/classes" "$WORK"/src/bench/*.java
+    printf 'Main-Class: bench.Main\n' > "$WORK/manifest.txt"
+    JOB_JAR=$WORK/job.jar
+    "$JAR_TOOL" cfm "$JOB_JAR" "$WORK/manifest.txt" -C "$WORK/classes" .
+fi
+
+# Runs the command RUNS times after 3 warm-up runs and prints median and p95 in ms
+measure() {
+    label=$1
+    shift
+    for i in 1 2 3; do
+        "$@" > /dev/null
+    done
+    : > "$WORK/times"
+    i=0
+    while [ $i -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        "$@" > /dev/null
+        end=$(date +%s%N)
+        echo $(((end - start) / 1000000)) >> "$WORK/times"
+        i=$((i + 1))
+    done
+    sort -n "$WORK/times" | awk -v label="$label" '
+        { t[NR] = $1 }
+        END {
+            p95 = int(NR * 0.95 + 0.999); if (p95 > NR) p95 = NR
+            printf "%-30s median %5d ms   p95 %5d ms\n", label, t[int((NR + 1) / 2)], t[p95]
+        }'
+}
+
+ARCHIVE=$WORK/job.jsa
+# shellcheck disable=SC2086
+"$JAVA" $QUIET -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JOB_JAR" > /dev/null
+
+"$JAVA" -version 2>&1 | head -1
+echo "$JOB_JAR, $RUNS runs"
+measure "java -jar" "$JAVA" -jar "$JOB_JAR"
+# shellcheck disable=SC2086
+measure "with the per-JAR archive" "$JAVA" $QUIET -XX:SharedArchiveFile="$ARCHIVE" -jar "$JOB_JAR"
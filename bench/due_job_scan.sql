@@ -0,0 +1,106 @@
+-- Due-job scan and execution lookup latency with and without the indexes of V1__create_schema.sql.
+--
+-- Run against a scratch database migrated by the application (Flyway), for example
+--   psql -d jobscheduler_bench -f bench/due_job_scan.sql
+-- Everything runs in one transaction that is rolled back, the database is left as it was.
+-- Timings are reported as NOTICEs: median and p95 of each query over 200 runs with the indexes
+-- and 20 runs without them.
+
+BEGIN;
+
+-- Times a query over a number of runs, after a few warm-up runs
+CREATE FUNCTION pg_temp.bench(label TEXT, query TEXT, runs INT DEFAULT 200) RETURNS VOID AS $$
+DECLARE
+    started TIMESTAMPTZ;
+    millis DOUBLE PRECISION[] := '{}';
+BEGIN
+    FOR i IN 1..5 LOOP
+        EXECUTE query;
+    END LOOP;
+    FOR i IN 1..runs LOOP
+        started := clock_timestamp();
+        EXECUTE query;
+        millis := millis || EXTRACT(EPOCH FROM clock_timestamp() - started) * 1000;
+    END LOOP;
+    RAISE NOTICE '%: median % ms, p95 % ms', rpad(label, 40),
+        round((SELECT percentile_cont(0.5) WITHIN GROUP (ORDER BY m) FROM unnest(millis) m)::NUMERIC, 3),
+        round((SELECT percentile_cont(0.95) WITHIN GROUP (ORDER BY m) FROM unnest(millis) m)::NUMERIC, 3);
+END;
+$$ LANGUAGE plpgsql;
+
+INSERT INTO jar_file (id, name, size, uploaded_at, execution_mode)
+SELECT gen_random_uuid(), 'job-' || n || '.jar', 1024, localtimestamp, 'FORKED'
+FROM generate_series(1, 20) n;
+
+-- 1M finished jobs spread over the last year
+INSERT INTO job_schedule (id, jar_file_id, execution_type, scheduled_time, next_fire_time, recurrence_type,
+                          status, created_at, updated_at)
+SELECT gen_random_uuid(), j.id, 'SCHEDULED', t, t, 'ONE_TIME',
+       CASE WHEN n % 20 = 0 THEN 'CANCELLED' WHEN n % 7 = 0 THEN 'FAILED' ELSE 'COMPLETED' END, t, t
+FROM (SELECT n, localtimestamp - random() * INTERVAL '365 days' AS t, n % 20 AS jar
+      FROM generate_series(1, 1000000) n) h
+JOIN (SELECT id, row_number() OVER () - 1 AS jar FROM jar_file) j USING (jar);
+
+-- 2000 pending jobs firing between a minute ago and a week from now, 1000 of them recurring
+INSERT INTO job_schedule (id, jar_file_id, execution_type, scheduled_time, next_fire_time, recurrence_type,
+                          status, created_at, updated_at)
+SELECT gen_random_uuid(), (SELECT id FROM jar_file LIMIT 1), 'SCHEDULED', t, t,
+       CASE WHEN n <= 1000 THEN 'HOURLY' ELSE 'ONE_TIME' END, 'SCHEDULED', localtimestamp, localtimestamp
+FROM (SELECT n, localtimestamp - INTERVAL '1 minute' + random() * INTERVAL '7 days' AS t
+      FROM generate_series(1, 2000) n) p;
+
+-- 1M executions: 1000 runs of each recurring job
+INSERT INTO job_execution (id, job_schedule_id, attempt_id, start_time, end_time, status)
+SELECT gen_random_uuid(), s.id, gen_random_uuid(), t, t + INTERVAL '2 seconds', 'COMPLETED'
+FROM (SELECT id FROM job_schedule WHERE recurrence_type = 'HOURLY') s,
+     LATERAL (SELECT localtimestamp - n * INTERVAL '1 hour' AS t FROM generate_series(1, 1000) n) e;
+
+ANALYZE jar_file, job_schedule, job_execution;
+
+CREATE TEMPORARY TABLE bench_target AS
+SELECT id FROM job_schedule WHERE recurrence_type = 'HOURLY' LIMIT 1;
+
+DO $$
+DECLARE
+    target UUID := (SELECT id FROM bench_target);
+BEGIN
+    RAISE NOTICE 'With indexes';
+    PERFORM pg_temp.bench('findJobsDueForExecution',
+        'SELECT * FROM job_schedule WHERE next_fire_time <= localtimestamp AND status = ''SCHEDULED''');
+    PERFORM pg_temp.bench('claimDueJobs candidates',
+        'SELECT id FROM job_schedule WHERE status = ''SCHEDULED'' AND next_fire_time <= localtimestamp '
+        || 'ORDER BY next_fire_time LIMIT 500');
+    PERFORM pg_temp.bench('findJobsScheduledBetween (10 min)',
+        'SELECT * FROM job_schedule WHERE next_fire_time > localtimestamp '
+        || 'AND next_fire_time <= localtimestamp + INTERVAL ''10 minutes'' AND status = ''SCHEDULED''');
+    PERFORM pg_temp.bench('executions of a schedule, first page',
+        format('SELECT * FROM job_execution WHERE job_schedule_id = %L '
+               || 'ORDER BY start_time DESC, id DESC LIMIT 51', target));
+END;
+$$;
+
+-- Without them the tables only have their primary keys, as ddl-auto=create built them
+DROP INDEX idx_job_schedule_due, idx_job_schedule_created, idx_job_schedule_status_created,
+    idx_job_schedule_jar_created, idx_job_execution_schedule_start;
+ANALYZE job_schedule, job_execution;
+
+DO $$
+DECLARE
+    target UUID := (SELECT id FROM bench_target);
+BEGIN
+    RAISE NOTICE 'Without indexes';
+    PERFORM pg_temp.bench('findJobsDueForExecution',
+        'SELECT * FROM job_schedule WHERE next_fire_time <= localtimestamp AND status = ''SCHEDULED''', 20);
+    PERFORM pg_temp.bench('claimDueJobs candidates',
+        'SELECT id FROM job_schedule WHERE status = ''SCHEDULED'' AND next_fire_time <= localtimestamp '
+        || 'ORDER BY next_fire_time LIMIT 500', 20);
+    PERFORM pg_temp.bench('findJobsScheduledBetween (10 min)',
+        'SELECT * FROM job_schedule WHERE next_fire_time > localtimestamp '
+        || 'AND next_fire_time <= localtimestamp + INTERVAL ''10 minutes'' AND status = ''SCHEDULED''', 20);
+    PERFORM pg_temp.bench('executions of a schedule, first page',
+        format('SELECT * FROM job_execution WHERE job_schedule_id = %L '
+               || 'ORDER BY start_time DESC, id DESC LIMIT 51', target), 20);
+END;
+$$;
+
+ROLLBACK;
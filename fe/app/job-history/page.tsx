@@ -1,43 +1,70 @@
 "use client"
 
 import { useState, useEffect } from "react"
-import { Input } from "@/components/ui/input"
+import { Button } from "@/components/ui/button"
 import { Table, TableBody, TableCell, TableHead, TableHeader, TableRow } from "@/components/ui/table"
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@/components/ui/select"
-import { Search } from "lucide-react"
+import { ChevronLeft, ChevronRight } from "lucide-react"
 import { useToast } from "@/components/ui/use-toast"
 import { JobHistoryItem } from "@/components/job-history-item"
 import { KafkaToastNotification } from "@/components/kafka-toast-notification"
-import { fetchJobSchedules, fetchJobExecutions, cancelJob, JobSchedule, JobExecution } from "@/lib/api"
+import { fetchJarFiles, fetchJobSchedules, fetchJobExecutions, cancelJob, JobSchedule } from "@/lib/api"
 
 // Extended job type that includes UI-specific properties
 interface ExtendedJobSchedule extends JobSchedule {
+  executionId?: string;
   logs?: string;
   response?: any;
   executionTime?: string;
   type?: string;
 }
 
+const PAGE_SIZE = 20
+
+// Backend statuses behind each status filter option
+const STATUS_FILTERS: Record<string, string[]> = {
+  completed: ["COMPLETED"],
+  running: ["RUNNING"],
+  pending: ["SCHEDULED", "DISPATCHED"],
+  failed: ["FAILED"],
+  cancelled: ["CANCELLED"],
+}
+
 export default function JobHistoryPage() {
   const [jobs, setJobs] = useState<ExtendedJobSchedule[]>([])
-  const [searchTerm, setSearchTerm] = useState("")
+  const [jarNames, setJarNames] = useState<string[]>([])
+  const [jarFilter, setJarFilter] = useState("all")
   const [statusFilter, setStatusFilter] = useState("all")
+  // Cursor of every page visited so far; the last entry is the current page
+  const [cursors, setCursors] = useState<(string | null)[]>([null])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const { toast } = useToast()
   // We'll keep this for future Kafka integration
   const [latestKafkaMessage] = useState<any>(null)
   const [loading, setLoading] = useState(true)
 
-  // Fetch job schedules and their executions
+  useEffect(() => {
+    fetchJarFiles().then(jarFiles => setJarNames(Array.from(new Set(jarFiles.map(jar => jar.name))).sort()))
+  }, [])
+
+  // Fetch the current page of job schedules and their latest executions
   useEffect(() => {
     const getJobs = async () => {
       try {
         setLoading(true)
-        const jobSchedules = await fetchJobSchedules()
+        const page = await fetchJobSchedules({
+          status: STATUS_FILTERS[statusFilter],
+          jarName: jarFilter === "all" ? undefined : jarFilter,
+          cursor: cursors[cursors.length - 1],
+          limit: PAGE_SIZE,
+        })
+        const jobSchedules = page.items
+        setNextCursor(page.nextCursor)
 
         // Create extended jobs with basic info
         const extendedJobs: ExtendedJobSchedule[] = jobSchedules.map(job => ({
           ...job,
-          executionTime: job.scheduledTime,
+          executionTime: job.nextFireTime || job.scheduledTime,
           type: job.executionType === 'immediate' ? 'Immediate' :
                 (job.recurrenceType === 'one-time' ? 'Scheduled' : `Recurring (${job.recurrenceType})`),
           logs: '',
@@ -48,8 +75,8 @@ export default function JobHistoryPage() {
         const jobsWithExecutions = await Promise.all(
           extendedJobs.map(async (job) => {
             try {
-              // Fetch job executions for this job schedule
-              const executions = await fetchJobExecutions(job.id)
+              // Fetch only the latest job execution for this job schedule
+              const executions = await fetchJobExecutions(job.id, 1)
 
               // If there are executions, use the latest one's data
               if (executions && executions.length > 0) {
@@ -57,7 +84,8 @@ export default function JobHistoryPage() {
 
                 return {
                   ...job,
-                  logs: latestExecution.logs || '',
+                  executionId: latestExecution.id,
+                  logs: latestExecution.logTail || '',
                   response: latestExecution.response ? JSON.parse(latestExecution.response) : null,
                   executionTime: latestExecution.startTime || job.scheduledTime
                 }
@@ -80,6 +108,7 @@ export default function JobHistoryPage() {
           variant: "destructive",
         })
         setJobs([])
+        setNextCursor(null)
       } finally {
         setLoading(false)
       }
@@ -87,26 +116,30 @@ export default function JobHistoryPage() {
 
     getJobs()
 
-    // Refresh job schedules every 10 seconds
+    // Refresh the current page every 10 seconds
     const intervalId = setInterval(() => {
       getJobs()
     }, 10000)
 
     return () => clearInterval(intervalId)
-  }, [toast])
+  }, [toast, statusFilter, jarFilter, cursors])
 
-  const filteredJobs = jobs.filter((job) => {
-    const matchesSearch =
-      job.jarName.toLowerCase().includes(searchTerm.toLowerCase()) ||
-      job.id.toLowerCase().includes(searchTerm.toLowerCase())
-    const matchesStatus = statusFilter === "all" || job.status.toLowerCase() === statusFilter.toLowerCase()
-    return matchesSearch && matchesStatus
-  })
+  // Changing a filter starts again from the first page
+  const handleStatusFilterChange = (value: string) => {
+    setStatusFilter(value)
+    setCursors([null])
+  }
+
+  const handleJarFilterChange = (value: string) => {
+    setJarFilter(value)
+    setCursors([null])
+  }
 
   // Convert backend status to frontend display format
   const formatStatus = (status: string) => {
     switch (status) {
       case "SCHEDULED": return "Pending"
+      case "DISPATCHED": return "Pending"
       case "RUNNING": return "Running"
       case "COMPLETED": return "Completed"
       case "FAILED": return "Failed"
@@ -154,16 +187,18 @@ export default function JobHistoryPage() {
       <h1 className="text-3xl font-bold mb-6">Job History</h1>
 
       <div className="flex flex-col md:flex-row gap-4 mb-6">
-        <div className="relative flex-1">
-          <Search className="absolute left-2.5 top-2.5 h-4 w-4 text-muted-foreground" />
-          <Input
-            placeholder="Search by JAR name or job ID..."
-            className="pl-8"
-            value={searchTerm}
-            onChange={(e) => setSearchTerm(e.target.value)}
-          />
-        </div>
-        <Select value={statusFilter} onValueChange={setStatusFilter}>
+        <Select value={jarFilter} onValueChange={handleJarFilterChange}>
+          <SelectTrigger className="w-full md:flex-1">
+            <SelectValue placeholder="Filter by JAR" />
+          </SelectTrigger>
+          <SelectContent>
+            <SelectItem value="all">All JARs</SelectItem>
+            {jarNames.map((name) => (
+              <SelectItem key={name} value={name}>{name}</SelectItem>
+            ))}
+          </SelectContent>
+        </Select>
+        <Select value={statusFilter} onValueChange={handleStatusFilterChange}>
           <SelectTrigger className="w-full md:w-[180px]">
             <SelectValue placeholder="Filter by status" />
           </SelectTrigger>
@@ -198,8 +233,8 @@ export default function JobHistoryPage() {
                   Loading job history...
                 </TableCell>
               </TableRow>
-            ) : filteredJobs.length > 0 ? (
-              filteredJobs.map((job) => (
+            ) : jobs.length > 0 ? (
+              jobs.map((job) => (
                 <JobHistoryItem
                   key={job.id}
                   job={{
@@ -208,6 +243,7 @@ export default function JobHistoryPage() {
                     executionTime: job.executionTime || job.scheduledTime,
                     type: job.type || (job.executionType === 'immediate' ? 'Immediate' : 'Scheduled'),
                     status: formatStatus(job.status),
+                    executionId: job.executionId,
                     logs: job.logs || "No logs available",
                     response: job.response
                   }}
@@ -225,6 +261,28 @@ export default function JobHistoryPage() {
         </Table>
       </div>
 
+      <div className="flex items-center justify-end gap-2 mt-4">
+        <span className="text-sm text-muted-foreground mr-2">Page {cursors.length}</span>
+        <Button
+          variant="outline"
+          size="sm"
+          disabled={loading || cursors.length === 1}
+          onClick={() => setCursors(cursors.slice(0, -1))}
+        >
+          <ChevronLeft className="h-4 w-4 mr-1" />
+          Previous
+        </Button>
+        <Button
+          variant="outline"
+          size="sm"
+          disabled={loading || !nextCursor}
+          onClick={() => setCursors([...cursors, nextCursor])}
+        >
+          Next
+          <ChevronRight className="h-4 w-4 ml-1" />
+        </Button>
+      </div>
+
       {latestKafkaMessage && <KafkaToastNotification message={latestKafkaMessage} />}
     </div>
   )
@@ -17,6 +17,7 @@ interface JobHistoryItemProps {
     executionTime: string
     type: string
     status: string
+    executionId?: string
     logs?: string
     response?: any
   }
@@ -73,7 +74,7 @@ export function JobHistoryItem({ job, onCancelJob }: JobHistoryItemProps) {
         <div className="flex justify-end gap-2">
           <Dialog>
             <DialogTrigger asChild>
-              <Button variant="outline" size="sm" disabled={!job.logs}>
+              <Button variant="outline" size="sm" disabled={!job.logs && !job.executionId}>
                 <FileText className="h-4 w-4 mr-1" />
                 Logs
               </Button>
@@ -82,7 +83,7 @@ export function JobHistoryItem({ job, onCancelJob }: JobHistoryItemProps) {
               <DialogHeader>
                 <DialogTitle>Job Logs: {job.id}</DialogTitle>
               </DialogHeader>
-              <JobLogs logs={job.logs || ''} response={job.response} />
+              <JobLogs executionId={job.executionId} logs={job.logs || ''} response={job.response} />
             </DialogContent>
           </Dialog>
 
@@ -1,9 +1,16 @@
+"use client"
+
+import { useEffect, useState } from "react"
 import { ScrollArea } from "@/components/ui/scroll-area"
 import { Tabs, TabsContent, TabsList, TabsTrigger } from "@/components/ui/tabs"
 import { Alert, AlertDescription, AlertTitle } from "@/components/ui/alert"
 import { CheckCircle, AlertCircle } from "lucide-react"
+import { fetchJobExecutionLogs } from "@/lib/api"
 
 interface JobLogsProps {
+  // When set, the complete output is loaded once the logs are shown
+  executionId?: string
+  // End of the output, shown until the complete output has been loaded
   logs: string
   response?: {
     status: string
@@ -20,7 +27,23 @@ interface JobLogsProps {
   } | null
 }
 
-export function JobLogs({ logs, response }: JobLogsProps) {
+export function JobLogs({ executionId, logs, response }: JobLogsProps) {
+  const [completeLogs, setCompleteLogs] = useState<string | null>(null)
+  const [loadingLogs, setLoadingLogs] = useState(false)
+
+  useEffect(() => {
+    if (!executionId) {
+      return
+    }
+    setLoadingLogs(true)
+    fetchJobExecutionLogs(executionId)
+      .then(setCompleteLogs)
+      .catch(error => console.error('Error fetching job execution logs:', error))
+      .finally(() => setLoadingLogs(false))
+  }, [executionId])
+
+  const shownLogs = completeLogs ?? logs
+
   return (
     <Tabs defaultValue="logs">
       <TabsList className="mb-4">
@@ -31,9 +54,10 @@ export function JobLogs({ logs, response }: JobLogsProps) {
       </TabsList>
 
       <TabsContent value="logs">
-        {logs ? (
+        {loadingLogs && <p className="text-sm text-muted-foreground mb-2">Loading complete output...</p>}
+        {shownLogs ? (
           <ScrollArea className="h-[300px] w-full rounded-md border p-4">
-            <pre className="font-mono text-sm whitespace-pre-wrap">{logs}</pre>
+            <pre className="font-mono text-sm whitespace-pre-wrap">{shownLogs}</pre>
           </ScrollArea>
         ) : (
           <div className="text-center py-8 text-muted-foreground">
@@ -9,6 +9,10 @@ export interface JarFile {
   description: string;
   size: number;
   uploadedAt: string;
+  executionMode?: string;
+  cpuLimit?: number | null;
+  memoryLimitMb?: number | null;
+  pidsLimit?: number | null;
 }
 
 export interface JobSchedule {
@@ -17,7 +21,13 @@ export interface JobSchedule {
   jarName: string;
   executionType: string;
   scheduledTime: string;
+  nextFireTime: string;
   recurrenceType: string;
+  cronExpression?: string | null;
+  timeoutSeconds?: number | null;
+  cpuLimit?: number | null;
+  memoryLimitMb?: number | null;
+  pidsLimit?: number | null;
   status: string;
   createdAt: string;
   updatedAt: string;
@@ -29,17 +39,50 @@ export interface JobExecution {
   startTime: string;
   endTime: string;
   status: string;
-  logs: string;
+  logTail: string;
+  logLocation?: string | null;
+  logChunks?: number | null;
+  logSizeBytes?: number | null;
+  logChecksum?: string | null;
   errorMessage: string;
   executionTime: string;
+  wallTimeMillis?: number | null;
+  cpuUserMillis?: number | null;
+  cpuSystemMillis?: number | null;
+  peakRssBytes?: number | null;
+  ioReadBytes?: number | null;
+  ioWriteBytes?: number | null;
+  oomKilled?: boolean | null;
+  cpuThrottledPeriods?: number | null;
+  cpuThrottledMillis?: number | null;
   response: string;
 }
 
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
+export interface JobScheduleQuery {
+  status?: string[];
+  jarName?: string;
+  executionType?: string;
+  from?: string;
+  to?: string;
+  cursor?: string | null;
+  limit?: number;
+}
+
 export interface JobScheduleRequest {
   jarFileId: string;
   executionType: string;
   scheduledTime?: string | null;
   recurrenceType?: string | null;
+  cronExpression?: string | null;
+  timeoutSeconds?: number | null;
+  cpuLimit?: number | null;
+  memoryLimitMb?: number | null;
+  pidsLimit?: number | null;
 }
 
 // API functions
@@ -92,17 +135,26 @@ export async function fetchJarFiles(): Promise<JarFile[]> {
   }
 }
 
-export async function fetchJobSchedules(): Promise<JobSchedule[]> {
+export async function fetchJobSchedules(query: JobScheduleQuery = {}): Promise<CursorPage<JobSchedule>> {
   console.log('Fetching job schedules from API...');
   try {
-    console.log('Making API request to:', `${API_BASE_URL}/job-schedules`);
+    const params = new URLSearchParams();
+    query.status?.forEach(status => params.append('status', status));
+    if (query.jarName) params.set('jarName', query.jarName);
+    if (query.executionType) params.set('executionType', query.executionType);
+    if (query.from) params.set('from', query.from);
+    if (query.to) params.set('to', query.to);
+    if (query.cursor) params.set('cursor', query.cursor);
+    if (query.limit) params.set('limit', String(query.limit));
+    const url = `${API_BASE_URL}/job-schedules${params.toString() ? `?${params}` : ''}`;
+    console.log('Making API request to:', url);
 
     // Add a timeout to the fetch request
     const controller = new AbortController();
     const timeoutId = setTimeout(() => controller.abort(), 30000); // 30 second timeout
 
     try {
-      const response = await fetch(`${API_BASE_URL}/job-schedules`, {
+      const response = await fetch(url, {
         signal: controller.signal
       });
 
@@ -135,22 +187,23 @@ export async function fetchJobSchedules(): Promise<JobSchedule[]> {
       console.error('Request timed out. The backend might not be running or is unresponsive.');
     }
 
-    // Return empty array if API is not available
-    return [];
+    // Return an empty page if API is not available
+    return { items: [], nextCursor: null };
   }
 }
 
-export async function fetchJobExecutions(jobScheduleId: string): Promise<JobExecution[]> {
+export async function fetchJobExecutions(jobScheduleId: string, limit?: number): Promise<JobExecution[]> {
   console.log('Fetching job executions from API...');
   try {
-    console.log('Making API request to:', `${API_BASE_URL}/job-executions/job-schedule/${jobScheduleId}`);
+    const url = `${API_BASE_URL}/job-executions/job-schedule/${jobScheduleId}${limit ? `?limit=${limit}` : ''}`;
+    console.log('Making API request to:', url);
 
     // Add a timeout to the fetch request
     const controller = new AbortController();
     const timeoutId = setTimeout(() => controller.abort(), 30000); // 30 second timeout
 
     try {
-      const response = await fetch(`${API_BASE_URL}/job-executions/job-schedule/${jobScheduleId}`, {
+      const response = await fetch(url, {
         signal: controller.signal
       });
 
@@ -164,9 +217,9 @@ export async function fetchJobExecutions(jobScheduleId: string): Promise<JobExec
         throw new Error(`Error fetching job executions: ${errorText || response.statusText}`);
       }
 
-      const data = await response.json();
+      const data: CursorPage<JobExecution> = await response.json();
       console.log('API response data:', data);
-      return data;
+      return data.items;
     } finally {
       clearTimeout(timeoutId);
     }
@@ -249,6 +302,30 @@ export async function createJobSchedule(jobScheduleRequest: JobScheduleRequest):
   }
 }
 
+export async function fetchJobExecutionLogs(executionId: string): Promise<string> {
+  console.log('Fetching complete output of job execution:', executionId);
+
+  // Add a timeout to the fetch request
+  const controller = new AbortController();
+  const timeoutId = setTimeout(() => controller.abort(), 60000); // 60 second timeout, logs can be large
+
+  try {
+    const response = await fetch(`${API_BASE_URL}/job-executions/${executionId}/logs`, {
+      signal: controller.signal
+    });
+
+    if (!response.ok) {
+      const errorText = await response.text();
+      console.error('Error response from server:', errorText);
+      throw new Error(`Error fetching job execution logs: ${errorText || response.statusText}`);
+    }
+
+    return await response.text();
+  } finally {
+    clearTimeout(timeoutId);
+  }
+}
+
 export async function cancelJob(jobScheduleId: string): Promise<void> {
   try {
     // The jobScheduleId is already a UUID from the database, so we don't need to convert it
@@ -1,29 +1,92 @@
 package com.lemnisk.jobscheduler.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
 
+import com.lemnisk.jobscheduler.service.ExecutionAdmissionService;
+
 @Configuration
 @EnableKafka
 public class KafkaConfig {
-    
+
+    @Value("${kafka.topic.job-execution}")
+    private String jobExecutionTopic;
+
+    @Value("${kafka.topic.job-result}")
+    private String jobResultTopic;
+
+    @Value("${kafka.topic.job-control}")
+    private String jobControlTopic;
+
+    @Value("${kafka.topic.partitions:6}")
+    private int partitions;
+
+    @Value("${kafka.topic.replication-factor:1}")
+    private short replicationFactor;
+
+    // Consumer threads per listener; threads beyond the partition count stay idle
+    @Value("${kafka.listener.concurrency:${kafka.topic.partitions:6}}")
+    private int concurrency;
+
+    @Value("${kafka.listener.result-concurrency:${kafka.topic.partitions:6}}")
+    private int resultConcurrency;
+
     @Bean
     public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
-    
+
+    // Topics are created, or their partitions increased, on startup
+    @Bean
+    public NewTopic jobExecutionTopic() {
+        return TopicBuilder.name(jobExecutionTopic).partitions(partitions).replicas(replicationFactor).build();
+    }
+
+    @Bean
+    public NewTopic jobResultTopic() {
+        return TopicBuilder.name(jobResultTopic).partitions(partitions).replicas(replicationFactor).build();
+    }
+
+    @Bean
+    public NewTopic jobControlTopic() {
+        // Every node reads all control messages, more partitions would not spread any load
+        return TopicBuilder.name(jobControlTopic).partitions(1).replicas(replicationFactor).build();
+    }
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory, ExecutionAdmissionService executionAdmissionService) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        // Execution messages are acknowledged from execution threads once the job has finished,
+        // the container commits them on the consumer thread
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(executionAdmissionService);
+        return factory;
+    }
+
+    /**
+     * Factory for listeners that take all records of a poll at once; offsets are
+     * committed once the listener has returned
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaBatchListenerContainerFactory(
             ConsumerFactory<String, Object> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(resultConcurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         return factory;
     }
 }
@@ -9,7 +9,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.lemnisk.jobscheduler.dto.JarFileDTO;
@@ -62,4 +64,35 @@ public class JarFileController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Set how a JAR file is executed: "forked" or "in-jvm"
+     */
+    @PutMapping("/{id}/execution-mode")
+    public ResponseEntity<JarFileDTO> updateExecutionMode(@PathVariable UUID id, @RequestParam String mode) {
+        JarFileDTO jarFileDTO = jarFileService.updateExecutionMode(id, mode);
+
+        if (jarFileDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(jarFileDTO);
+    }
+
+    /**
+     * Set the cgroup limits of forked executions of a JAR file, omitted limits are cleared
+     */
+    @PutMapping("/{id}/resource-limits")
+    public ResponseEntity<JarFileDTO> updateResourceLimits(@PathVariable UUID id,
+            @RequestParam(required = false) Double cpu,
+            @RequestParam(required = false) Long memoryMb,
+            @RequestParam(required = false) Long pids) {
+        JarFileDTO jarFileDTO = jarFileService.updateResourceLimits(id, cpu, memoryMb, pids);
+
+        if (jarFileDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(jarFileDTO);
+    }
 }
@@ -1,17 +1,22 @@
 package com.lemnisk.jobscheduler.controller;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.lemnisk.jobscheduler.dto.CursorPage;
 import com.lemnisk.jobscheduler.dto.JobExecutionDTO;
 import com.lemnisk.jobscheduler.service.JobExecutionService;
+import com.lemnisk.jobscheduler.service.JobLogService;
 
 @RestController
 @RequestMapping("/job-executions")
@@ -19,17 +24,21 @@ import com.lemnisk.jobscheduler.service.JobExecutionService;
 public class JobExecutionController {
 
     private final JobExecutionService jobExecutionService;
+    private final JobLogService jobLogService;
 
-    public JobExecutionController(JobExecutionService jobExecutionService) {
+    public JobExecutionController(JobExecutionService jobExecutionService, JobLogService jobLogService) {
         this.jobExecutionService = jobExecutionService;
+        this.jobLogService = jobLogService;
     }
 
     /**
-     * Get job executions by job schedule ID
+     * Get a page of job executions of a job schedule, latest first
      */
     @GetMapping("/job-schedule/{jobScheduleId}")
-    public ResponseEntity<List<JobExecutionDTO>> getJobExecutionsByJobScheduleId(@PathVariable UUID jobScheduleId) {
-        return ResponseEntity.ok(jobExecutionService.getJobExecutionsByJobScheduleId(jobScheduleId));
+    public ResponseEntity<CursorPage<JobExecutionDTO>> getJobExecutionsByJobScheduleId(@PathVariable UUID jobScheduleId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(jobExecutionService.getJobExecutionsByJobScheduleId(jobScheduleId, cursor, limit));
     }
 
     /**
@@ -45,4 +54,28 @@ public class JobExecutionController {
 
         return ResponseEntity.ok(jobExecutionDTO);
     }
+
+    /**
+     * Get the complete output of a job execution, or one chunk of it, decompressed as it is streamed
+     */
+    @GetMapping("/{id}/logs")
+    public ResponseEntity<StreamingResponseBody> getJobExecutionLogs(@PathVariable UUID id,
+            @RequestParam(required = false) Integer chunk) {
+        JobExecutionDTO jobExecutionDTO = jobExecutionService.getJobExecutionById(id);
+
+        if (jobExecutionDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        int chunks = jobLogService.countChunks(jobExecutionDTO.getLogLocation(), jobExecutionDTO.getLogChunks());
+        if (chunk != null && (chunk < 0 || chunk >= chunks)) {
+            throw new IllegalArgumentException("Invalid chunk " + chunk + ", the log has " + chunks + " chunks");
+        }
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .header("X-Log-Chunks", String.valueOf(chunks))
+                .body(out -> jobLogService.writeLog(jobExecutionDTO.getLogLocation(), jobExecutionDTO.getLogChunks(),
+                        jobExecutionDTO.getLogTail(), chunk, out));
+    }
 }
@@ -1,8 +1,10 @@
 package com.lemnisk.jobscheduler.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,8 +13,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.lemnisk.jobscheduler.dto.CursorPage;
 import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
 import com.lemnisk.jobscheduler.dto.JobScheduleRequest;
 import com.lemnisk.jobscheduler.service.JobScheduleService;
@@ -39,11 +43,19 @@ public class JobScheduleController {
     }
 
     /**
-     * Get all job schedules
+     * Get a page of job schedules, newest first. Pass the nextCursor of a page to get the next one.
      */
     @GetMapping
-    public ResponseEntity<List<JobScheduleDTO>> getAllJobSchedules() {
-        return ResponseEntity.ok(jobScheduleService.getAllJobSchedules());
+    public ResponseEntity<CursorPage<JobScheduleDTO>> getJobSchedules(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String jarName,
+            @RequestParam(required = false) String executionType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(jobScheduleService.getJobSchedules(status, jarName, executionType, from, to, cursor,
+                limit));
     }
 
     /**
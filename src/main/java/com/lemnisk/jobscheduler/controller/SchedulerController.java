@@ -0,0 +1,108 @@
+package com.lemnisk.jobscheduler.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lemnisk.jobscheduler.service.CdsArchiveService;
+import com.lemnisk.jobscheduler.service.CgroupManager;
+import com.lemnisk.jobscheduler.service.ExecutionAdmissionService;
+import com.lemnisk.jobscheduler.service.ExecutionDedupeService;
+import com.lemnisk.jobscheduler.service.ExecutionPipeline;
+import com.lemnisk.jobscheduler.service.JarCacheService;
+import com.lemnisk.jobscheduler.service.JobDispatchService;
+import com.lemnisk.jobscheduler.service.OutboxService;
+import com.lemnisk.jobscheduler.service.ProcessSupervisor;
+import com.lemnisk.jobscheduler.service.RunningExecutionRegistry;
+import com.lemnisk.jobscheduler.service.WarmWorkerPool;
+
+@RestController
+@RequestMapping("/scheduler")
+@CrossOrigin(origins = "${cors.allowed-origins}", allowedHeaders = "*")
+public class SchedulerController {
+
+    private final JobDispatchService jobDispatchService;
+    private final JarCacheService jarCacheService;
+    private final WarmWorkerPool warmWorkerPool;
+    private final CdsArchiveService cdsArchiveService;
+    private final ProcessSupervisor processSupervisor;
+    private final ExecutionPipeline executionPipeline;
+    private final ExecutionAdmissionService executionAdmissionService;
+    private final RunningExecutionRegistry runningExecutionRegistry;
+    private final CgroupManager cgroupManager;
+    private final OutboxService outboxService;
+    private final ExecutionDedupeService executionDedupeService;
+
+    public SchedulerController(JobDispatchService jobDispatchService, JarCacheService jarCacheService,
+            WarmWorkerPool warmWorkerPool, CdsArchiveService cdsArchiveService, ProcessSupervisor processSupervisor,
+            ExecutionPipeline executionPipeline, ExecutionAdmissionService executionAdmissionService,
+            RunningExecutionRegistry runningExecutionRegistry, CgroupManager cgroupManager,
+            OutboxService outboxService, ExecutionDedupeService executionDedupeService) {
+        this.jobDispatchService = jobDispatchService;
+        this.jarCacheService = jarCacheService;
+        this.warmWorkerPool = warmWorkerPool;
+        this.cdsArchiveService = cdsArchiveService;
+        this.processSupervisor = processSupervisor;
+        this.executionPipeline = executionPipeline;
+        this.executionAdmissionService = executionAdmissionService;
+        this.runningExecutionRegistry = runningExecutionRegistry;
+        this.cgroupManager = cgroupManager;
+        this.outboxService = outboxService;
+        this.executionDedupeService = executionDedupeService;
+    }
+
+    /**
+     * Get dispatch statistics of the active scheduler mode
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(jobDispatchService.getDispatchStats());
+    }
+
+    /**
+     * Get hit/miss/eviction statistics of the local JAR cache
+     */
+    @GetMapping("/jar-cache")
+    public ResponseEntity<Map<String, Object>> getJarCacheStats() {
+        Map<String, Object> stats = jarCacheService.getStats();
+        stats.put("cds", cdsArchiveService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Get statistics of the warm worker JVM pool, of forked process supervision and of
+     * cgroup limits
+     */
+    @GetMapping("/worker-pool")
+    public ResponseEntity<Map<String, Object>> getWorkerPoolStats() {
+        Map<String, Object> stats = warmWorkerPool.getStats();
+        stats.put("supervisor", processSupervisor.getStats());
+        stats.put("cgroups", cgroupManager.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Get queue depth, wait times and permit usage of the execution pipeline, the
+     * state of Kafka admission and duplicate deliveries
+     */
+    @GetMapping("/execution-pipeline")
+    public ResponseEntity<Map<String, Object>> getExecutionPipelineStats() {
+        Map<String, Object> stats = executionPipeline.getStats();
+        stats.put("admission", executionAdmissionService.getStats());
+        stats.put("executions", runningExecutionRegistry.getStats());
+        stats.put("dedupe", executionDedupeService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Get pending messages and relay statistics of the dispatch outbox
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.getStats());
+    }
+}
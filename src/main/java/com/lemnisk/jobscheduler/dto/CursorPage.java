@@ -0,0 +1,45 @@
+package com.lemnisk.jobscheduler.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Page of at most pageSize rows from rows fetched with a limit of pageSize + 1; the
+     * extra row only tells whether there is a next page
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -9,6 +9,10 @@ public class JarFileDTO {
     private String description;
     private long size;
     private LocalDateTime uploadedAt;
+    private String executionMode;
+    private Double cpuLimit;
+    private Long memoryLimitMb;
+    private Long pidsLimit;
 
     public JarFileDTO() {
     }
@@ -61,6 +65,38 @@ public class JarFileDTO {
         this.uploadedAt = uploadedAt;
     }
 
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(String executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public Double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    public void setCpuLimit(Double cpuLimit) {
+        this.cpuLimit = cpuLimit;
+    }
+
+    public Long getMemoryLimitMb() {
+        return memoryLimitMb;
+    }
+
+    public void setMemoryLimitMb(Long memoryLimitMb) {
+        this.memoryLimitMb = memoryLimitMb;
+    }
+
+    public Long getPidsLimit() {
+        return pidsLimit;
+    }
+
+    public void setPidsLimit(Long pidsLimit) {
+        this.pidsLimit = pidsLimit;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -93,6 +129,26 @@ public class JarFileDTO {
             return this;
         }
 
+        public Builder executionMode(String executionMode) {
+            dto.setExecutionMode(executionMode);
+            return this;
+        }
+
+        public Builder cpuLimit(Double cpuLimit) {
+            dto.setCpuLimit(cpuLimit);
+            return this;
+        }
+
+        public Builder memoryLimitMb(Long memoryLimitMb) {
+            dto.setMemoryLimitMb(memoryLimitMb);
+            return this;
+        }
+
+        public Builder pidsLimit(Long pidsLimit) {
+            dto.setPidsLimit(pidsLimit);
+            return this;
+        }
+
         public JarFileDTO build() {
             return dto;
         }
@@ -9,25 +9,57 @@ public class JobExecutionDTO {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private String status;
-    private String logs;
+    private String logTail;
+    private String logLocation;
+    private Integer logChunks;
+    private Long logSizeBytes;
+    private String logChecksum;
     private String errorMessage;
     private String executionTime;
     private String response;
+    private String workerType;
+    private Long wallTimeMillis;
+    private Long cpuUserMillis;
+    private Long cpuSystemMillis;
+    private Long peakRssBytes;
+    private Long ioReadBytes;
+    private Long ioWriteBytes;
+    private Boolean oomKilled;
+    private Long cpuThrottledPeriods;
+    private Long cpuThrottledMillis;
 
     public JobExecutionDTO() {
     }
 
+    // Used by the projection queries of JobExecutionRepository
     public JobExecutionDTO(UUID id, UUID jobScheduleId, LocalDateTime startTime, LocalDateTime endTime,
-            String status, String logs, String errorMessage, String executionTime, String response) {
+            String status, String logTail, String logLocation, Integer logChunks, Long logSizeBytes,
+            String logChecksum, String errorMessage, String executionTime, String response, String workerType,
+            Long wallTimeMillis, Long cpuUserMillis, Long cpuSystemMillis, Long peakRssBytes, Long ioReadBytes,
+            Long ioWriteBytes, Boolean oomKilled, Long cpuThrottledPeriods, Long cpuThrottledMillis) {
         this.id = id;
         this.jobScheduleId = jobScheduleId;
         this.startTime = startTime;
         this.endTime = endTime;
         this.status = status;
-        this.logs = logs;
+        this.logTail = logTail;
+        this.logLocation = logLocation;
+        this.logChunks = logChunks;
+        this.logSizeBytes = logSizeBytes;
+        this.logChecksum = logChecksum;
         this.errorMessage = errorMessage;
         this.executionTime = executionTime;
         this.response = response;
+        this.workerType = workerType;
+        this.wallTimeMillis = wallTimeMillis;
+        this.cpuUserMillis = cpuUserMillis;
+        this.cpuSystemMillis = cpuSystemMillis;
+        this.peakRssBytes = peakRssBytes;
+        this.ioReadBytes = ioReadBytes;
+        this.ioWriteBytes = ioWriteBytes;
+        this.oomKilled = oomKilled;
+        this.cpuThrottledPeriods = cpuThrottledPeriods;
+        this.cpuThrottledMillis = cpuThrottledMillis;
     }
 
     public UUID getId() {
@@ -70,12 +102,44 @@ public class JobExecutionDTO {
         this.status = status;
     }
 
-    public String getLogs() {
-        return logs;
+    public String getLogTail() {
+        return logTail;
     }
 
-    public void setLogs(String logs) {
-        this.logs = logs;
+    public void setLogTail(String logTail) {
+        this.logTail = logTail;
+    }
+
+    public String getLogLocation() {
+        return logLocation;
+    }
+
+    public void setLogLocation(String logLocation) {
+        this.logLocation = logLocation;
+    }
+
+    public Integer getLogChunks() {
+        return logChunks;
+    }
+
+    public void setLogChunks(Integer logChunks) {
+        this.logChunks = logChunks;
+    }
+
+    public Long getLogSizeBytes() {
+        return logSizeBytes;
+    }
+
+    public void setLogSizeBytes(Long logSizeBytes) {
+        this.logSizeBytes = logSizeBytes;
+    }
+
+    public String getLogChecksum() {
+        return logChecksum;
+    }
+
+    public void setLogChecksum(String logChecksum) {
+        this.logChecksum = logChecksum;
     }
 
     public String getErrorMessage() {
@@ -102,6 +166,86 @@ public class JobExecutionDTO {
         this.response = response;
     }
 
+    public String getWorkerType() {
+        return workerType;
+    }
+
+    public void setWorkerType(String workerType) {
+        this.workerType = workerType;
+    }
+
+    public Long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public void setWallTimeMillis(Long wallTimeMillis) {
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    public Long getCpuUserMillis() {
+        return cpuUserMillis;
+    }
+
+    public void setCpuUserMillis(Long cpuUserMillis) {
+        this.cpuUserMillis = cpuUserMillis;
+    }
+
+    public Long getCpuSystemMillis() {
+        return cpuSystemMillis;
+    }
+
+    public void setCpuSystemMillis(Long cpuSystemMillis) {
+        this.cpuSystemMillis = cpuSystemMillis;
+    }
+
+    public Long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    public void setPeakRssBytes(Long peakRssBytes) {
+        this.peakRssBytes = peakRssBytes;
+    }
+
+    public Long getIoReadBytes() {
+        return ioReadBytes;
+    }
+
+    public void setIoReadBytes(Long ioReadBytes) {
+        this.ioReadBytes = ioReadBytes;
+    }
+
+    public Long getIoWriteBytes() {
+        return ioWriteBytes;
+    }
+
+    public void setIoWriteBytes(Long ioWriteBytes) {
+        this.ioWriteBytes = ioWriteBytes;
+    }
+
+    public Boolean getOomKilled() {
+        return oomKilled;
+    }
+
+    public void setOomKilled(Boolean oomKilled) {
+        this.oomKilled = oomKilled;
+    }
+
+    public Long getCpuThrottledPeriods() {
+        return cpuThrottledPeriods;
+    }
+
+    public void setCpuThrottledPeriods(Long cpuThrottledPeriods) {
+        this.cpuThrottledPeriods = cpuThrottledPeriods;
+    }
+
+    public Long getCpuThrottledMillis() {
+        return cpuThrottledMillis;
+    }
+
+    public void setCpuThrottledMillis(Long cpuThrottledMillis) {
+        this.cpuThrottledMillis = cpuThrottledMillis;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -134,8 +278,28 @@ public class JobExecutionDTO {
             return this;
         }
 
-        public Builder logs(String logs) {
-            dto.setLogs(logs);
+        public Builder logTail(String logTail) {
+            dto.setLogTail(logTail);
+            return this;
+        }
+
+        public Builder logLocation(String logLocation) {
+            dto.setLogLocation(logLocation);
+            return this;
+        }
+
+        public Builder logChunks(Integer logChunks) {
+            dto.setLogChunks(logChunks);
+            return this;
+        }
+
+        public Builder logSizeBytes(Long logSizeBytes) {
+            dto.setLogSizeBytes(logSizeBytes);
+            return this;
+        }
+
+        public Builder logChecksum(String logChecksum) {
+            dto.setLogChecksum(logChecksum);
             return this;
         }
 
@@ -154,6 +318,56 @@ public class JobExecutionDTO {
             return this;
         }
 
+        public Builder workerType(String workerType) {
+            dto.setWorkerType(workerType);
+            return this;
+        }
+
+        public Builder wallTimeMillis(Long wallTimeMillis) {
+            dto.setWallTimeMillis(wallTimeMillis);
+            return this;
+        }
+
+        public Builder cpuUserMillis(Long cpuUserMillis) {
+            dto.setCpuUserMillis(cpuUserMillis);
+            return this;
+        }
+
+        public Builder cpuSystemMillis(Long cpuSystemMillis) {
+            dto.setCpuSystemMillis(cpuSystemMillis);
+            return this;
+        }
+
+        public Builder peakRssBytes(Long peakRssBytes) {
+            dto.setPeakRssBytes(peakRssBytes);
+            return this;
+        }
+
+        public Builder ioReadBytes(Long ioReadBytes) {
+            dto.setIoReadBytes(ioReadBytes);
+            return this;
+        }
+
+        public Builder ioWriteBytes(Long ioWriteBytes) {
+            dto.setIoWriteBytes(ioWriteBytes);
+            return this;
+        }
+
+        public Builder oomKilled(Boolean oomKilled) {
+            dto.setOomKilled(oomKilled);
+            return this;
+        }
+
+        public Builder cpuThrottledPeriods(Long cpuThrottledPeriods) {
+            dto.setCpuThrottledPeriods(cpuThrottledPeriods);
+            return this;
+        }
+
+        public Builder cpuThrottledMillis(Long cpuThrottledMillis) {
+            dto.setCpuThrottledMillis(cpuThrottledMillis);
+            return this;
+        }
+
         public JobExecutionDTO build() {
             return dto;
         }
@@ -9,7 +9,13 @@ public class JobScheduleDTO {
     private String jarName;
     private String executionType;
     private LocalDateTime scheduledTime;
+    private LocalDateTime nextFireTime;
     private String recurrenceType;
+    private String cronExpression;
+    private Integer timeoutSeconds;
+    private Double cpuLimit;
+    private Long memoryLimitMb;
+    private Long pidsLimit;
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -17,14 +23,23 @@ public class JobScheduleDTO {
     public JobScheduleDTO() {
     }
 
+    // Used by the projection queries of JobScheduleRepository
     public JobScheduleDTO(UUID id, UUID jarFileId, String jarName, String executionType, LocalDateTime scheduledTime,
-            String recurrenceType, String status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+            LocalDateTime nextFireTime, String recurrenceType, String cronExpression, Integer timeoutSeconds,
+            Double cpuLimit, Long memoryLimitMb, Long pidsLimit, String status, LocalDateTime createdAt,
+            LocalDateTime updatedAt) {
         this.id = id;
         this.jarFileId = jarFileId;
         this.jarName = jarName;
         this.executionType = executionType;
         this.scheduledTime = scheduledTime;
+        this.nextFireTime = nextFireTime;
         this.recurrenceType = recurrenceType;
+        this.cronExpression = cronExpression;
+        this.timeoutSeconds = timeoutSeconds;
+        this.cpuLimit = cpuLimit;
+        this.memoryLimitMb = memoryLimitMb;
+        this.pidsLimit = pidsLimit;
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
@@ -70,6 +85,14 @@ public class JobScheduleDTO {
         this.scheduledTime = scheduledTime;
     }
 
+    public LocalDateTime getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public void setNextFireTime(LocalDateTime nextFireTime) {
+        this.nextFireTime = nextFireTime;
+    }
+
     public String getRecurrenceType() {
         return recurrenceType;
     }
@@ -78,6 +101,46 @@ public class JobScheduleDTO {
         this.recurrenceType = recurrenceType;
     }
 
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(Integer timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public Double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    public void setCpuLimit(Double cpuLimit) {
+        this.cpuLimit = cpuLimit;
+    }
+
+    public Long getMemoryLimitMb() {
+        return memoryLimitMb;
+    }
+
+    public void setMemoryLimitMb(Long memoryLimitMb) {
+        this.memoryLimitMb = memoryLimitMb;
+    }
+
+    public Long getPidsLimit() {
+        return pidsLimit;
+    }
+
+    public void setPidsLimit(Long pidsLimit) {
+        this.pidsLimit = pidsLimit;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -134,11 +197,41 @@ public class JobScheduleDTO {
             return this;
         }
 
+        public Builder nextFireTime(LocalDateTime nextFireTime) {
+            dto.setNextFireTime(nextFireTime);
+            return this;
+        }
+
         public Builder recurrenceType(String recurrenceType) {
             dto.setRecurrenceType(recurrenceType);
             return this;
         }
 
+        public Builder cronExpression(String cronExpression) {
+            dto.setCronExpression(cronExpression);
+            return this;
+        }
+
+        public Builder timeoutSeconds(Integer timeoutSeconds) {
+            dto.setTimeoutSeconds(timeoutSeconds);
+            return this;
+        }
+
+        public Builder cpuLimit(Double cpuLimit) {
+            dto.setCpuLimit(cpuLimit);
+            return this;
+        }
+
+        public Builder memoryLimitMb(Long memoryLimitMb) {
+            dto.setMemoryLimitMb(memoryLimitMb);
+            return this;
+        }
+
+        public Builder pidsLimit(Long pidsLimit) {
+            dto.setPidsLimit(pidsLimit);
+            return this;
+        }
+
         public Builder status(String status) {
             dto.setStatus(status);
             return this;
@@ -0,0 +1,94 @@
+package com.lemnisk.jobscheduler.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.lemnisk.jobscheduler.model.JobSchedule;
+
+/**
+ * Criteria of a job schedule listing, unset criteria match every schedule
+ */
+public class JobScheduleFilter {
+    private List<JobSchedule.JobStatus> statuses;
+    private String jarName;
+    private JobSchedule.ExecutionType executionType;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+
+    public List<JobSchedule.JobStatus> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(List<JobSchedule.JobStatus> statuses) {
+        this.statuses = statuses;
+    }
+
+    public String getJarName() {
+        return jarName;
+    }
+
+    public void setJarName(String jarName) {
+        this.jarName = jarName;
+    }
+
+    public JobSchedule.ExecutionType getExecutionType() {
+        return executionType;
+    }
+
+    public void setExecutionType(JobSchedule.ExecutionType executionType) {
+        this.executionType = executionType;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private JobScheduleFilter filter = new JobScheduleFilter();
+
+        public Builder statuses(List<JobSchedule.JobStatus> statuses) {
+            filter.setStatuses(statuses);
+            return this;
+        }
+
+        public Builder jarName(String jarName) {
+            filter.setJarName(jarName);
+            return this;
+        }
+
+        public Builder executionType(JobSchedule.ExecutionType executionType) {
+            filter.setExecutionType(executionType);
+            return this;
+        }
+
+        public Builder createdFrom(LocalDateTime createdFrom) {
+            filter.setCreatedFrom(createdFrom);
+            return this;
+        }
+
+        public Builder createdTo(LocalDateTime createdTo) {
+            filter.setCreatedTo(createdTo);
+            return this;
+        }
+
+        public JobScheduleFilter build() {
+            return filter;
+        }
+    }
+}
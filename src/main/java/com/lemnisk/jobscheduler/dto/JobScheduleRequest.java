@@ -1,6 +1,10 @@
 package com.lemnisk.jobscheduler.dto;
 
+import com.lemnisk.jobscheduler.scheduler.CronExpression;
+
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -15,7 +19,22 @@ public class JobScheduleRequest {
 
     private LocalDateTime scheduledTime; // Required if executionType is "scheduled"
 
-    private String recurrenceType; // "one-time", "hourly", "daily", "weekly"
+    private String recurrenceType; // "one-time", "hourly", "daily", "weekly", "cron"
+
+    private String cronExpression; // Required if recurrenceType is "cron", e.g. "*/5 * * * MON-FRI"
+
+    @Positive(message = "Timeout must be a positive number of seconds")
+    private Integer timeoutSeconds; // Optional, defaults to executor.timeout-seconds
+
+    // Optional cgroup limits, override those of the JAR file
+    @Positive(message = "CPU limit must be a positive number of cores")
+    private Double cpuLimit;
+
+    @Positive(message = "Memory limit must be a positive number of megabytes")
+    private Long memoryLimitMb;
+
+    @Positive(message = "Pids limit must be positive")
+    private Long pidsLimit;
 
     public JobScheduleRequest() {
     }
@@ -59,6 +78,54 @@ public class JobScheduleRequest {
         this.recurrenceType = recurrenceType;
     }
 
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(Integer timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public Double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    public void setCpuLimit(Double cpuLimit) {
+        this.cpuLimit = cpuLimit;
+    }
+
+    public Long getMemoryLimitMb() {
+        return memoryLimitMb;
+    }
+
+    public void setMemoryLimitMb(Long memoryLimitMb) {
+        this.memoryLimitMb = memoryLimitMb;
+    }
+
+    public Long getPidsLimit() {
+        return pidsLimit;
+    }
+
+    public void setPidsLimit(Long pidsLimit) {
+        this.pidsLimit = pidsLimit;
+    }
+
+    @AssertTrue(message = "A valid cron expression is required for cron recurrence")
+    public boolean isCronExpressionValid() {
+        if (recurrenceType == null || !recurrenceType.equalsIgnoreCase("cron")) {
+            return true;
+        }
+        return CronExpression.isValid(cronExpression);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -86,6 +153,31 @@ public class JobScheduleRequest {
             return this;
         }
 
+        public Builder cronExpression(String cronExpression) {
+            request.setCronExpression(cronExpression);
+            return this;
+        }
+
+        public Builder timeoutSeconds(Integer timeoutSeconds) {
+            request.setTimeoutSeconds(timeoutSeconds);
+            return this;
+        }
+
+        public Builder cpuLimit(Double cpuLimit) {
+            request.setCpuLimit(cpuLimit);
+            return this;
+        }
+
+        public Builder memoryLimitMb(Long memoryLimitMb) {
+            request.setMemoryLimitMb(memoryLimitMb);
+            return this;
+        }
+
+        public Builder pidsLimit(Long pidsLimit) {
+            request.setPidsLimit(pidsLimit);
+            return this;
+        }
+
         public JobScheduleRequest build() {
             return request;
         }
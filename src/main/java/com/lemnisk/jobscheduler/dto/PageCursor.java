@@ -0,0 +1,50 @@
+package com.lemnisk.jobscheduler.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a page, ordered by creation time and id. Clients get it
+ * as an opaque string and pass it back to fetch the next page.
+ */
+public class PageCursor {
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    public PageCursor(LocalDateTime createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a request
+     *
+     * @return the cursor, or null for the first page
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new PageCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
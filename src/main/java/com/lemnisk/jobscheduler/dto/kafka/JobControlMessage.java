@@ -0,0 +1,76 @@
+package com.lemnisk.jobscheduler.dto.kafka;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Control request for a job, delivered to every scheduler node
+ */
+public class JobControlMessage {
+
+    public static final String CANCEL = "cancel";
+
+    private UUID jobId;
+    private String action;
+    private LocalDateTime timestamp;
+
+    public JobControlMessage() {
+    }
+
+    public JobControlMessage(UUID jobId, String action, LocalDateTime timestamp) {
+        this.jobId = jobId;
+        this.action = action;
+        this.timestamp = timestamp;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private JobControlMessage message = new JobControlMessage();
+
+        public Builder jobId(UUID jobId) {
+            message.setJobId(jobId);
+            return this;
+        }
+
+        public Builder action(String action) {
+            message.setAction(action);
+            return this;
+        }
+
+        public Builder timestamp(LocalDateTime timestamp) {
+            message.setTimestamp(timestamp);
+            return this;
+        }
+
+        public JobControlMessage build() {
+            return message;
+        }
+    }
+}
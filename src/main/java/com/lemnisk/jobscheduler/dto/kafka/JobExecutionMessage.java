@@ -6,6 +6,7 @@ import java.util.UUID;
 
 public class JobExecutionMessage {
     private UUID jobId;
+    private UUID executionAttemptId; // Unique per dispatch, redeliveries of the message carry the same id
     private String jarName;
     private String executionType;
     private LocalDateTime scheduledTime;
@@ -33,6 +34,14 @@ public class JobExecutionMessage {
         this.jobId = jobId;
     }
 
+    public UUID getExecutionAttemptId() {
+        return executionAttemptId;
+    }
+
+    public void setExecutionAttemptId(UUID executionAttemptId) {
+        this.executionAttemptId = executionAttemptId;
+    }
+
     public String getJarName() {
         return jarName;
     }
@@ -85,6 +94,11 @@ public class JobExecutionMessage {
             return this;
         }
 
+        public Builder executionAttemptId(UUID executionAttemptId) {
+            message.setExecutionAttemptId(executionAttemptId);
+            return this;
+        }
+
         public Builder jarName(String jarName) {
             message.setJarName(jarName);
             return this;
@@ -6,10 +6,15 @@ import java.util.UUID;
 
 public class JobResultMessage {
     private UUID jobId;
+    private UUID executionId; // JobExecution the result belongs to, null if none was created
     private String status; // "success" or "failure"
     private LocalDateTime timestamp;
     private String error;
-    private String logs;
+    private String logs; // Last bytes of the output
+    private String logLocation; // MinIO prefix of the compressed output chunks, null if logs is the complete output
+    private Integer logChunks;
+    private Long logSizeBytes;
+    private String logChecksum; // SHA-256 of the complete output
     private String executionTime;
     private Map<String, Object> metadata;
 
@@ -35,6 +40,14 @@ public class JobResultMessage {
         this.jobId = jobId;
     }
 
+    public UUID getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(UUID executionId) {
+        this.executionId = executionId;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -67,6 +80,38 @@ public class JobResultMessage {
         this.logs = logs;
     }
 
+    public String getLogLocation() {
+        return logLocation;
+    }
+
+    public void setLogLocation(String logLocation) {
+        this.logLocation = logLocation;
+    }
+
+    public Integer getLogChunks() {
+        return logChunks;
+    }
+
+    public void setLogChunks(Integer logChunks) {
+        this.logChunks = logChunks;
+    }
+
+    public Long getLogSizeBytes() {
+        return logSizeBytes;
+    }
+
+    public void setLogSizeBytes(Long logSizeBytes) {
+        this.logSizeBytes = logSizeBytes;
+    }
+
+    public String getLogChecksum() {
+        return logChecksum;
+    }
+
+    public void setLogChecksum(String logChecksum) {
+        this.logChecksum = logChecksum;
+    }
+
     public String getExecutionTime() {
         return executionTime;
     }
@@ -95,6 +140,11 @@ public class JobResultMessage {
             return this;
         }
 
+        public Builder executionId(UUID executionId) {
+            message.setExecutionId(executionId);
+            return this;
+        }
+
         public Builder status(String status) {
             message.setStatus(status);
             return this;
@@ -115,6 +165,26 @@ public class JobResultMessage {
             return this;
         }
 
+        public Builder logLocation(String logLocation) {
+            message.setLogLocation(logLocation);
+            return this;
+        }
+
+        public Builder logChunks(Integer logChunks) {
+            message.setLogChunks(logChunks);
+            return this;
+        }
+
+        public Builder logSizeBytes(Long logSizeBytes) {
+            message.setLogSizeBytes(logSizeBytes);
+            return this;
+        }
+
+        public Builder logChecksum(String logChecksum) {
+            message.setLogChecksum(logChecksum);
+            return this;
+        }
+
         public Builder executionTime(String executionTime) {
             message.setExecutionTime(executionTime);
             return this;
@@ -1,6 +1,8 @@
 package com.lemnisk.jobscheduler.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -19,8 +21,22 @@ public class JarFile {
     private String description;
     private String path;
     private long size;
+    private String etag; // MinIO ETag of the object, identifies the JAR contents
     private LocalDateTime uploadedAt;
 
+    @Enumerated(EnumType.STRING)
+    private ExecutionMode executionMode = ExecutionMode.FORKED;
+
+    // cgroup limits of forked executions, the executor defaults apply where null
+    private Double cpuLimit; // cores
+    private Long memoryLimitMb;
+    private Long pidsLimit;
+
+    public enum ExecutionMode {
+        FORKED, // java -jar in a new process
+        IN_JVM  // main() in an isolated classloader inside the scheduler JVM
+    }
+
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -62,6 +78,14 @@ public class JarFile {
         this.size = size;
     }
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
@@ -70,6 +94,38 @@ public class JarFile {
         this.uploadedAt = uploadedAt;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public Double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    public void setCpuLimit(Double cpuLimit) {
+        this.cpuLimit = cpuLimit;
+    }
+
+    public Long getMemoryLimitMb() {
+        return memoryLimitMb;
+    }
+
+    public void setMemoryLimitMb(Long memoryLimitMb) {
+        this.memoryLimitMb = memoryLimitMb;
+    }
+
+    public Long getPidsLimit() {
+        return pidsLimit;
+    }
+
+    public void setPidsLimit(Long pidsLimit) {
+        this.pidsLimit = pidsLimit;
+    }
+
     // Builder pattern
     public static Builder builder() {
         return new Builder();
@@ -98,11 +154,36 @@ public class JarFile {
             return this;
         }
 
+        public Builder etag(String etag) {
+            jarFile.setEtag(etag);
+            return this;
+        }
+
         public Builder uploadedAt(LocalDateTime uploadedAt) {
             jarFile.setUploadedAt(uploadedAt);
             return this;
         }
 
+        public Builder executionMode(ExecutionMode executionMode) {
+            jarFile.setExecutionMode(executionMode);
+            return this;
+        }
+
+        public Builder cpuLimit(Double cpuLimit) {
+            jarFile.setCpuLimit(cpuLimit);
+            return this;
+        }
+
+        public Builder memoryLimitMb(Long memoryLimitMb) {
+            jarFile.setMemoryLimitMb(memoryLimitMb);
+            return this;
+        }
+
+        public Builder pidsLimit(Long pidsLimit) {
+            jarFile.setPidsLimit(pidsLimit);
+            return this;
+        }
+
         public JarFile build() {
             return jarFile;
         }
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+// Table and indexes are created by the Flyway migrations in db/migration
 @Entity
 public class JobExecution {
 
@@ -16,14 +17,31 @@ public class JobExecution {
     @JoinColumn(name = "job_schedule_id")
     private JobSchedule jobSchedule;
 
+    // Dispatch this execution belongs to, a second execution for the same dispatch is rejected
+    @Column(unique = true)
+    private UUID attemptId;
+
     private LocalDateTime startTime;
     private LocalDateTime endTime;
 
+    // Refreshed by the node running the execution, a STARTED execution whose heartbeat stopped
+    // was abandoned and may be reclaimed by a redelivery of its dispatch
+    private LocalDateTime heartbeatAt;
+
     @Enumerated(EnumType.STRING)
     private ExecutionStatus status;
 
+    // Only the end of the output is kept in the row, the complete output is stored in
+    // compressed chunks under logLocation and read through the logs endpoint
     @Column(columnDefinition = "TEXT")
-    private String logs;
+    private String logTail;
+
+    private String logLocation; // MinIO prefix of the output chunks, null if logTail is the complete output
+    private Integer logChunks;
+    private Long logSizeBytes;
+
+    @Column(length = 64)
+    private String logChecksum; // SHA-256 of the complete output
 
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
@@ -33,8 +51,30 @@ public class JobExecution {
 
     private String executionTime; // in milliseconds or formatted string
 
+    // Resources used by the execution, null where they could not be measured
+    private Long wallTimeMillis;
+    private Long cpuUserMillis;
+    private Long cpuSystemMillis;
+    private Long peakRssBytes;
+    private Long ioReadBytes;
+    private Long ioWriteBytes;
+
+    // cgroup events, null if the execution ran without a cgroup
+    private Boolean oomKilled;
+    private Long cpuThrottledPeriods;
+    private Long cpuThrottledMillis;
+
+    @Enumerated(EnumType.STRING)
+    private WorkerType workerType;
+
     public enum ExecutionStatus {
-        STARTED, COMPLETED, FAILED
+        STARTED, COMPLETED, FAILED, CANCELLED
+    }
+
+    public enum WorkerType {
+        COLD,   // new JVM started for this execution
+        WARM,   // pre-started worker JVM from the pool
+        IN_JVM  // inside the scheduler JVM
     }
 
     // Getters and Setters
@@ -54,6 +94,14 @@ public class JobExecution {
         this.jobSchedule = jobSchedule;
     }
 
+    public UUID getAttemptId() {
+        return attemptId;
+    }
+
+    public void setAttemptId(UUID attemptId) {
+        this.attemptId = attemptId;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -70,6 +118,14 @@ public class JobExecution {
         this.endTime = endTime;
     }
 
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
     public ExecutionStatus getStatus() {
         return status;
     }
@@ -78,12 +134,44 @@ public class JobExecution {
         this.status = status;
     }
 
-    public String getLogs() {
-        return logs;
+    public String getLogTail() {
+        return logTail;
+    }
+
+    public void setLogTail(String logTail) {
+        this.logTail = logTail;
+    }
+
+    public String getLogLocation() {
+        return logLocation;
+    }
+
+    public void setLogLocation(String logLocation) {
+        this.logLocation = logLocation;
+    }
+
+    public Integer getLogChunks() {
+        return logChunks;
+    }
+
+    public void setLogChunks(Integer logChunks) {
+        this.logChunks = logChunks;
+    }
+
+    public Long getLogSizeBytes() {
+        return logSizeBytes;
     }
 
-    public void setLogs(String logs) {
-        this.logs = logs;
+    public void setLogSizeBytes(Long logSizeBytes) {
+        this.logSizeBytes = logSizeBytes;
+    }
+
+    public String getLogChecksum() {
+        return logChecksum;
+    }
+
+    public void setLogChecksum(String logChecksum) {
+        this.logChecksum = logChecksum;
     }
 
     public String getErrorMessage() {
@@ -110,6 +198,86 @@ public class JobExecution {
         this.executionTime = executionTime;
     }
 
+    public WorkerType getWorkerType() {
+        return workerType;
+    }
+
+    public void setWorkerType(WorkerType workerType) {
+        this.workerType = workerType;
+    }
+
+    public Long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public void setWallTimeMillis(Long wallTimeMillis) {
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    public Long getCpuUserMillis() {
+        return cpuUserMillis;
+    }
+
+    public void setCpuUserMillis(Long cpuUserMillis) {
+        this.cpuUserMillis = cpuUserMillis;
+    }
+
+    public Long getCpuSystemMillis() {
+        return cpuSystemMillis;
+    }
+
+    public void setCpuSystemMillis(Long cpuSystemMillis) {
+        this.cpuSystemMillis = cpuSystemMillis;
+    }
+
+    public Long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    public void setPeakRssBytes(Long peakRssBytes) {
+        this.peakRssBytes = peakRssBytes;
+    }
+
+    public Long getIoReadBytes() {
+        return ioReadBytes;
+    }
+
+    public void setIoReadBytes(Long ioReadBytes) {
+        this.ioReadBytes = ioReadBytes;
+    }
+
+    public Long getIoWriteBytes() {
+        return ioWriteBytes;
+    }
+
+    public void setIoWriteBytes(Long ioWriteBytes) {
+        this.ioWriteBytes = ioWriteBytes;
+    }
+
+    public Boolean getOomKilled() {
+        return oomKilled;
+    }
+
+    public void setOomKilled(Boolean oomKilled) {
+        this.oomKilled = oomKilled;
+    }
+
+    public Long getCpuThrottledPeriods() {
+        return cpuThrottledPeriods;
+    }
+
+    public void setCpuThrottledPeriods(Long cpuThrottledPeriods) {
+        this.cpuThrottledPeriods = cpuThrottledPeriods;
+    }
+
+    public Long getCpuThrottledMillis() {
+        return cpuThrottledMillis;
+    }
+
+    public void setCpuThrottledMillis(Long cpuThrottledMillis) {
+        this.cpuThrottledMillis = cpuThrottledMillis;
+    }
+
     // Builder pattern
     public static Builder builder() {
         return new Builder();
@@ -123,6 +291,11 @@ public class JobExecution {
             return this;
         }
 
+        public Builder attemptId(UUID attemptId) {
+            jobExecution.setAttemptId(attemptId);
+            return this;
+        }
+
         public Builder startTime(LocalDateTime startTime) {
             jobExecution.setStartTime(startTime);
             return this;
@@ -138,8 +311,28 @@ public class JobExecution {
             return this;
         }
 
-        public Builder logs(String logs) {
-            jobExecution.setLogs(logs);
+        public Builder logTail(String logTail) {
+            jobExecution.setLogTail(logTail);
+            return this;
+        }
+
+        public Builder logLocation(String logLocation) {
+            jobExecution.setLogLocation(logLocation);
+            return this;
+        }
+
+        public Builder logChunks(Integer logChunks) {
+            jobExecution.setLogChunks(logChunks);
+            return this;
+        }
+
+        public Builder logSizeBytes(Long logSizeBytes) {
+            jobExecution.setLogSizeBytes(logSizeBytes);
+            return this;
+        }
+
+        public Builder logChecksum(String logChecksum) {
+            jobExecution.setLogChecksum(logChecksum);
             return this;
         }
 
@@ -158,6 +351,56 @@ public class JobExecution {
             return this;
         }
 
+        public Builder workerType(WorkerType workerType) {
+            jobExecution.setWorkerType(workerType);
+            return this;
+        }
+
+        public Builder wallTimeMillis(Long wallTimeMillis) {
+            jobExecution.setWallTimeMillis(wallTimeMillis);
+            return this;
+        }
+
+        public Builder cpuUserMillis(Long cpuUserMillis) {
+            jobExecution.setCpuUserMillis(cpuUserMillis);
+            return this;
+        }
+
+        public Builder cpuSystemMillis(Long cpuSystemMillis) {
+            jobExecution.setCpuSystemMillis(cpuSystemMillis);
+            return this;
+        }
+
+        public Builder peakRssBytes(Long peakRssBytes) {
+            jobExecution.setPeakRssBytes(peakRssBytes);
+            return this;
+        }
+
+        public Builder ioReadBytes(Long ioReadBytes) {
+            jobExecution.setIoReadBytes(ioReadBytes);
+            return this;
+        }
+
+        public Builder ioWriteBytes(Long ioWriteBytes) {
+            jobExecution.setIoWriteBytes(ioWriteBytes);
+            return this;
+        }
+
+        public Builder oomKilled(Boolean oomKilled) {
+            jobExecution.setOomKilled(oomKilled);
+            return this;
+        }
+
+        public Builder cpuThrottledPeriods(Long cpuThrottledPeriods) {
+            jobExecution.setCpuThrottledPeriods(cpuThrottledPeriods);
+            return this;
+        }
+
+        public Builder cpuThrottledMillis(Long cpuThrottledMillis) {
+            jobExecution.setCpuThrottledMillis(cpuThrottledMillis);
+            return this;
+        }
+
         public JobExecution build() {
             return jobExecution;
         }
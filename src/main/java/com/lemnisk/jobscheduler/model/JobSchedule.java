@@ -14,6 +14,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 
+// Table and indexes are created by the Flyway migrations in db/migration
 @Entity
 public class JobSchedule {
 
@@ -30,9 +31,21 @@ public class JobSchedule {
 
     private LocalDateTime scheduledTime;
 
+    // When the job fires next. Recurring jobs advance this in place after every run.
+    private LocalDateTime nextFireTime;
+
     @Enumerated(EnumType.STRING)
     private RecurrenceType recurrenceType;
 
+    private String cronExpression; // Only set for CRON recurrence
+
+    private Integer timeoutSeconds; // Per-job execution timeout, the executor default applies if null
+
+    // cgroup limits of forked executions, override those of the JAR file
+    private Double cpuLimit; // cores
+    private Long memoryLimitMb;
+    private Long pidsLimit;
+
     @Enumerated(EnumType.STRING)
     private JobStatus status;
 
@@ -55,11 +68,11 @@ public class JobSchedule {
     }
 
     public enum RecurrenceType {
-        ONE_TIME, HOURLY, DAILY, WEEKLY
+        ONE_TIME, HOURLY, DAILY, WEEKLY, CRON
     }
 
     public enum JobStatus {
-        SCHEDULED, RUNNING, COMPLETED, FAILED, CANCELLED
+        SCHEDULED, DISPATCHED, RUNNING, COMPLETED, FAILED, CANCELLED
     }
 
     // Getters and Setters
@@ -95,6 +108,14 @@ public class JobSchedule {
         this.scheduledTime = scheduledTime;
     }
 
+    public LocalDateTime getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public void setNextFireTime(LocalDateTime nextFireTime) {
+        this.nextFireTime = nextFireTime;
+    }
+
     public RecurrenceType getRecurrenceType() {
         return recurrenceType;
     }
@@ -103,6 +124,46 @@ public class JobSchedule {
         this.recurrenceType = recurrenceType;
     }
 
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+
+    public Integer getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(Integer timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public Double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    public void setCpuLimit(Double cpuLimit) {
+        this.cpuLimit = cpuLimit;
+    }
+
+    public Long getMemoryLimitMb() {
+        return memoryLimitMb;
+    }
+
+    public void setMemoryLimitMb(Long memoryLimitMb) {
+        this.memoryLimitMb = memoryLimitMb;
+    }
+
+    public Long getPidsLimit() {
+        return pidsLimit;
+    }
+
+    public void setPidsLimit(Long pidsLimit) {
+        this.pidsLimit = pidsLimit;
+    }
+
     public JobStatus getStatus() {
         return status;
     }
@@ -150,11 +211,41 @@ public class JobSchedule {
             return this;
         }
 
+        public Builder nextFireTime(LocalDateTime nextFireTime) {
+            jobSchedule.setNextFireTime(nextFireTime);
+            return this;
+        }
+
         public Builder recurrenceType(RecurrenceType recurrenceType) {
             jobSchedule.setRecurrenceType(recurrenceType);
             return this;
         }
 
+        public Builder cronExpression(String cronExpression) {
+            jobSchedule.setCronExpression(cronExpression);
+            return this;
+        }
+
+        public Builder timeoutSeconds(Integer timeoutSeconds) {
+            jobSchedule.setTimeoutSeconds(timeoutSeconds);
+            return this;
+        }
+
+        public Builder cpuLimit(Double cpuLimit) {
+            jobSchedule.setCpuLimit(cpuLimit);
+            return this;
+        }
+
+        public Builder memoryLimitMb(Long memoryLimitMb) {
+            jobSchedule.setMemoryLimitMb(memoryLimitMb);
+            return this;
+        }
+
+        public Builder pidsLimit(Long pidsLimit) {
+            jobSchedule.setPidsLimit(pidsLimit);
+            return this;
+        }
+
         public Builder status(JobStatus status) {
             jobSchedule.setStatus(status);
             return this;
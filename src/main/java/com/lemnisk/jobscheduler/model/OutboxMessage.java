@@ -0,0 +1,153 @@
+package com.lemnisk.jobscheduler.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+
+/**
+ * A Kafka message written in the transaction that produced it and sent by the outbox
+ * relay once that transaction has committed. Rows are deleted after Kafka acknowledged
+ * the message.
+ */
+@Entity
+public class OutboxMessage {
+
+    // Increasing, so messages are relayed in the order they were written
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String topic;
+
+    private String messageKey;
+
+    private String payloadType; // Class of the payload, the consumers rely on the type header
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    private int attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime parkedAt; // Set once the message is no longer sent
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getMessageKey() {
+        return messageKey;
+    }
+
+    public void setMessageKey(String messageKey) {
+        this.messageKey = messageKey;
+    }
+
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public void setPayloadType(String payloadType) {
+        this.payloadType = payloadType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Builder pattern
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(LocalDateTime parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private OutboxMessage outboxMessage = new OutboxMessage();
+
+        public Builder topic(String topic) {
+            outboxMessage.setTopic(topic);
+            return this;
+        }
+
+        public Builder messageKey(String messageKey) {
+            outboxMessage.setMessageKey(messageKey);
+            return this;
+        }
+
+        public Builder payloadType(String payloadType) {
+            outboxMessage.setPayloadType(payloadType);
+            return this;
+        }
+
+        public Builder payload(String payload) {
+            outboxMessage.setPayload(payload);
+            return this;
+        }
+
+        public OutboxMessage build() {
+            return outboxMessage;
+        }
+    }
+}
@@ -1,16 +1,65 @@
 package com.lemnisk.jobscheduler.repository;
 
+import com.lemnisk.jobscheduler.dto.JobExecutionDTO;
 import com.lemnisk.jobscheduler.model.JobExecution;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface JobExecutionRepository extends JpaRepository<JobExecution, UUID> {
-    
+
+    // Listing columns only; the schedule id is the foreign key column, so the schedule is not loaded
+    String DTO_PROJECTION = "SELECT new com.lemnisk.jobscheduler.dto.JobExecutionDTO(e.id, e.jobSchedule.id, "
+            + "e.startTime, e.endTime, CAST(e.status AS String), e.logTail, e.logLocation, e.logChunks, "
+            + "e.logSizeBytes, e.logChecksum, e.errorMessage, e.executionTime, e.response, CAST(e.workerType AS String), e.wallTimeMillis, e.cpuUserMillis, "
+            + "e.cpuSystemMillis, e.peakRssBytes, e.ioReadBytes, e.ioWriteBytes, e.oomKilled, "
+            + "e.cpuThrottledPeriods, e.cpuThrottledMillis) FROM JobExecution e";
+
     List<JobExecution> findByJobScheduleId(UUID jobScheduleId);
-    
-    List<JobExecution> findByJobScheduleIdOrderByStartTimeDesc(UUID jobScheduleId);
+
+    // Executions are paged by (startTime, id), the start time is set when the row is created
+    @Query(DTO_PROJECTION + " WHERE e.jobSchedule.id = :jobScheduleId ORDER BY e.startTime DESC, e.id DESC")
+    List<JobExecutionDTO> findDTOsByJobScheduleId(@Param("jobScheduleId") UUID jobScheduleId, Limit limit);
+
+    @Query(DTO_PROJECTION + " WHERE e.jobSchedule.id = :jobScheduleId AND (e.startTime < :afterStartTime "
+            + "OR (e.startTime = :afterStartTime AND e.id < :afterId)) ORDER BY e.startTime DESC, e.id DESC")
+    List<JobExecutionDTO> findDTOsByJobScheduleIdAfter(@Param("jobScheduleId") UUID jobScheduleId,
+            @Param("afterStartTime") LocalDateTime afterStartTime, @Param("afterId") UUID afterId, Limit limit);
+
+    @Query(DTO_PROJECTION + " WHERE e.id = :id")
+    Optional<JobExecutionDTO> findDTOById(@Param("id") UUID id);
+
+    boolean existsByAttemptId(UUID attemptId);
+
+    Optional<JobExecution> findByAttemptId(UUID attemptId);
+
+    /**
+     * Refresh the heartbeat of executions that are still running
+     */
+    @Modifying
+    @Query("UPDATE JobExecution e SET e.heartbeatAt = :now WHERE e.id IN :ids "
+            + "AND e.status = com.lemnisk.jobscheduler.model.JobExecution$ExecutionStatus.STARTED")
+    int updateHeartbeats(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Take over a STARTED execution whose heartbeat (or start, if it never had one) is older than staleBefore
+     *
+     * @return 1 if the execution was reclaimed, 0 if it finished, is still heartbeating or was reclaimed by another node
+     */
+    @Modifying
+    @Query("UPDATE JobExecution e SET e.heartbeatAt = :now WHERE e.id = :id "
+            + "AND e.status = com.lemnisk.jobscheduler.model.JobExecution$ExecutionStatus.STARTED "
+            + "AND COALESCE(e.heartbeatAt, e.startTime) < :staleBefore")
+    int reclaimAbandoned(@Param("id") UUID id, @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("now") LocalDateTime now);
 }
@@ -1,21 +1,109 @@
 package com.lemnisk.jobscheduler.repository;
 
+import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
 import com.lemnisk.jobscheduler.model.JobSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface JobScheduleRepository extends JpaRepository<JobSchedule, UUID> {
-    
+public interface JobScheduleRepository extends JpaRepository<JobSchedule, UUID>, JobScheduleRepositoryCustom {
+
+    // Listing columns with the JAR name joined in, so listings take one query and load no entities.
+    // JobScheduleRepositoryImpl appends the filters of a page to it.
+    String DTO_PROJECTION = "SELECT new com.lemnisk.jobscheduler.dto.JobScheduleDTO(j.id, f.id, f.name, "
+            + "CAST(j.executionType AS String), j.scheduledTime, j.nextFireTime, CAST(j.recurrenceType AS String), "
+            + "j.cronExpression, j.timeoutSeconds, j.cpuLimit, j.memoryLimitMb, j.pidsLimit, CAST(j.status AS String), "
+            + "j.createdAt, j.updatedAt) FROM JobSchedule j JOIN j.jarFile f";
+
+    @Query(DTO_PROJECTION + " WHERE j.id = :id")
+    Optional<JobScheduleDTO> findDTOById(@Param("id") UUID id);
+
     List<JobSchedule> findByStatus(JobSchedule.JobStatus status);
+
+    @Query("SELECT j.status FROM JobSchedule j WHERE j.id = :id")
+    Optional<JobSchedule.JobStatus> findStatusById(@Param("id") UUID id);
     
-    @Query("SELECT j FROM JobSchedule j WHERE j.scheduledTime <= ?1 AND j.status = ?2")
+    @Query("SELECT j FROM JobSchedule j WHERE j.nextFireTime <= ?1 AND j.status = ?2")
     List<JobSchedule> findJobsDueForExecution(LocalDateTime now, JobSchedule.JobStatus status);
+
+    @Query("SELECT j FROM JobSchedule j WHERE j.nextFireTime > ?1 AND j.nextFireTime <= ?2 AND j.status = ?3")
+    List<JobSchedule> findJobsScheduledBetween(LocalDateTime after, LocalDateTime until, JobSchedule.JobStatus status);
     
     List<JobSchedule> findByJarFileId(UUID jarFileId);
+
+    /**
+     * Claim up to batchSize due jobs by moving them from SCHEDULED to DISPATCHED in a single statement.
+     * Rows locked by another scheduler node are skipped rather than waited on.
+     */
+    @Query(value = "UPDATE job_schedule SET status = 'DISPATCHED', updated_at = now() WHERE id IN ("
+            + "SELECT id FROM job_schedule WHERE status = 'SCHEDULED' AND next_fire_time <= :now "
+            + "ORDER BY next_fire_time LIMIT :batchSize FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id", nativeQuery = true)
+    List<UUID> claimDueJobs(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    /**
+     * Claim the given jobs if they are still SCHEDULED, returning the ids that were claimed
+     */
+    @Query(value = "UPDATE job_schedule SET status = 'DISPATCHED', updated_at = now() "
+            + "WHERE id IN (:ids) AND status = 'SCHEDULED' RETURNING id", nativeQuery = true)
+    List<UUID> claimJobs(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Move a job to a new status if it is still in one of the expected ones
+     *
+     * @return 1 if the job was moved, 0 if it is missing or in another status
+     */
+    @Modifying
+    @Query("UPDATE JobSchedule j SET j.status = :to, j.updatedAt = :now WHERE j.id = :id AND j.status IN :from")
+    int transitionStatus(@Param("id") UUID id, @Param("from") Collection<JobSchedule.JobStatus> from,
+            @Param("to") JobSchedule.JobStatus to, @Param("now") LocalDateTime now);
+
+    /**
+     * Put a running recurring job back in the SCHEDULED state with its next fire time
+     *
+     * @return 1 if the job was rescheduled, 0 if it is no longer running (e.g. cancelled).
+     * Loaded job schedules are detached, so changes made to them afterwards are not written back.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE JobSchedule j SET j.status = com.lemnisk.jobscheduler.model.JobSchedule$JobStatus.SCHEDULED, "
+            + "j.nextFireTime = :nextFireTime, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = com.lemnisk.jobscheduler.model.JobSchedule$JobStatus.RUNNING")
+    int rescheduleRunning(@Param("id") UUID id, @Param("nextFireTime") LocalDateTime nextFireTime,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Put a batch of jobs that were dispatched before the given time back in the SCHEDULED state,
+     * if no execution of them has started and their message is no longer waiting in the outbox.
+     * Their message was lost or dropped, the trigger dispatches them again.
+     *
+     * @return the ids of the requeued jobs
+     */
+    @Query(value = "UPDATE job_schedule SET status = 'SCHEDULED', updated_at = now() WHERE id IN ("
+            + "SELECT j.id FROM job_schedule j WHERE j.status = 'DISPATCHED' AND j.updated_at < :dispatchedBefore "
+            + "AND NOT EXISTS (SELECT 1 FROM job_execution e WHERE e.job_schedule_id = j.id AND e.status = 'STARTED') "
+            + "AND NOT EXISTS (SELECT 1 FROM outbox_message o WHERE o.message_key = CAST(j.id AS VARCHAR) AND o.parked_at IS NULL) "
+            + "LIMIT :batchSize FOR UPDATE SKIP LOCKED) "
+            + "AND status = 'DISPATCHED' RETURNING id", nativeQuery = true)
+    List<UUID> requeueStaleDispatches(@Param("dispatchedBefore") LocalDateTime dispatchedBefore,
+            @Param("batchSize") int batchSize);
+
+    /**
+     * Cancel a job that is scheduled, dispatched or running
+     *
+     * @return the status the job was cancelled in, empty if it could not be cancelled
+     */
+    @Query(value = "UPDATE job_schedule j SET status = 'CANCELLED', updated_at = now() "
+            + "FROM (SELECT id, status FROM job_schedule WHERE id = :id FOR UPDATE) previous "
+            + "WHERE j.id = previous.id AND previous.status IN ('SCHEDULED', 'DISPATCHED', 'RUNNING') "
+            + "RETURNING previous.status", nativeQuery = true)
+    List<String> cancel(@Param("id") UUID id);
 }
@@ -0,0 +1,15 @@
+package com.lemnisk.jobscheduler.repository;
+
+import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
+import com.lemnisk.jobscheduler.dto.JobScheduleFilter;
+import com.lemnisk.jobscheduler.dto.PageCursor;
+
+import java.util.List;
+
+public interface JobScheduleRepositoryCustom {
+
+    /**
+     * Schedules matching the filter, newest first, starting after the cursor
+     */
+    List<JobScheduleDTO> findPage(JobScheduleFilter filter, PageCursor after, int limit);
+}
@@ -0,0 +1,60 @@
+package com.lemnisk.jobscheduler.repository;
+
+import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
+import com.lemnisk.jobscheduler.dto.JobScheduleFilter;
+import com.lemnisk.jobscheduler.dto.PageCursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination over (createdAt, id). Only the criteria that are set become part of
+ * the query, so each combination can use its index instead of a generic plan.
+ */
+public class JobScheduleRepositoryImpl implements JobScheduleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<JobScheduleDTO> findPage(JobScheduleFilter filter, PageCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(JobScheduleRepository.DTO_PROJECTION).append(" WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            jpql.append(" AND j.status IN :statuses");
+            parameters.put("statuses", filter.getStatuses());
+        }
+        if (filter.getJarName() != null) {
+            jpql.append(" AND f.name = :jarName");
+            parameters.put("jarName", filter.getJarName());
+        }
+        if (filter.getExecutionType() != null) {
+            jpql.append(" AND j.executionType = :executionType");
+            parameters.put("executionType", filter.getExecutionType());
+        }
+        if (filter.getCreatedFrom() != null) {
+            jpql.append(" AND j.createdAt >= :createdFrom");
+            parameters.put("createdFrom", filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            jpql.append(" AND j.createdAt < :createdTo");
+            parameters.put("createdTo", filter.getCreatedTo());
+        }
+        if (after != null) {
+            jpql.append(" AND (j.createdAt < :afterCreatedAt OR (j.createdAt = :afterCreatedAt AND j.id < :afterId))");
+            parameters.put("afterCreatedAt", after.getCreatedAt());
+            parameters.put("afterId", after.getId());
+        }
+        jpql.append(" ORDER BY j.createdAt DESC, j.id DESC");
+
+        TypedQuery<JobScheduleDTO> query = entityManager.createQuery(jpql.toString(), JobScheduleDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
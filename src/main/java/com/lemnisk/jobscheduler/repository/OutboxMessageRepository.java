@@ -0,0 +1,45 @@
+package com.lemnisk.jobscheduler.repository;
+
+import com.lemnisk.jobscheduler.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Take the transaction-scoped relay lock, so only one node relays at a time and
+     * messages of a job are sent in the order they were written
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryRelayLock(@Param("lockId") long lockId);
+
+    /**
+     * The oldest messages that are not parked, locked until the relay's transaction ends
+     */
+    @Query(value = "SELECT * FROM outbox_message WHERE parked_at IS NULL ORDER BY id "
+            + "LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> findNextBatch(@Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts + 1, o.lastError = :error WHERE o.id = :id")
+    int recordFailedAttempt(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Record the last failed attempt and stop sending the message
+     */
+    @Modifying
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts + 1, o.lastError = :error, o.parkedAt = :now "
+            + "WHERE o.id = :id")
+    int park(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    long countByParkedAtIsNull();
+
+    long countByParkedAtIsNotNull();
+}
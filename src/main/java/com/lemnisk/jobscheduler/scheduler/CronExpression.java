@@ -0,0 +1,334 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cron expression compiled into one bitset per field.
+ *
+ * Accepts the classic five fields ({@code minute hour day-of-month month day-of-week})
+ * or six fields with a leading seconds field. Each field supports {@code *}, {@code ?},
+ * single values, ranges, lists and steps, plus month and weekday names. As in Vixie cron,
+ * when both day fields are restricted a day matches if either of them matches.
+ *
+ * Expressions are parsed once and kept in a small LRU cache. {@link #next(LocalDateTime)} only works on the
+ * precompiled bitsets and primitive date fields, the result is the only allocation.
+ */
+public final class CronExpression {
+
+    // Expressions come from API requests, so the cache keeps only the most recently used ones
+    private static final int MAX_CACHED = 1024;
+
+    private static final Map<String, CronExpression> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CronExpression> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            });
+
+    private static final String[] MONTH_NAMES = {
+            "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
+    };
+    private static final String[] DAY_NAMES = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+    // Offsets for Sakamoto's day-of-week algorithm
+    private static final int[] DOW_OFFSETS = { 0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4 };
+
+    // A day-of-month / day-of-week combination repeats at the latest after 28 years
+    private static final int MAX_YEARS_AHEAD = 28;
+
+    private final String expression;
+    private final long seconds;     // bits 0-59
+    private final long minutes;     // bits 0-59
+    private final long hours;       // bits 0-23
+    private final long daysOfMonth; // bits 1-31
+    private final long months;      // bits 1-12
+    private final long daysOfWeek;  // bits 0-6, 0 = Sunday
+    private final boolean dayOfMonthWildcard;
+    private final boolean dayOfWeekWildcard;
+
+    private CronExpression(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5 && fields.length != 6) {
+            throw new IllegalArgumentException("Cron expression must have 5 or 6 fields: " + expression);
+        }
+
+        int offset = fields.length == 6 ? 1 : 0;
+        this.expression = expression;
+        this.seconds = offset == 1 ? parseField(fields[0], 0, 59, null) : 1L;
+        this.minutes = parseField(fields[offset], 0, 59, null);
+        this.hours = parseField(fields[offset + 1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[offset + 2], 1, 31, null);
+        this.months = parseField(fields[offset + 3], 1, 12, MONTH_NAMES);
+
+        // Both 0 and 7 mean Sunday
+        long dow = parseField(fields[offset + 4], 0, 7, DAY_NAMES);
+        this.daysOfWeek = (dow | (dow >>> 7)) & 0x7FL;
+
+        this.dayOfMonthWildcard = isWildcard(fields[offset + 2]);
+        this.dayOfWeekWildcard = isWildcard(fields[offset + 4]);
+    }
+
+    /**
+     * Parse (or fetch from the cache) a cron expression
+     *
+     * @throws IllegalArgumentException if the expression is malformed or never fires
+     */
+    public static CronExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Cron expression is required");
+        }
+
+        CronExpression cached = CACHE.get(expression);
+        if (cached != null) {
+            return cached;
+        }
+
+        CronExpression compiled = new CronExpression(expression);
+        if (compiled.next(LocalDateTime.now()) == null) {
+            throw new IllegalArgumentException("Cron expression never fires: " + expression);
+        }
+
+        CACHE.putIfAbsent(expression, compiled);
+        return compiled;
+    }
+
+    public static boolean isValid(String expression) {
+        try {
+            parse(expression);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the first fire time strictly after the given time, at second precision.
+     *
+     * @return the next fire time, or null if the expression does not fire within 28 years
+     */
+    public LocalDateTime next(LocalDateTime after) {
+        int year = after.getYear();
+        int month = after.getMonthValue();
+        int day = after.getDayOfMonth();
+        int hour = after.getHour();
+        int minute = after.getMinute();
+        int second = after.getSecond() + 1;
+        int maxYear = year + MAX_YEARS_AHEAD;
+
+        while (year <= maxYear) {
+            int nextMonth = nextSetBit(months, month, 12);
+            if (nextMonth < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+            }
+
+            int nextDay = nextMatchingDay(year, month, day);
+            if (nextDay < 0) {
+                month++;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextDay != day) {
+                day = nextDay;
+                hour = 0;
+                minute = 0;
+                second = 0;
+            }
+
+            int nextHour = nextSetBit(hours, hour, 23);
+            if (nextHour < 0) {
+                day++;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = 0;
+                second = 0;
+            }
+
+            int nextMinute = nextSetBit(minutes, minute, 59);
+            if (nextMinute < 0) {
+                hour++;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (nextMinute != minute) {
+                minute = nextMinute;
+                second = 0;
+            }
+
+            int nextSecond = nextSetBit(seconds, second, 59);
+            if (nextSecond < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+
+            return LocalDateTime.of(year, month, day, hour, minute, nextSecond);
+        }
+
+        return null;
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private int nextMatchingDay(int year, int month, int fromDay) {
+        int length = monthLength(year, month);
+        for (int day = fromDay; day <= length; day++) {
+            boolean dayOfMonthMatches = (daysOfMonth & (1L << day)) != 0;
+            boolean dayOfWeekMatches = (daysOfWeek & (1L << dayOfWeek(year, month, day))) != 0;
+
+            boolean matches = dayOfMonthWildcard || dayOfWeekWildcard
+                    ? dayOfMonthMatches && dayOfWeekMatches
+                    : dayOfMonthMatches || dayOfWeekMatches;
+            if (matches) {
+                return day;
+            }
+        }
+        return -1;
+    }
+
+    private static int nextSetBit(long bits, int from, int max) {
+        if (from > max) {
+            return -1;
+        }
+        long remaining = bits & (-1L << from);
+        if (remaining == 0) {
+            return -1;
+        }
+        int bit = Long.numberOfTrailingZeros(remaining);
+        return bit <= max ? bit : -1;
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Day of week with 0 = Sunday
+     */
+    private static int dayOfWeek(int year, int month, int day) {
+        if (month < 3) {
+            year -= 1;
+        }
+        return (year + year / 4 - year / 100 + year / 400 + DOW_OFFSETS[month - 1] + day) % 7;
+    }
+
+    private static boolean isWildcard(String field) {
+        return field.startsWith("*") || field.equals("?");
+    }
+
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0;
+
+        for (String part : field.split(",")) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Empty element in cron field: " + field);
+            }
+
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, null);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*") || part.equals("?")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    start = parseNumber(part.substring(0, dash), min, max, names);
+                    end = parseNumber(part.substring(dash + 1), min, max, names);
+                    if (end < start) {
+                        throw new IllegalArgumentException("Invalid range in cron field: " + part);
+                    }
+                } else {
+                    start = parseNumber(part, min, max, names);
+                    // "5/15" means every 15 starting at 5
+                    end = slash >= 0 ? max : start;
+                }
+            }
+
+            for (int value = start; value <= end; value += step) {
+                bits |= 1L << value;
+            }
+        }
+
+        return bits;
+    }
+
+    private static int parseNumber(String value, int min, int max, String[] names) {
+        if (names != null) {
+            String upper = value.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upper)) {
+                    // Month names start at 1, day names at 0
+                    return min == 1 ? i + 1 : i;
+                }
+            }
+        }
+
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value in cron expression: " + value);
+        }
+
+        if (number < min || number > max) {
+            throw new IllegalArgumentException(
+                    "Value " + number + " out of range [" + min + "-" + max + "] in cron expression");
+        }
+        return number;
+    }
+}
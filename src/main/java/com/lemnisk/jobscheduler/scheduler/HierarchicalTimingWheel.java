@@ -0,0 +1,255 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel keyed by an arbitrary id.
+ *
+ * Scheduling and cancelling are O(1). Deadlines beyond the range of the innermost
+ * wheel go to lazily created overflow wheels with coarser ticks and are cascaded
+ * down as time advances. Only non-empty buckets are placed on a {@link DelayQueue},
+ * so the driver thread sleeps until the next bucket actually expires instead of
+ * waking up on every tick.
+ *
+ * As in Kafka's TimingWheel, a bucket expires at the start of its tick on every level.
+ * Deadlines are rounded up to the innermost tick, so a key never fires before its deadline
+ * and at most one innermost tick after it.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final DelayQueue<Bucket<K>> delayQueue = new DelayQueue<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final Wheel<K> root;
+    private final long tickMs;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        this(tickMs, wheelSize, startMs, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a wheel whose buckets expire according to the given clock
+     */
+    HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs, LongSupplier clock) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        this.tickMs = tickMs;
+        this.root = new Wheel<>(tickMs, wheelSize, startMs, delayQueue, clock);
+    }
+
+    /**
+     * Schedule (or reschedule) a key to expire at the given epoch millisecond.
+     *
+     * @return false if the deadline is already due, in which case nothing is stored
+     *         and the caller is expected to fire the key itself
+     */
+    public synchronized boolean schedule(K key, long deadlineMs) {
+        removeEntry(key);
+
+        // Round up to the innermost tick, whose buckets expire at the start of the tick
+        long remainder = Math.floorMod(deadlineMs, tickMs);
+        long expirationMs = remainder == 0 ? deadlineMs : deadlineMs - remainder + tickMs;
+
+        Entry<K> entry = new Entry<>(key, expirationMs);
+        if (!root.add(entry)) {
+            return false;
+        }
+
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Remove a key from the wheel
+     */
+    public synchronized boolean cancel(K key) {
+        return removeEntry(key);
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Wait up to the given timeout for the next bucket to expire and return every key
+     * whose deadline has been reached. Entries from overflow wheels that are not due yet
+     * are cascaded into finer-grained buckets.
+     */
+    public List<K> advance(long timeoutMs) throws InterruptedException {
+        Bucket<K> bucket = delayQueue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return List.of();
+        }
+
+        List<K> expired = new ArrayList<>();
+        synchronized (this) {
+            while (bucket != null) {
+                root.advanceClock(bucket.getExpiration());
+                for (Entry<K> entry : bucket.flush()) {
+                    if (!root.add(entry)) {
+                        entries.remove(entry.key);
+                        expired.add(entry.key);
+                    }
+                }
+                bucket = delayQueue.poll();
+            }
+        }
+        return expired;
+    }
+
+    private boolean removeEntry(K key) {
+        Entry<K> existing = entries.remove(key);
+        if (existing == null) {
+            return false;
+        }
+        if (existing.bucket != null) {
+            existing.bucket.remove(existing);
+        }
+        return true;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long expirationMs;
+        private Bucket<K> bucket;
+
+        private Entry(K key, long expirationMs) {
+            this.key = key;
+            this.expirationMs = expirationMs;
+        }
+    }
+
+    private static final class Bucket<K> implements Delayed {
+        private final AtomicLong expiration = new AtomicLong(-1L);
+        private final Set<Entry<K>> bucketEntries = new HashSet<>();
+        private final LongSupplier clock;
+
+        private Bucket(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        private void add(Entry<K> entry) {
+            bucketEntries.add(entry);
+            entry.bucket = this;
+        }
+
+        private void remove(Entry<K> entry) {
+            bucketEntries.remove(entry);
+            entry.bucket = null;
+        }
+
+        /**
+         * Set the expiration of a bucket that is not queued. The expiration of a queued bucket
+         * is never changed, that would break the ordering of the delay queue.
+         *
+         * @return true if the bucket was not queued and has to be queued now
+         */
+        private boolean setExpiration(long expirationMs) {
+            long current = expiration.compareAndExchange(-1L, expirationMs);
+            if (current != -1L && current != expirationMs) {
+                throw new IllegalStateException("Bucket expiring at " + current
+                        + " is still queued, cannot reuse it for " + expirationMs);
+            }
+            return current == -1L;
+        }
+
+        private long getExpiration() {
+            return expiration.get();
+        }
+
+        private List<Entry<K>> flush() {
+            List<Entry<K>> flushed = new ArrayList<>(bucketEntries);
+            for (Entry<K> entry : flushed) {
+                entry.bucket = null;
+            }
+            bucketEntries.clear();
+            expiration.set(-1L);
+            return flushed;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            long delayMs = Math.max(getExpiration() - clock.getAsLong(), 0L);
+            return unit.convert(delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket<?>) other).getExpiration());
+        }
+    }
+
+    private static final class Wheel<K> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final List<Bucket<K>> buckets;
+        private final DelayQueue<Bucket<K>> delayQueue;
+        private final LongSupplier clock;
+        private long currentTimeMs;
+        private Wheel<K> overflowWheel;
+
+        private Wheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket<K>> delayQueue, LongSupplier clock) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.delayQueue = delayQueue;
+            this.clock = clock;
+            this.currentTimeMs = startMs - Math.floorMod(startMs, tickMs);
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket<>(clock));
+            }
+        }
+
+        private boolean add(Entry<K> entry) {
+            long expirationMs = entry.expirationMs;
+
+            // Entries within the current tick are due
+            if (expirationMs < currentTimeMs + tickMs) {
+                return false;
+            }
+
+            if (expirationMs < currentTimeMs + interval) {
+                long virtualId = Math.floorDiv(expirationMs, tickMs);
+                Bucket<K> bucket = buckets.get((int) Math.floorMod(virtualId, (long) wheelSize));
+                bucket.add(entry);
+
+                // A bucket is queued the first time it is used in a rotation. Every bucket
+                // of the previous rotation expired before the clock reached this one.
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    delayQueue.offer(bucket);
+                }
+                return true;
+            }
+
+            if (overflowWheel == null) {
+                overflowWheel = new Wheel<>(interval, wheelSize, currentTimeMs, delayQueue, clock);
+            }
+            return overflowWheel.add(entry);
+        }
+
+        private void advanceClock(long timeMs) {
+            if (timeMs >= currentTimeMs + tickMs) {
+                currentTimeMs = timeMs - Math.floorMod(timeMs, tickMs);
+                if (overflowWheel != null) {
+                    overflowWheel.advanceClock(currentTimeMs);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.util.UUID;
+
+import com.lemnisk.jobscheduler.model.JobSchedule;
+
+/**
+ * Fires scheduled jobs when they become due. The active implementation is
+ * selected with the {@code scheduler.mode} property.
+ */
+public interface JobTrigger {
+
+    /**
+     * Register (or re-register) a scheduled job
+     */
+    void schedule(JobSchedule jobSchedule);
+
+    /**
+     * Stop tracking a job that was cancelled
+     */
+    void cancel(UUID jobScheduleId);
+}
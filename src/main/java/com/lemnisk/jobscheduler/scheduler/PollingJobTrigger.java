@@ -0,0 +1,65 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lemnisk.jobscheduler.model.JobSchedule;
+import com.lemnisk.jobscheduler.service.JobDispatchService;
+
+/**
+ * Legacy trigger that periodically queries the database for due jobs
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = "poll")
+public class PollingJobTrigger implements JobTrigger {
+
+    private static final Logger log = LoggerFactory.getLogger(PollingJobTrigger.class);
+
+    private final JobDispatchService jobDispatchService;
+
+    @Value("${scheduler.dispatch.batch-size:500}")
+    private int batchSize;
+
+    public PollingJobTrigger(JobDispatchService jobDispatchService) {
+        this.jobDispatchService = jobDispatchService;
+    }
+
+    @Override
+    public void schedule(JobSchedule jobSchedule) {
+        // Picked up by the next poll
+    }
+
+    @Override
+    public void cancel(UUID jobScheduleId) {
+        // Cancelled jobs no longer match the poll query
+    }
+
+    /**
+     * Claim and dispatch scheduled jobs that are due for execution, one batch at a time
+     */
+    @Scheduled(fixedRateString = "${scheduler.poll.interval-ms:30000}")
+    public void checkScheduledJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        log.info("Checking for scheduled jobs due for execution at {}", now);
+
+        try {
+            int total = 0;
+            int claimed;
+            do {
+                claimed = jobDispatchService.claimAndDispatchDueJobs(now, batchSize);
+                total += claimed;
+            } while (claimed == batchSize);
+
+            log.info("Dispatched {} jobs due for execution", total);
+        } catch (Exception e) {
+            log.error("Error checking for scheduled jobs: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import com.lemnisk.jobscheduler.service.JobDispatchService;
+
+/**
+ * Quartz job that claims and dispatches a single scheduled job to Kafka. A failed
+ * dispatch is retried by a new trigger for the same job, the one that fired is gone
+ * once this returns.
+ */
+public class QuartzDispatchJob extends QuartzJobBean {
+
+    private static final Logger log = LoggerFactory.getLogger(QuartzDispatchJob.class);
+
+    private JobDispatchService jobDispatchService;
+    private String jobScheduleId;
+
+    @Value("${scheduler.quartz.retry-ms:5000}")
+    private long retryMs;
+
+    @Autowired
+    public void setJobDispatchService(JobDispatchService jobDispatchService) {
+        this.jobDispatchService = jobDispatchService;
+    }
+
+    // Populated from the job data map
+    public void setJobScheduleId(String jobScheduleId) {
+        this.jobScheduleId = jobScheduleId;
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+        log.debug("Quartz trigger fired for job {}", jobScheduleId);
+        try {
+            jobDispatchService.dispatchDueJobs(List.of(UUID.fromString(jobScheduleId)));
+        } catch (Exception e) {
+            log.error("Error dispatching job {}, retrying in {} ms: {}", jobScheduleId, retryMs, e.getMessage(), e);
+            scheduleRetry(context, e);
+        }
+    }
+
+    private void scheduleRetry(JobExecutionContext context, Exception cause) throws JobExecutionException {
+        // A trigger of its own, the fired one is deleted when this execution completes
+        String group = context.getTrigger().getKey().getGroup();
+        Trigger retry = TriggerBuilder.newTrigger()
+                .withIdentity(jobScheduleId + "-retry-" + System.currentTimeMillis(), group)
+                .forJob(context.getJobDetail().getKey())
+                .startAt(new Date(System.currentTimeMillis() + retryMs))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+                .build();
+        try {
+            context.getScheduler().scheduleJob(retry);
+        } catch (SchedulerException e) {
+            // The overdue sweep of QuartzJobTrigger dispatches the job instead
+            log.error("Could not schedule retry of job {}: {}", jobScheduleId, e.getMessage(), e);
+            throw new JobExecutionException(cause, false);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lemnisk.jobscheduler.model.JobSchedule;
+import com.lemnisk.jobscheduler.repository.JobScheduleRepository;
+import com.lemnisk.jobscheduler.service.JobDispatchService;
+
+/**
+ * Registers each scheduled job as a trigger in the clustered Quartz JDBC job store.
+ * Quartz acquires triggers under a database row lock, so firing is spread across
+ * all scheduler nodes and each trigger fires on exactly one of them. A slow sweep
+ * claims any scheduled job that is overdue by more than a sweep interval, so a job
+ * whose trigger fired but failed to dispatch does not wait for a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = "quartz")
+public class QuartzJobTrigger implements JobTrigger {
+
+    private static final Logger log = LoggerFactory.getLogger(QuartzJobTrigger.class);
+
+    private static final String JOB_GROUP = "job-schedules";
+    private static final String JOB_SCHEDULE_ID = "jobScheduleId";
+
+    private final Scheduler scheduler;
+    private final JobScheduleRepository jobScheduleRepository;
+    private final JobDispatchService jobDispatchService;
+
+    @Value("${scheduler.quartz.sweep-ms:60000}")
+    private long sweepMs;
+
+    @Value("${scheduler.dispatch.batch-size:500}")
+    private int batchSize;
+
+    public QuartzJobTrigger(Scheduler scheduler, JobScheduleRepository jobScheduleRepository,
+            JobDispatchService jobDispatchService) {
+        this.scheduler = scheduler;
+        this.jobScheduleRepository = jobScheduleRepository;
+        this.jobDispatchService = jobDispatchService;
+    }
+
+    /**
+     * Register scheduled jobs that do not have a Quartz trigger yet, e.g. after
+     * switching from another scheduler mode
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerExistingJobs() {
+        List<JobSchedule> jobs = jobScheduleRepository.findByStatus(JobSchedule.JobStatus.SCHEDULED);
+        int registered = 0;
+
+        for (JobSchedule job : jobs) {
+            try {
+                if (!scheduler.checkExists(jobKey(job.getId()))) {
+                    schedule(job);
+                    registered++;
+                }
+            } catch (SchedulerException e) {
+                log.error("Error registering job {} with Quartz: {}", job.getId(), e.getMessage(), e);
+            }
+        }
+
+        log.info("Registered {} of {} scheduled jobs with Quartz", registered, jobs.size());
+    }
+
+    /**
+     * Claim and dispatch scheduled jobs that are overdue by more than a sweep interval.
+     * Quartz fires jobs long before that, this only catches jobs whose trigger was lost.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.quartz.sweep-ms:60000}", initialDelayString = "${scheduler.quartz.sweep-ms:60000}")
+    public void sweepOverdueJobs() {
+        try {
+            LocalDateTime overdueBefore = LocalDateTime.now().minus(sweepMs, ChronoUnit.MILLIS);
+            int total = 0;
+            int claimed;
+            do {
+                claimed = jobDispatchService.claimAndDispatchDueJobs(overdueBefore, batchSize);
+                total += claimed;
+            } while (claimed == batchSize);
+
+            if (total > 0) {
+                log.warn("Dispatched {} overdue jobs Quartz had not fired", total);
+            }
+        } catch (Exception e) {
+            log.error("Error sweeping overdue jobs: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void schedule(JobSchedule jobSchedule) {
+        if (jobSchedule.getStatus() != JobSchedule.JobStatus.SCHEDULED) {
+            return;
+        }
+
+        JobDetail jobDetail = JobBuilder.newJob(QuartzDispatchJob.class)
+                .withIdentity(jobKey(jobSchedule.getId()))
+                .usingJobData(JOB_SCHEDULE_ID, jobSchedule.getId().toString())
+                .build();
+
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(jobSchedule.getId().toString(), JOB_GROUP)
+                .startAt(Date.from(jobSchedule.getNextFireTime().atZone(ZoneId.systemDefault()).toInstant()))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+                .build();
+
+        try {
+            scheduler.scheduleJob(jobDetail, Set.of(trigger), true);
+            log.debug("Scheduled Quartz trigger for job {} at {}", jobSchedule.getId(), jobSchedule.getNextFireTime());
+        } catch (SchedulerException e) {
+            log.error("Error scheduling Quartz trigger for job {}: {}", jobSchedule.getId(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void cancel(UUID jobScheduleId) {
+        try {
+            scheduler.deleteJob(jobKey(jobScheduleId));
+        } catch (SchedulerException e) {
+            log.error("Error deleting Quartz job {}: {}", jobScheduleId, e.getMessage(), e);
+        }
+    }
+
+    private JobKey jobKey(UUID jobScheduleId) {
+        return JobKey.jobKey(jobScheduleId.toString(), JOB_GROUP);
+    }
+}
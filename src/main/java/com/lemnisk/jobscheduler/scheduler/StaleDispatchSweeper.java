@@ -0,0 +1,59 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lemnisk.jobscheduler.service.JobScheduleService;
+
+/**
+ * Returns jobs that stayed DISPATCHED without an execution to the SCHEDULED state.
+ *
+ * A claimed job only leaves DISPATCHED once a node starts it. If its message never
+ * reaches a node (lost, dropped or expired from the topic), nothing else would ever
+ * dispatch it again. The threshold has to stay well above the time a message can wait
+ * in Kafka while executors are busy; a job that does start twice is still only run
+ * once, the second attempt finds it no longer DISPATCHED.
+ */
+@Component
+public class StaleDispatchSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleDispatchSweeper.class);
+
+    private final JobScheduleService jobScheduleService;
+
+    @Value("${scheduler.dispatch.stale-after-ms:600000}")
+    private long staleAfterMs;
+
+    @Value("${scheduler.dispatch.batch-size:500}")
+    private int batchSize;
+
+    public StaleDispatchSweeper(JobScheduleService jobScheduleService) {
+        this.jobScheduleService = jobScheduleService;
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.dispatch.sweep-ms:60000}",
+            initialDelayString = "${scheduler.dispatch.sweep-ms:60000}")
+    public void requeueStaleDispatches() {
+        try {
+            LocalDateTime dispatchedBefore = LocalDateTime.now().minus(staleAfterMs, ChronoUnit.MILLIS);
+            int total = 0;
+            int requeued;
+            do {
+                requeued = jobScheduleService.requeueStaleDispatches(dispatchedBefore, batchSize);
+                total += requeued;
+            } while (requeued == batchSize);
+
+            if (total > 0) {
+                log.warn("Requeued {} jobs that were dispatched before {} but never started", total, dispatchedBefore);
+            }
+        } catch (Exception e) {
+            log.error("Error requeueing stale dispatches: {}", e.getMessage(), e);
+        }
+    }
+}
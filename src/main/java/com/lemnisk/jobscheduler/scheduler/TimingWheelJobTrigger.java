@@ -0,0 +1,230 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.lemnisk.jobscheduler.model.JobSchedule;
+import com.lemnisk.jobscheduler.repository.JobScheduleRepository;
+import com.lemnisk.jobscheduler.service.JobDispatchService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps upcoming scheduled jobs in an in-memory hierarchical timing wheel and
+ * dispatches each one as soon as its scheduled time is reached.
+ *
+ * Only jobs due within the configured horizon are held in memory. The horizon is
+ * extended periodically with a range query over the next window, so the database
+ * is queried once per refresh instead of on every tick. Jobs the wheel failed to
+ * dispatch are retried, and a slow sweep claims any scheduled job that is overdue
+ * by more than a sweep interval, whatever kept it from firing.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = "wheel", matchIfMissing = true)
+public class TimingWheelJobTrigger implements JobTrigger {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelJobTrigger.class);
+
+    private final JobScheduleRepository jobScheduleRepository;
+    private final JobDispatchService jobDispatchService;
+
+    @Value("${scheduler.wheel.tick-ms:10}")
+    private long tickMs;
+
+    @Value("${scheduler.wheel.size:512}")
+    private int wheelSize;
+
+    @Value("${scheduler.wheel.horizon-minutes:10}")
+    private long horizonMinutes;
+
+    @Value("${scheduler.wheel.retry-ms:5000}")
+    private long retryMs;
+
+    @Value("${scheduler.wheel.sweep-ms:60000}")
+    private long sweepMs;
+
+    @Value("${scheduler.dispatch.batch-size:500}")
+    private int batchSize;
+
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "job-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HierarchicalTimingWheel<UUID> wheel;
+    private Thread driver;
+    private volatile boolean running;
+    private volatile LocalDateTime loadedUntil;
+
+    public TimingWheelJobTrigger(JobScheduleRepository jobScheduleRepository, JobDispatchService jobDispatchService) {
+        this.jobScheduleRepository = jobScheduleRepository;
+        this.jobDispatchService = jobDispatchService;
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        running = true;
+
+        driver = new Thread(this::runDriver, "job-timing-wheel");
+        driver.setDaemon(true);
+        driver.start();
+
+        log.info("Timing wheel started: tick={}ms, size={}, horizon={}min", tickMs, wheelSize, horizonMinutes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+        dispatchExecutor.shutdown();
+    }
+
+    /**
+     * Load every scheduled job due within the horizon, including overdue ones
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void hydrate() {
+        LocalDateTime until = LocalDateTime.now().plusMinutes(horizonMinutes);
+        List<JobSchedule> jobs = jobScheduleRepository.findJobsDueForExecution(until, JobSchedule.JobStatus.SCHEDULED);
+
+        for (JobSchedule job : jobs) {
+            schedule(job);
+        }
+        loadedUntil = until;
+
+        log.info("Loaded {} scheduled jobs into the timing wheel (due before {})", jobs.size(), until);
+    }
+
+    /**
+     * Pull the next window of scheduled jobs into the wheel
+     */
+    @Scheduled(fixedDelayString = "${scheduler.wheel.refresh-ms:60000}")
+    public void refresh() {
+        if (loadedUntil == null) {
+            return;
+        }
+
+        // Extend the horizon before querying, so jobs committed while the query runs are
+        // added by schedule() instead of falling between the query and the horizon
+        LocalDateTime from = loadedUntil;
+        LocalDateTime until = LocalDateTime.now().plusMinutes(horizonMinutes);
+        loadedUntil = until;
+
+        try {
+            List<JobSchedule> jobs = jobScheduleRepository.findJobsScheduledBetween(from, until,
+                    JobSchedule.JobStatus.SCHEDULED);
+
+            for (JobSchedule job : jobs) {
+                schedule(job);
+            }
+
+            log.debug("Timing wheel refreshed: {} new jobs, {} pending, loaded until {}", jobs.size(), wheel.size(), until);
+        } catch (Exception e) {
+            // Query the window again on the next refresh
+            loadedUntil = from;
+            log.error("Error refreshing timing wheel: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim and dispatch scheduled jobs that are overdue by more than a sweep interval.
+     * The wheel fires jobs long before that, this only catches jobs it lost.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.wheel.sweep-ms:60000}", initialDelayString = "${scheduler.wheel.sweep-ms:60000}")
+    public void sweepOverdueJobs() {
+        if (loadedUntil == null) {
+            return;
+        }
+
+        try {
+            LocalDateTime overdueBefore = LocalDateTime.now().minus(sweepMs, ChronoUnit.MILLIS);
+            int total = 0;
+            int claimed;
+            do {
+                claimed = jobDispatchService.claimAndDispatchDueJobs(overdueBefore, batchSize);
+                total += claimed;
+            } while (claimed == batchSize);
+
+            if (total > 0) {
+                log.warn("Dispatched {} overdue jobs the timing wheel had not fired", total);
+            }
+        } catch (Exception e) {
+            log.error("Error sweeping overdue jobs: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void schedule(JobSchedule jobSchedule) {
+        if (jobSchedule.getStatus() != JobSchedule.JobStatus.SCHEDULED) {
+            return;
+        }
+
+        // Jobs beyond the loaded horizon are picked up by the next refresh
+        if (loadedUntil != null && jobSchedule.getNextFireTime().isAfter(loadedUntil)) {
+            return;
+        }
+
+        long deadlineMs = jobSchedule.getNextFireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(jobSchedule.getId(), deadlineMs)) {
+            // Already due
+            fire(List.of(jobSchedule.getId()));
+        }
+    }
+
+    @Override
+    public void cancel(UUID jobScheduleId) {
+        wheel.cancel(jobScheduleId);
+    }
+
+    private void runDriver() {
+        while (running) {
+            try {
+                List<UUID> expired = wheel.advance(200);
+                if (!expired.isEmpty()) {
+                    fire(expired);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error advancing timing wheel: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void fire(List<UUID> jobScheduleIds) {
+        dispatchExecutor.execute(() -> {
+            try {
+                jobDispatchService.dispatchDueJobs(jobScheduleIds);
+            } catch (Exception e) {
+                // Nothing was claimed, the jobs are still SCHEDULED. Jobs cancelled in the
+                // meantime are skipped by the claim when they fire again.
+                log.error("Error dispatching due jobs {}, retrying in {} ms: {}", jobScheduleIds, retryMs,
+                        e.getMessage(), e);
+                long retryAtMs = System.currentTimeMillis() + retryMs;
+                for (UUID jobScheduleId : jobScheduleIds) {
+                    wheel.schedule(jobScheduleId, retryAtMs);
+                }
+            }
+        });
+    }
+}
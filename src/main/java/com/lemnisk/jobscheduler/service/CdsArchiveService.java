@@ -0,0 +1,134 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains a dynamic CDS (class data sharing) archive per cached JAR, so forked JVMs
+ * map the job's classes from the archive instead of loading and verifying them again.
+ *
+ * The first cold run of a JAR dumps the archive when the JVM exits, later runs start
+ * with it. Archives sit next to the cached JAR and share its ETag based name, so a JAR
+ * that changes in MinIO gets a new archive and evicting a JAR removes its archive.
+ */
+@Service
+public class CdsArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(CdsArchiveService.class);
+
+    public static final String ARCHIVE_SUFFIX = ".jsa";
+
+    // CDS warnings (e.g. an archive created by another JDK version) would end up in the job output
+    private static final List<String> QUIET = List.of("-Xshare:auto", "-Xlog:cds=off", "-Xlog:cds+dynamic=off");
+
+    @Value("${executor.cds.enabled:true}")
+    private boolean enabled;
+
+    // Keys of JARs whose archive is being dumped by a running execution
+    private final Set<String> generating = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder archivesCreated = new LongAdder();
+    private final LongAdder archivedRuns = new LongAdder();
+
+    /**
+     * Get the JVM options for a cold run of the cached JAR. The returned run must be
+     * completed once the process has exited.
+     */
+    public ArchiveRun prepare(JarCacheService.CachedJar jar) {
+        if (!enabled) {
+            return new ArchiveRun(jar, List.of(), null);
+        }
+
+        Path archive = archivePath(jar.getPath());
+        if (Files.exists(archive)) {
+            archivedRuns.increment();
+            return new ArchiveRun(jar, withQuietLogging("-XX:SharedArchiveFile=" + archive), null);
+        }
+
+        // Only one execution dumps the archive, the others run without one meanwhile
+        if (!generating.add(jar.getKey())) {
+            return new ArchiveRun(jar, List.of(), null);
+        }
+
+        Path tempArchive = archive.resolveSibling(archive.getFileName() + ".tmp");
+        return new ArchiveRun(jar, withQuietLogging("-XX:ArchiveClassesAtExit=" + tempArchive), tempArchive);
+    }
+
+    /**
+     * Get CDS statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("archivesCreated", archivesCreated.sum());
+        stats.put("archivedRuns", archivedRuns.sum());
+        return stats;
+    }
+
+    static Path archivePath(Path jarPath) {
+        String fileName = jarPath.getFileName().toString();
+        return jarPath.resolveSibling(fileName.substring(0, fileName.lastIndexOf('.')) + ARCHIVE_SUFFIX);
+    }
+
+    private static List<String> withQuietLogging(String option) {
+        List<String> options = new ArrayList<>(QUIET);
+        options.add(option);
+        return options;
+    }
+
+    /**
+     * JVM options for one forked execution, plus the archive it is dumping, if any
+     */
+    public class ArchiveRun {
+        private final JarCacheService.CachedJar jar;
+        private final List<String> jvmOptions;
+        private final Path tempArchive;
+
+        private ArchiveRun(JarCacheService.CachedJar jar, List<String> jvmOptions, Path tempArchive) {
+            this.jar = jar;
+            this.jvmOptions = jvmOptions;
+            this.tempArchive = tempArchive;
+        }
+
+        public List<String> getJvmOptions() {
+            return jvmOptions;
+        }
+
+        /**
+         * Publish the dumped archive if the run exited normally
+         */
+        public void complete(boolean success) {
+            if (tempArchive == null) {
+                return;
+            }
+
+            try {
+                if (success && Files.exists(tempArchive)) {
+                    Files.move(tempArchive, archivePath(jar.getPath()), StandardCopyOption.ATOMIC_MOVE);
+                    archivesCreated.increment();
+                    log.info("Created CDS archive for cached JAR {}", jar.getKey());
+                } else {
+                    Files.deleteIfExists(tempArchive);
+                }
+            } catch (IOException e) {
+                log.warn("Could not store CDS archive for {}: {}", jar.getKey(), e.getMessage());
+            } finally {
+                generating.remove(jar.getKey());
+            }
+        }
+    }
+}
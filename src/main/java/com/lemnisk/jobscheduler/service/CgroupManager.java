@@ -0,0 +1,304 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Places forked job processes into their own cgroup v2 group with CPU, memory and pids
+ * limits, so one job cannot starve the scheduler or other jobs on the node.
+ *
+ * The scheduler needs a delegated, writable cgroup subtree (e.g. a systemd unit with
+ * {@code Delegate=yes}). If the root cannot be set up, e.g. on cgroup v1 hosts or
+ * outside Linux, no groups are created and processes run without limits.
+ */
+@Service
+public class CgroupManager {
+
+    private static final Logger log = LoggerFactory.getLogger(CgroupManager.class);
+
+    private static final List<String> CONTROLLERS = List.of("cpu", "memory", "pids");
+    private static final long CPU_PERIOD_MICROS = 100_000;
+
+    @Value("${executor.cgroup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${executor.cgroup.root:/sys/fs/cgroup/job-scheduler}")
+    private String root;
+
+    // Defaults for executions without limits of their own, 0 means unlimited
+    @Value("${executor.cgroup.cpu-limit:0}")
+    private double defaultCpuCores;
+
+    @Value("${executor.cgroup.memory-limit-mb:0}")
+    private long defaultMemoryMb;
+
+    @Value("${executor.cgroup.pids-limit:0}")
+    private long defaultPids;
+
+    private volatile boolean available;
+
+    private final LongAdder groupsCreated = new LongAdder();
+    private final LongAdder oomKills = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("cgroup limits disabled, forked jobs run without resource limits");
+            return;
+        }
+
+        Path rootPath = Paths.get(root);
+        try {
+            if (!Files.exists(rootPath.getParent().resolve("cgroup.controllers"))) {
+                throw new IOException(rootPath.getParent() + " is not a cgroup v2 hierarchy");
+            }
+            Files.createDirectories(rootPath);
+            enableControllers(rootPath.getParent());
+            enableControllers(rootPath);
+            available = true;
+            log.info("Forked jobs run in cgroups under {} (defaults: {})", rootPath, getDefaultLimits());
+        } catch (IOException | RuntimeException e) {
+            log.info("cgroup v2 not writable at {}, forked jobs run without resource limits: {}", rootPath,
+                    e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Limits for executions that have none of their own
+     */
+    public ResourceLimits getDefaultLimits() {
+        return new ResourceLimits(
+                defaultCpuCores > 0 ? defaultCpuCores : null,
+                defaultMemoryMb > 0 ? defaultMemoryMb : null,
+                defaultPids > 0 ? defaultPids : null);
+    }
+
+    /**
+     * Create a group with the given limits
+     *
+     * @return the group, or null if cgroups are not available or the group could not be created
+     */
+    public Cgroup create(String name, ResourceLimits limits) {
+        if (!available) {
+            return null;
+        }
+
+        Path path = Paths.get(root, name);
+        try {
+            Files.createDirectories(path);
+            if (limits.getCpuCores() != null) {
+                long quota = Math.max(1000, Math.round(limits.getCpuCores() * CPU_PERIOD_MICROS));
+                Files.writeString(path.resolve("cpu.max"), quota + " " + CPU_PERIOD_MICROS);
+            }
+            if (limits.getMemoryMb() != null) {
+                Files.writeString(path.resolve("memory.max"), Long.toString(limits.getMemoryMb() * 1024 * 1024));
+            }
+            if (limits.getPids() != null) {
+                Files.writeString(path.resolve("pids.max"), Long.toString(limits.getPids()));
+            }
+            groupsCreated.increment();
+            return new Cgroup(path);
+        } catch (IOException e) {
+            log.warn("Could not create cgroup {}, running without limits: {}", path, e.getMessage());
+            deleteQuietly(path);
+            return null;
+        }
+    }
+
+    /**
+     * Get cgroup statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("available", available);
+        stats.put("root", root);
+        stats.put("defaultLimits", getDefaultLimits().toString());
+        stats.put("groupsCreated", groupsCreated.sum());
+        stats.put("oomKills", oomKills.sum());
+        return stats;
+    }
+
+    private static void enableControllers(Path group) throws IOException {
+        Path subtreeControl = group.resolve("cgroup.subtree_control");
+        List<String> enabledControllers = List.of(Files.readString(subtreeControl).trim().split("\\s+"));
+        if (enabledControllers.containsAll(CONTROLLERS)) {
+            return;
+        }
+        Files.writeString(subtreeControl, "+" + String.join(" +", CONTROLLERS));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not remove cgroup {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * A cgroup holding one forked process and its children
+     */
+    public class Cgroup {
+        private final Path path;
+
+        private Cgroup(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Wrap a command so the process joins the group before it executes, which puts
+         * all of its allocations and children under the limits
+         */
+        public List<String> wrap(List<String> command) {
+            List<String> wrapped = new ArrayList<>();
+            wrapped.add("/bin/sh");
+            wrapped.add("-c");
+            wrapped.add("echo $$ > \"$0\" && exec \"$@\"");
+            wrapped.add(path.resolve("cgroup.procs").toString());
+            wrapped.addAll(command);
+            return wrapped;
+        }
+
+        /**
+         * Read the group's counters, kill anything left in it and remove it
+         */
+        public CgroupStats close() {
+            CgroupStats stats = readStats();
+            if (stats.getOomKills() > 0) {
+                oomKills.add(stats.getOomKills());
+            }
+
+            try {
+                Path kill = path.resolve("cgroup.kill");
+                if (Files.exists(kill)) {
+                    Files.writeString(kill, "1");
+                }
+            } catch (IOException e) {
+                log.debug("Could not kill remaining processes of cgroup {}: {}", path, e.getMessage());
+            }
+
+            // The kernel removes killed processes asynchronously
+            for (int attempt = 0; attempt < 10 && Files.exists(path); attempt++) {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (Files.exists(path)) {
+                log.warn("Could not remove cgroup {}", path);
+            }
+            return stats;
+        }
+
+        private CgroupStats readStats() {
+            Map<String, Long> cpu = readKeyed("cpu.stat");
+            Map<String, Long> memory = readKeyed("memory.events");
+            Long memoryPeak = null;
+            try {
+                Path peak = path.resolve("memory.peak");
+                if (Files.exists(peak)) {
+                    memoryPeak = Long.parseLong(Files.readString(peak).trim());
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Kernels before 5.19 have no memory.peak
+            }
+
+            return new CgroupStats(
+                    memory.getOrDefault("oom_kill", 0L),
+                    cpu.get("nr_throttled"),
+                    cpu.containsKey("throttled_usec") ? cpu.get("throttled_usec") / 1000 : null,
+                    cpu.containsKey("user_usec") ? cpu.get("user_usec") / 1000 : null,
+                    cpu.containsKey("system_usec") ? cpu.get("system_usec") / 1000 : null,
+                    memoryPeak);
+        }
+
+        private Map<String, Long> readKeyed(String file) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            try {
+                for (String line : Files.readAllLines(path.resolve(file))) {
+                    String[] parts = line.trim().split("\\s+");
+                    if (parts.length == 2) {
+                        values.put(parts[0], Long.parseLong(parts[1]));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.debug("Could not read {} of cgroup {}: {}", file, path, e.getMessage());
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Counters of a cgroup once its process has exited. Unlike /proc, they cover the
+     * whole lifetime of the process and its children.
+     */
+    public static class CgroupStats {
+        private final long oomKills;
+        private final Long throttledPeriods;
+        private final Long throttledMillis;
+        private final Long cpuUserMillis;
+        private final Long cpuSystemMillis;
+        private final Long memoryPeakBytes;
+
+        public CgroupStats(long oomKills, Long throttledPeriods, Long throttledMillis, Long cpuUserMillis,
+                Long cpuSystemMillis, Long memoryPeakBytes) {
+            this.oomKills = oomKills;
+            this.throttledPeriods = throttledPeriods;
+            this.throttledMillis = throttledMillis;
+            this.cpuUserMillis = cpuUserMillis;
+            this.cpuSystemMillis = cpuSystemMillis;
+            this.memoryPeakBytes = memoryPeakBytes;
+        }
+
+        public long getOomKills() {
+            return oomKills;
+        }
+
+        public Long getThrottledPeriods() {
+            return throttledPeriods;
+        }
+
+        public Long getThrottledMillis() {
+            return throttledMillis;
+        }
+
+        /**
+         * Replace sampled values with the exact totals of the group where available
+         */
+        public ResourceUsage refine(ResourceUsage sampled) {
+            if (sampled == null) {
+                sampled = new ResourceUsage(null, null, null, null, null);
+            }
+            return new ResourceUsage(
+                    cpuUserMillis != null ? cpuUserMillis : sampled.getCpuUserMillis(),
+                    cpuSystemMillis != null ? cpuSystemMillis : sampled.getCpuSystemMillis(),
+                    memoryPeakBytes != null ? memoryPeakBytes : sampled.getPeakRssBytes(),
+                    sampled.getIoReadBytes(),
+                    sampled.getIoWriteBytes());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bounded admission of job execution messages.
+ *
+ * A message is acknowledged only once its execution has finished, and offsets are
+ * committed only up to the first message of a partition that is still in flight, so a
+ * crash redelivers everything that was not finished. When the number of admitted
+ * executions reaches the high-water mark the execution listener is paused, and it is
+ * resumed once the executions have drained to the low-water mark.
+ */
+@Service
+public class ExecutionAdmissionService implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionAdmissionService.class);
+
+    public static final String EXECUTION_LISTENER_ID = "job-execution-listener";
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${executor.admission.high-water:128}")
+    private int highWater;
+
+    @Value("${executor.admission.low-water:64}")
+    private int lowWater;
+
+    // Admitted records per partition by offset, guarded by this
+    private final Map<TopicPartition, TreeMap<Long, Admitted>> admitted = new HashMap<>();
+    private int inFlight;
+
+    private final LongAdder pauses = new LongAdder();
+
+    public ExecutionAdmissionService(KafkaListenerEndpointRegistry listenerRegistry) {
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    /**
+     * Admit a record, pausing the listener if the high-water mark is reached.
+     * {@link #complete} must be called once the execution has finished.
+     */
+    public void admit(String topic, int partition, long offset, Acknowledgment acknowledgment) {
+        synchronized (this) {
+            admitted.computeIfAbsent(new TopicPartition(topic, partition), tp -> new TreeMap<>())
+                    .put(offset, new Admitted(acknowledgment));
+            inFlight++;
+            if (inFlight < highWater) {
+                return;
+            }
+        }
+
+        MessageListenerContainer container = executionListener();
+        if (container != null && !container.isPauseRequested()) {
+            pauses.increment();
+            log.info("{} executions in flight, pausing job execution listener", highWater);
+            container.pause();
+        }
+    }
+
+    /**
+     * Mark the execution of a record as finished, committing every offset of its
+     * partition that has no unfinished record before it
+     */
+    public void complete(String topic, int partition, long offset) {
+        boolean drained;
+        synchronized (this) {
+            TreeMap<Long, Admitted> records = admitted.get(new TopicPartition(topic, partition));
+            Admitted record = records != null ? records.get(offset) : null;
+            if (record == null) {
+                // Partition was revoked meanwhile, its new owner processes the record again
+                return;
+            }
+
+            record.done = true;
+            inFlight--;
+
+            // Acknowledging a record commits all offsets up to it; acknowledgments from
+            // execution threads are handed to the consumer thread by the container
+            Acknowledgment last = null;
+            while (!records.isEmpty() && records.firstEntry().getValue().done) {
+                last = records.pollFirstEntry().getValue().acknowledgment;
+            }
+            if (last != null) {
+                last.acknowledge();
+            }
+
+            drained = inFlight <= lowWater;
+        }
+
+        MessageListenerContainer container = executionListener();
+        if (drained && container != null && container.isPauseRequested()) {
+            log.info("Executions drained to {}, resuming job execution listener", lowWater);
+            container.resume();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        synchronized (this) {
+            for (TopicPartition partition : partitions) {
+                TreeMap<Long, Admitted> records = admitted.remove(partition);
+                if (records != null) {
+                    inFlight -= (int) records.values().stream().filter(record -> !record.done).count();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get admission statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        MessageListenerContainer container = executionListener();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight);
+        stats.put("highWater", highWater);
+        stats.put("lowWater", lowWater);
+        stats.put("paused", container != null && container.isPauseRequested());
+        stats.put("pauses", pauses.sum());
+        return stats;
+    }
+
+    private MessageListenerContainer executionListener() {
+        return listenerRegistry.getListenerContainer(EXECUTION_LISTENER_ID);
+    }
+
+    private static class Admitted {
+        private final Acknowledgment acknowledgment;
+        private boolean done;
+
+        Admitted(Acknowledgment acknowledgment) {
+            this.acknowledgment = acknowledgment;
+        }
+    }
+}
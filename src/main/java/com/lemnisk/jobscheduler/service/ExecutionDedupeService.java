@@ -0,0 +1,162 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.lemnisk.jobscheduler.repository.JobExecutionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Detects repeated deliveries of the same dispatch before anything is executed.
+ *
+ * Attempt ids this node has recorded are kept in a bloom filter. Ids it has never seen,
+ * the common case, are accepted without touching the database; possible duplicates are
+ * checked against the execution table. The unique constraint on the attempt id is what
+ * finally rejects a duplicate, e.g. one that reached another node first.
+ */
+@Service
+public class ExecutionDedupeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionDedupeService.class);
+
+    private final JobExecutionRepository jobExecutionRepository;
+
+    // Ids per filter generation, older ids are only found in the database
+    @Value("${executor.dedupe.expected-insertions:1000000}")
+    private int expectedInsertions;
+
+    @Value("${executor.dedupe.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Ids are recorded in the current filter; when it is full it replaces the previous one
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public ExecutionDedupeService(JobExecutionRepository jobExecutionRepository) {
+        this.jobExecutionRepository = jobExecutionRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        current = new BloomFilter(expectedInsertions, falsePositiveRate);
+        previous = new BloomFilter(expectedInsertions, falsePositiveRate);
+        log.info("Execution dedupe filter: {} ids per generation, {} bits, {} hashes", expectedInsertions,
+                current.bitCount(), current.hashCount);
+    }
+
+    /**
+     * Whether an execution has already been recorded for the dispatch
+     */
+    public boolean isDuplicate(UUID attemptId) {
+        if (!current.mightContain(attemptId) && !previous.mightContain(attemptId)) {
+            accepted.increment();
+            return false;
+        }
+
+        lookups.increment();
+        if (jobExecutionRepository.existsByAttemptId(attemptId)) {
+            duplicates.increment();
+            return true;
+        }
+        accepted.increment();
+        return false;
+    }
+
+    /**
+     * Remember the dispatch once its execution has been stored
+     */
+    public void record(UUID attemptId) {
+        BloomFilter filter = current;
+        if (filter.put(attemptId) >= expectedInsertions) {
+            synchronized (this) {
+                if (current == filter) {
+                    previous = filter;
+                    current = new BloomFilter(expectedInsertions, falsePositiveRate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Count a duplicate that was only caught by the unique constraint
+     */
+    public void recordRejected(UUID attemptId) {
+        duplicates.increment();
+        record(attemptId);
+    }
+
+    /**
+     * Get dedupe statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("databaseLookups", lookups.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("idsInFilter", current.count.sum());
+        stats.put("expectedInsertions", expectedInsertions);
+        return stats;
+    }
+
+    /**
+     * Bloom filter over UUIDs. The two halves of a random UUID are independent hashes,
+     * the probe positions are derived from them by double hashing.
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long size;
+        private final int hashCount;
+        private final LongAdder count = new LongAdder();
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2)));
+            bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+            size = bits.length() * 64L;
+            hashCount = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+        }
+
+        long bitCount() {
+            return size;
+        }
+
+        boolean mightContain(UUID id) {
+            long h1 = id.getMostSignificantBits();
+            long h2 = id.getLeastSignificantBits();
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the number of ids put so far
+         */
+        long put(UUID id) {
+            long h1 = id.getMostSignificantBits();
+            long h2 = id.getLeastSignificantBits();
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                bits.getAndAccumulate((int) (bit >>> 6), 1L << bit, (value, mask) -> value | mask);
+            }
+            count.increment();
+            return count.sum();
+        }
+    }
+}
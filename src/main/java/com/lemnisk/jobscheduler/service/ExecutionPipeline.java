@@ -0,0 +1,220 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs job executions on virtual threads.
+ *
+ * Concurrency is limited by permits instead of by thread count: an execution holds a
+ * permit of its JAR, one of the host CPU budget and a global one until it has finished.
+ * Executions waiting for permits are parked virtual threads, so a backlog costs no
+ * platform threads and shows up as queue depth and wait time in the statistics.
+ */
+@Service
+public class ExecutionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionPipeline.class);
+
+    @Value("${executor.concurrency.max:64}")
+    private int maxConcurrent;
+
+    @Value("${executor.concurrency.per-jar:8}")
+    private int perJar;
+
+    // Concurrent executions per available processor
+    @Value("${executor.concurrency.cpu-permits-per-core:2}")
+    private int cpuPermitsPerCore;
+
+    private ExecutorService executor;
+    private Permits globalPermits;
+    private Permits cpuPermits;
+    private final Map<String, Permits> jarPermits = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger held = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-execution-", 0).factory());
+        globalPermits = new Permits(maxConcurrent);
+        cpuPermits = new Permits(cpuBudget());
+        log.info("Execution pipeline started: {} concurrent executions, {} per JAR, CPU budget {}",
+                maxConcurrent, perJar, cpuBudget());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an execution of the JAR. The work runs once permits are available and keeps
+     * them until the future it returns has completed.
+     */
+    public void submit(String jarName, Supplier<? extends CompletableFuture<?>> work) {
+        submitted.increment();
+        queued.incrementAndGet();
+        executor.execute(() -> run(jarName, work));
+    }
+
+    /**
+     * Take a permit of the JAR, one of the CPU budget and a global one without waiting, for
+     * work that keeps running after its execution has finished (e.g. a job thread that
+     * ignored the interrupt). The permits may be overdrawn until the returned action
+     * releases them.
+     */
+    public Runnable hold(String jarName) {
+        Permits jarSemaphore = jarPermits(jarName);
+        jarSemaphore.take();
+        cpuPermits.take();
+        globalPermits.take();
+        held.incrementAndGet();
+
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                held.decrementAndGet();
+                release(jarSemaphore, 3);
+            }
+        };
+    }
+
+    /**
+     * Executor for follow-up work of executions, e.g. recording results
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Get queue and permit statistics
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("running", running.get());
+        stats.put("held", held.get());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", done);
+        stats.put("averageWaitMillis", done > 0 ? totalWaitMillis.sum() / done : 0);
+        stats.put("maxWaitMillis", maxWaitMillis.get());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("availablePermits", globalPermits.availablePermits());
+        stats.put("cpuBudget", cpuBudget());
+        stats.put("availableCpuPermits", cpuPermits.availablePermits());
+        stats.put("perJar", perJar);
+
+        Map<String, Object> jars = new LinkedHashMap<>();
+        jarPermits.forEach((jarName, permits) -> {
+            if (permits.availablePermits() < perJar || permits.hasQueuedThreads()) {
+                jars.put(jarName, Map.of(
+                        "running", perJar - permits.availablePermits(),
+                        "queued", permits.getQueueLength()));
+            }
+        });
+        stats.put("jars", jars);
+        return stats;
+    }
+
+    private void run(String jarName, Supplier<? extends CompletableFuture<?>> work) {
+        long queuedAt = System.currentTimeMillis();
+        Semaphore jarSemaphore = jarPermits(jarName);
+
+        // Always acquired in the same order, so executions cannot hold each other's permits
+        int acquired = 0;
+        try {
+            jarSemaphore.acquire();
+            acquired++;
+            cpuPermits.acquire();
+            acquired++;
+            globalPermits.acquire();
+            acquired++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued.decrementAndGet();
+            release(jarSemaphore, acquired);
+            log.warn("Execution of {} interrupted while waiting for permits", jarName);
+            return;
+        }
+
+        long waitMillis = System.currentTimeMillis() - queuedAt;
+        queued.decrementAndGet();
+        running.incrementAndGet();
+        totalWaitMillis.add(waitMillis);
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+
+        CompletableFuture<?> execution;
+        try {
+            execution = work.get();
+        } catch (Exception e) {
+            log.error("Error starting execution of {}: {}", jarName, e.getMessage(), e);
+            execution = CompletableFuture.completedFuture(null);
+        }
+
+        execution.whenComplete((result, error) -> {
+            running.decrementAndGet();
+            completed.increment();
+            release(jarSemaphore, 3);
+        });
+    }
+
+    private void release(Semaphore jarSemaphore, int acquired) {
+        if (acquired >= 3) {
+            globalPermits.release();
+        }
+        if (acquired >= 2) {
+            cpuPermits.release();
+        }
+        if (acquired >= 1) {
+            jarSemaphore.release();
+        }
+    }
+
+    private Permits jarPermits(String jarName) {
+        return jarPermits.computeIfAbsent(jarName != null ? jarName : "", name -> new Permits(perJar));
+    }
+
+    private int cpuBudget() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() * cpuPermitsPerCore);
+    }
+
+    /**
+     * Fair semaphore whose permits can also be taken without waiting
+     */
+    private static class Permits extends Semaphore {
+
+        Permits(int permits) {
+            super(permits, true);
+        }
+
+        void take() {
+            reducePermits(1);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.lemnisk.jobscheduler.model.JobExecution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs a JAR's main method inside the scheduler JVM, without forking a new process.
+ *
+ * Each execution gets its own URLClassLoader whose parent is the platform class loader,
+ * so the job cannot see the scheduler's classes and is unloaded once the execution is
+ * over. System.out and System.err are replaced once by streams that route output to
+ * the execution running on the current thread (or a thread it started).
+ *
+ * Only suitable for well-behaved JARs: a job calling System.exit stops the scheduler.
+ * Threads cannot be killed, a job that ignores the interrupt after a timeout or cancel
+ * keeps running in the background; it keeps its class loader and a permit of the
+ * execution pipeline until its thread has died, and its further output is dropped.
+ */
+@Service
+public class InJvmJarRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(InJvmJarRunner.class);
+
+    // Output buffer of the execution running on the current thread, inherited by threads the job starts
+    private static final InheritableThreadLocal<OutputStream> CAPTURE = new InheritableThreadLocal<>();
+
+    private final ExecutionPipeline executionPipeline;
+
+    // Job threads still running after their execution has ended
+    private final Set<Thread> leaked = ConcurrentHashMap.newKeySet();
+
+    private PrintStream originalOut;
+    private PrintStream originalErr;
+
+    public InJvmJarRunner(ExecutionPipeline executionPipeline) {
+        this.executionPipeline = executionPipeline;
+    }
+
+    @PostConstruct
+    public void installOutputRouting() {
+        originalOut = System.out;
+        originalErr = System.err;
+        System.setOut(new PrintStream(new RoutingOutputStream(originalOut), true));
+        System.setErr(new PrintStream(new RoutingOutputStream(originalErr), true));
+    }
+
+    @PreDestroy
+    public void restoreOutput() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    /**
+     * Invoke the main class of the JAR and wait for it to return
+     */
+    public JarExecutorService.ExecutionResult run(String jarName, Path jarPath, List<String> arguments,
+            long timeoutSeconds, OutputCapture output, RunningExecutionRegistry.RunningExecution execution) {
+        long startTime = System.currentTimeMillis();
+
+        String mainClassName;
+        try {
+            mainClassName = readMainClass(jarPath);
+        } catch (IOException e) {
+            return new JarExecutorService.ExecutionResult(false, "Error reading JAR manifest: " + e.getMessage(),
+                    e.toString(), 0, JobExecution.WorkerType.IN_JVM);
+        }
+        if (mainClassName == null) {
+            return new JarExecutorService.ExecutionResult(false, "JAR manifest has no Main-Class", "", 0,
+                    JobExecution.WorkerType.IN_JVM);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean returned = new AtomicBoolean();
+        AtomicReference<ResourceUsage> usage = new AtomicReference<>();
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        String[] args = arguments != null ? arguments.toArray(new String[0]) : new String[0];
+
+        URLClassLoader classLoader;
+        try {
+            classLoader = new URLClassLoader("job-" + jarName, new URL[] { jarPath.toUri().toURL() },
+                    ClassLoader.getPlatformClassLoader());
+        } catch (IOException e) {
+            return new JarExecutorService.ExecutionResult(false, "Error loading JAR: " + e.getMessage(), e.toString(), 0,
+                    JobExecution.WorkerType.IN_JVM);
+        }
+
+        Thread worker = new Thread(() -> {
+            CAPTURE.set(output);
+            try {
+                Class<?> mainClass = Class.forName(mainClassName, true, classLoader);
+                Method main = mainClass.getMethod("main", String[].class);
+                if (!Modifier.isStatic(main.getModifiers())) {
+                    throw new NoSuchMethodException(mainClassName + ".main is not static");
+                }
+                main.invoke(null, (Object) args);
+            } catch (InvocationTargetException e) {
+                failure.set(e.getCause());
+            } catch (Throwable t) {
+                failure.set(t);
+            } finally {
+                System.out.flush();
+                System.err.flush();
+                CAPTURE.remove();
+                usage.set(threadUsage(Thread.currentThread().threadId()));
+                returned.set(true);
+                finished.complete(null);
+            }
+        }, "in-jvm-" + jarName);
+        worker.setContextClassLoader(classLoader);
+        worker.setDaemon(true);
+
+        try {
+            worker.start();
+            // Cancelling interrupts the job and stops waiting for it
+            execution.onCancel(() -> {
+                worker.interrupt();
+                finished.complete(null);
+            });
+            finished.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Reported below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.interrupt();
+        } finally {
+            execution.onCancel(null);
+        }
+
+        double elapsedSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+
+        boolean returnedInTime = returned.get();
+        if (returnedInTime) {
+            // The worker is only completing its finally block, the loader is closed once it has died
+            releaseWhenStopped(jarName, worker, classLoader, false);
+        } else {
+            // Ask the job to stop, if it ignores the interrupt it runs out in the background
+            worker.interrupt();
+            releaseWhenStopped(jarName, worker, classLoader, true);
+        }
+
+        if (!returnedInTime && execution.isCancelled()) {
+            return new JarExecutorService.ExecutionResult(false, "Execution cancelled", output.getSummary(),
+                    elapsedSeconds, JobExecution.WorkerType.IN_JVM).withResourceUsage(threadUsage(worker.threadId()));
+        }
+
+        if (!returnedInTime) {
+            log.warn("In-JVM execution of {} did not finish within {} seconds", jarName, timeoutSeconds);
+            return new JarExecutorService.ExecutionResult(false, "Process timed out after " + timeoutSeconds + " seconds",
+                    output.getSummary(), elapsedSeconds, JobExecution.WorkerType.IN_JVM)
+                    .withResourceUsage(threadUsage(worker.threadId()));
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            // Part of the output, so the stack trace is stored with the rest of the log
+            StringWriter stackTrace = new StringWriter();
+            error.printStackTrace(new PrintWriter(stackTrace));
+            byte[] stackTraceBytes = stackTrace.toString().getBytes(StandardCharsets.UTF_8);
+            output.write(stackTraceBytes, 0, stackTraceBytes.length);
+            return new JarExecutorService.ExecutionResult(false, "Job failed with " + error,
+                    output.getSummary(), elapsedSeconds,
+                    JobExecution.WorkerType.IN_JVM).withResourceUsage(usage.get());
+        }
+
+        return new JarExecutorService.ExecutionResult(true, "Process completed successfully",
+                output.getSummary(), elapsedSeconds, JobExecution.WorkerType.IN_JVM).withResourceUsage(usage.get());
+    }
+
+    /**
+     * Number of job threads still running after their execution has ended
+     */
+    int leakedThreads() {
+        return leaked.size();
+    }
+
+    /**
+     * Close the class loader once the job thread has died, closing it earlier fails the
+     * classes the job loads later on. A job thread that outlived its execution also keeps
+     * a permit of the execution pipeline until then.
+     */
+    private void releaseWhenStopped(String jarName, Thread worker, URLClassLoader classLoader, boolean outlived) {
+        Runnable releasePermits = outlived ? executionPipeline.hold(jarName) : () -> { };
+        if (outlived) {
+            leaked.add(worker);
+        }
+        Thread.ofVirtual().name("in-jvm-reaper-" + jarName).start(() -> {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!worker.isAlive()) {
+                    closeQuietly(classLoader, jarName);
+                }
+                leaked.remove(worker);
+                releasePermits.run();
+            }
+        });
+    }
+
+    /**
+     * CPU time of the job's main thread. Memory and I/O are shared with the scheduler
+     * and cannot be attributed to a job.
+     */
+    private static ResourceUsage threadUsage(long threadId) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadCpuTimeSupported()) {
+            return null;
+        }
+
+        long total = threads.getThreadCpuTime(threadId);
+        long user = threads.getThreadUserTime(threadId);
+        if (total < 0 || user < 0) {
+            return null;
+        }
+        return new ResourceUsage(user / 1_000_000, (total - user) / 1_000_000, null, null, null);
+    }
+
+    private String readMainClass(Path jarPath) throws IOException {
+        try (java.util.jar.JarFile jar = new java.util.jar.JarFile(jarPath.toFile())) {
+            Manifest manifest = jar.getManifest();
+            return manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS) : null;
+        }
+    }
+
+    private void closeQuietly(URLClassLoader classLoader, String jarName) {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            log.warn("Error closing class loader of {}: {}", jarName, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes to the capture buffer of the current execution, or to the original stream
+     * for threads that do not belong to an in-JVM job
+     */
+    private static class RoutingOutputStream extends OutputStream {
+        private final OutputStream fallback;
+
+        RoutingOutputStream(OutputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            OutputStream capture = CAPTURE.get();
+            if (capture != null) {
+                capture.write(b);
+            } else {
+                fallback.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            OutputStream capture = CAPTURE.get();
+            if (capture != null) {
+                capture.write(b, off, len);
+            } else {
+                fallback.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (CAPTURE.get() == null) {
+                fallback.flush();
+            }
+        }
+    }
+}
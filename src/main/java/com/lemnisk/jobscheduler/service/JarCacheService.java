@@ -0,0 +1,295 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.lemnisk.jobscheduler.model.JarFile;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Node-local cache of JAR files downloaded from MinIO.
+ *
+ * Entries are keyed by the MinIO ETag, so a JAR that is replaced in MinIO gets a new
+ * entry instead of serving stale contents. The cache is bounded by total size and evicts
+ * the least recently used JARs that are not currently in use by an execution.
+ */
+@Service
+public class JarCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(JarCacheService.class);
+
+    private static final String JAR_SUFFIX = ".jar";
+
+    private final MinioService minioService;
+
+    @Value("${jar.cache.dir:${java.io.tmpdir}/job-scheduler-jars}")
+    private String cacheDir;
+
+    @Value("${jar.cache.max-size-mb:1024}")
+    private long maxSizeMb;
+
+    // Access-ordered, guarded by this
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // One lock per key so concurrent executions of the same JAR download it only once
+    private final Map<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JarCacheService(MinioService minioService) {
+        this.minioService = minioService;
+    }
+
+    /**
+     * Index JARs left in the cache directory by a previous run
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Paths.get(cacheDir);
+        Files.createDirectories(dir);
+
+        List<Path> cached = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(JAR_SUFFIX)) {
+                    cached.add(path);
+                } else if (!fileName.endsWith(CdsArchiveService.ARCHIVE_SUFFIX)) {
+                    // Partial download or archive dump from a crashed run
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+
+        // Oldest first, so the most recently written JARs end up most recently used
+        cached.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        synchronized (this) {
+            for (Path path : cached) {
+                String fileName = path.getFileName().toString();
+                String key = fileName.substring(0, fileName.length() - JAR_SUFFIX.length());
+                long size = Files.size(path);
+                entries.put(key, new CacheEntry(path, size));
+                totalBytes += size;
+            }
+            evictIfNeeded();
+        }
+
+        log.info("JAR cache initialized at {}: {} entries, {} bytes, limit {}MB", dir, entries.size(), totalBytes, maxSizeMb);
+    }
+
+    /**
+     * Get a local copy of the JAR, downloading it only if it is not cached yet.
+     * The returned handle keeps the file from being evicted until it is closed.
+     */
+    public CachedJar acquire(JarFile jarFile) throws IOException {
+        String etag = jarFile.getEtag();
+        if (etag == null || etag.isBlank()) {
+            // Registered before ETags were recorded
+            etag = minioService.getJarMetadata(jarFile.getName()).etag();
+        }
+        String key = cacheKey(etag);
+
+        CachedJar cachedJar = tryAcquire(key);
+        if (cachedJar != null) {
+            hits.increment();
+            return cachedJar;
+        }
+
+        Object lock = downloadLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                // Another execution may have downloaded it while we waited
+                cachedJar = tryAcquire(key);
+                if (cachedJar != null) {
+                    hits.increment();
+                    return cachedJar;
+                }
+
+                misses.increment();
+                Path path = download(jarFile.getName(), etag, key);
+                long size = Files.size(path);
+
+                synchronized (this) {
+                    CacheEntry entry = new CacheEntry(path, size);
+                    entry.refCount++;
+                    entries.put(key, entry);
+                    totalBytes += size;
+                    evictIfNeeded();
+                    return new CachedJar(key, path);
+                }
+            }
+        } finally {
+            downloadLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * Get cache statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("sizeBytes", totalBytes);
+        stats.put("maxSizeBytes", maxSizeMb * 1024 * 1024);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private synchronized CachedJar tryAcquire(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.refCount++;
+        return new CachedJar(key, entry.path);
+    }
+
+    private synchronized void release(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null) {
+            entry.refCount--;
+            if (entry.refCount == 0) {
+                // May have been kept over the limit while it was in use
+                evictIfNeeded();
+            }
+        }
+    }
+
+    // Caller must hold the monitor
+    private void evictIfNeeded() {
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> eldest = iterator.next();
+            CacheEntry entry = eldest.getValue();
+            if (entry.refCount > 0) {
+                continue;
+            }
+
+            iterator.remove();
+            totalBytes -= entry.size;
+            evictions.increment();
+
+            try {
+                Files.deleteIfExists(entry.path);
+                Files.deleteIfExists(CdsArchiveService.archivePath(entry.path));
+                log.info("Evicted JAR {} from cache ({} bytes)", eldest.getKey(), entry.size);
+            } catch (IOException e) {
+                log.warn("Could not delete evicted JAR {}: {}", entry.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Download into a temporary file and move it into place once complete, so a
+     * partial download is never picked up as a cache entry
+     */
+    private Path download(String jarName, String etag, String key) throws IOException {
+        log.info("Downloading JAR file {} into cache (etag {})", jarName, etag);
+
+        Path dir = Paths.get(cacheDir);
+        Path target = dir.resolve(key + JAR_SUFFIX);
+        Path tempFile = Files.createTempFile(dir, key, ".part");
+
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            try (InputStream inputStream = new DigestInputStream(minioService.getJarFile(jarName), md5)) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // Single-part uploads use the MD5 of the contents as ETag
+            String expected = stripQuotes(etag);
+            if (expected.matches("[0-9a-fA-F]{32}")) {
+                String actual = HexFormat.of().formatHex(md5.digest());
+                if (!actual.equalsIgnoreCase(expected)) {
+                    throw new IOException("Checksum mismatch for " + jarName + ": expected " + expected + ", got " + actual);
+                }
+            }
+
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static String cacheKey(String etag) {
+        return stripQuotes(etag).replaceAll("[^A-Za-z0-9-]", "_");
+    }
+
+    private static String stripQuotes(String etag) {
+        return etag.replace("\"", "");
+    }
+
+    private static class CacheEntry {
+        private final Path path;
+        private final long size;
+        private int refCount;
+
+        CacheEntry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Handle on a cached JAR, close it once the execution no longer needs the file
+     */
+    public class CachedJar implements AutoCloseable {
+        private final String key;
+        private final Path path;
+        private boolean closed;
+
+        private CachedJar(String key, Path path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(key);
+            }
+        }
+    }
+}
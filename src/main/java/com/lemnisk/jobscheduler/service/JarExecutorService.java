@@ -1,118 +1,301 @@
 package com.lemnisk.jobscheduler.service;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.lemnisk.jobscheduler.model.JarFile;
+import com.lemnisk.jobscheduler.model.JobExecution;
+import com.lemnisk.jobscheduler.model.JobSchedule;
+import com.lemnisk.jobscheduler.repository.JobScheduleRepository;
 
 @Service
 public class JarExecutorService {
 
     private static final Logger log = LoggerFactory.getLogger(JarExecutorService.class);
 
-    private final MinioService minioService;
-
-    public JarExecutorService(MinioService minioService) {
-        this.minioService = minioService;
+    private static final String NULL_DEVICE = System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+
+    private final JarCacheService jarCacheService;
+    private final InJvmJarRunner inJvmJarRunner;
+    private final WarmWorkerPool warmWorkerPool;
+    private final CdsArchiveService cdsArchiveService;
+    private final JobLogService jobLogService;
+    private final ProcessSupervisor processSupervisor;
+    private final RunningExecutionRegistry runningExecutionRegistry;
+    private final ProcessResourceSampler processResourceSampler;
+    private final CgroupManager cgroupManager;
+    private final JobScheduleRepository jobScheduleRepository;
+
+    @Value("${executor.timeout-seconds:60}")
+    private int defaultTimeoutSeconds;
+
+    public JarExecutorService(JarCacheService jarCacheService, InJvmJarRunner inJvmJarRunner,
+            WarmWorkerPool warmWorkerPool, CdsArchiveService cdsArchiveService, JobLogService jobLogService,
+            ProcessSupervisor processSupervisor, RunningExecutionRegistry runningExecutionRegistry,
+            ProcessResourceSampler processResourceSampler, CgroupManager cgroupManager,
+            JobScheduleRepository jobScheduleRepository) {
+        this.jarCacheService = jarCacheService;
+        this.inJvmJarRunner = inJvmJarRunner;
+        this.warmWorkerPool = warmWorkerPool;
+        this.cdsArchiveService = cdsArchiveService;
+        this.jobLogService = jobLogService;
+        this.processSupervisor = processSupervisor;
+        this.runningExecutionRegistry = runningExecutionRegistry;
+        this.processResourceSampler = processResourceSampler;
+        this.cgroupManager = cgroupManager;
+        this.jobScheduleRepository = jobScheduleRepository;
     }
 
     /**
-     * Execute a JAR file and return the output
+     * Execute a JAR file and return a bounded summary of its output. The complete output
+     * is stored separately in compressed chunks.
+     *
+     * Forked executions do not block the calling thread, the returned future completes
+     * once the process has exited. The execution can be stopped through
+     * {@link RunningExecutionRegistry#cancelJob} while it runs, its result then carries
+     * the output produced so far.
      */
-    public ExecutionResult executeJar(JarFile jarFile, List<String> arguments) {
-        log.info("Executing JAR file: {}", jarFile.getName());
+    public CompletableFuture<ExecutionResult> executeJar(ExecutionRequest request) {
+        JarFile jarFile = request.getJarFile();
+        int timeoutSeconds = request.getTimeoutSeconds() != null ? request.getTimeoutSeconds() : defaultTimeoutSeconds;
+        log.info("Executing JAR file: {} (timeout {}s)", jarFile.getName(), timeoutSeconds);
+
+        RunningExecutionRegistry.RunningExecution running =
+                runningExecutionRegistry.register(request.getExecutionId(), request.getJobId());
+        // A cancel request handled before the registration found nothing to stop, and one sent
+        // while this node was down never arrives, so the job's status is checked once registered
+        if (request.getJobId() != null && jobScheduleRepository.findStatusById(request.getJobId())
+                .filter(status -> status == JobSchedule.JobStatus.CANCELLED).isPresent()) {
+            runningExecutionRegistry.cancelJob(request.getJobId());
+        }
+        OutputCapture output = jobLogService.open(request.getExecutionId());
 
+        // Local copy of the JAR, only downloaded from MinIO on a cache miss
+        JarCacheService.CachedJar cachedJar;
         try {
-            // Download JAR file from MinIO
-            Path tempJarFile = downloadJarFile(jarFile.getName());
-
-            // Prepare command
-            List<String> command = new ArrayList<>();
-            command.add("java");
-            command.add("-jar");
-            command.add(tempJarFile.toString());
-
-            // Add arguments if provided
-            if (arguments != null && !arguments.isEmpty()) {
-                command.addAll(arguments);
-            }
+            cachedJar = jarCacheService.acquire(jarFile);
+        } catch (Exception e) {
+            log.error("Error executing JAR file: {}", e.getMessage(), e);
+            output.close();
+            runningExecutionRegistry.unregister(running);
+            return CompletableFuture.completedFuture(errorResult(e));
+        }
 
-            // Start process
-            ProcessBuilder processBuilder = new ProcessBuilder(command);
-            processBuilder.redirectErrorStream(true); // Merge stderr into stdout
+        CompletableFuture<ExecutionResult> execution;
+        try {
+            execution = running.isCancelled()
+                    ? CompletableFuture.completedFuture(new ExecutionResult(false, "Execution cancelled", "", 0, null))
+                    : execute(jarFile, cachedJar, request, timeoutSeconds, output, running);
+        } catch (Exception e) {
+            log.error("Error executing JAR file: {}", e.getMessage(), e);
+            execution = CompletableFuture.completedFuture(errorResult(e));
+        }
 
-            long startTime = System.currentTimeMillis();
-            Process process = processBuilder.start();
+        return execution
+                .exceptionally(e -> {
+                    log.error("Error executing JAR file: {}", e.getMessage(), e);
+                    return errorResult(e);
+                })
+                .thenApply(result -> {
+                    runningExecutionRegistry.unregister(running);
+                    cachedJar.close();
+                    result = result.withStoredLog(jobLogService.store(request.getExecutionId(), output));
+                    return running.isCancelled() ? result.asCancelled() : result;
+                });
+    }
+
+    private CompletableFuture<ExecutionResult> execute(JarFile jarFile, JarCacheService.CachedJar cachedJar,
+            ExecutionRequest request, int timeoutSeconds, OutputCapture output,
+            RunningExecutionRegistry.RunningExecution running) throws IOException {
+        List<String> arguments = request.getArguments();
+        if (jarFile.getExecutionMode() == JarFile.ExecutionMode.IN_JVM) {
+            // Shares the scheduler's cgroup, resource limits do not apply
+            return CompletableFuture.completedFuture(inJvmJarRunner.run(jarFile.getName(), cachedJar.getPath(),
+                    arguments, timeoutSeconds, output, running));
+        }
 
-            // Read output
-            StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\\n");
-                }
+        // Warm workers run with the default limits, executions with limits of their own need a JVM of their own
+        ResourceLimits limits = request.getResourceLimits() != null ? request.getResourceLimits() : ResourceLimits.NONE;
+        if (limits.isEmpty() || !cgroupManager.isAvailable()) {
+            ExecutionResult warmResult = warmWorkerPool.execute(jarFile.getName(), cachedJar.getPath(), arguments,
+                    timeoutSeconds, output, running);
+            if (warmResult != null) {
+                return CompletableFuture.completedFuture(warmResult);
             }
+        }
 
-            // Wait for process to complete (with timeout)
-            boolean completed = process.waitFor(60, TimeUnit.SECONDS);
-            long endTime = System.currentTimeMillis();
+        // No warm worker available, start a new JVM
+        String groupName = "execution-" + (request.getExecutionId() != null ? request.getExecutionId() : UUID.randomUUID());
+        CgroupManager.Cgroup cgroup = cgroupManager.create(groupName, limits.orElse(cgroupManager.getDefaultLimits()));
+        CdsArchiveService.ArchiveRun archiveRun = cdsArchiveService.prepare(cachedJar);
+        try {
+            return runColdJvm(cachedJar, archiveRun.getJvmOptions(), arguments, timeoutSeconds, output, running, cgroup)
+                    .whenComplete((result, error) -> archiveRun.complete(result != null && result.isSuccess()));
+        } catch (IOException e) {
+            archiveRun.complete(false);
+            if (cgroup != null) {
+                cgroup.close();
+            }
+            throw e;
+        }
+    }
 
-            // Clean up temp file
-            Files.deleteIfExists(tempJarFile);
+    /**
+     * Start the JAR in a new JVM that writes its output straight into the spill file,
+     * inside the given cgroup if there is one
+     */
+    private CompletableFuture<ExecutionResult> runColdJvm(JarCacheService.CachedJar cachedJar, List<String> jvmOptions,
+            List<String> arguments, int timeoutSeconds, OutputCapture output,
+            RunningExecutionRegistry.RunningExecution running, CgroupManager.Cgroup cgroup) throws IOException {
+        // Prepare command
+        List<String> command = new ArrayList<>();
+        command.add("java");
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(cachedJar.getPath().toString());
+
+        // Add arguments if provided
+        if (arguments != null && !arguments.isEmpty()) {
+            command.addAll(arguments);
+        }
 
-            if (!completed) {
-                process.destroyForcibly();
-                return new ExecutionResult(false, "Process timed out after 60 seconds",
-                        output.toString(), (endTime - startTime) / 1000.0);
+        // Start process, no thread is needed to pump its output
+        ProcessBuilder processBuilder = new ProcessBuilder(cgroup != null ? cgroup.wrap(command) : command);
+        processBuilder.redirectErrorStream(true); // Merge stderr into stdout
+        processBuilder.redirectOutput(output.detachSpillFile().toFile());
+        processBuilder.redirectInput(ProcessBuilder.Redirect.from(new File(NULL_DEVICE)));
+
+        Process process = processBuilder.start();
+        ProcessResourceSampler.Tracker resources = processResourceSampler.track(process);
+        CompletableFuture<ProcessSupervisor.ProcessExit> exited = processSupervisor.supervise(process, timeoutSeconds);
+        running.onCancel(() -> processSupervisor.kill(process));
+
+        return exited.thenApply(exit -> {
+            running.onCancel(null);
+            ResourceUsage usage = resources.stop();
+            CgroupManager.CgroupStats cgroupStats = null;
+            if (cgroup != null) {
+                cgroupStats = cgroup.close();
+                usage = cgroupStats.refine(usage);
+            }
+            try {
+                output.readSpillFile();
+            } catch (IOException e) {
+                log.warn("Could not read output of process {}: {}", process.pid(), e.getMessage());
             }
 
-            int exitCode = process.exitValue();
-            boolean success = exitCode == 0;
+            double elapsedSeconds = exit.getElapsedMillis() / 1000.0;
+            if (exit.isTimedOut()) {
+                return new ExecutionResult(false, "Process timed out after " + timeoutSeconds + " seconds",
+                        output.getSummary(), elapsedSeconds, JobExecution.WorkerType.COLD)
+                        .withResourceUsage(usage).withCgroupStats(cgroupStats);
+            }
 
-            return new ExecutionResult(
-                    success,
-                    success ? "Process completed successfully" : "Process failed with exit code " + exitCode,
-                    output.toString(),
-                    (endTime - startTime) / 1000.0
-            );
+            boolean success = exit.getExitCode() == 0;
+            String message;
+            if (success) {
+                message = "Process completed successfully";
+            } else if (cgroupStats != null && cgroupStats.getOomKills() > 0) {
+                message = "Process was killed for exceeding its memory limit";
+            } else {
+                message = "Process failed with exit code " + exit.getExitCode();
+            }
+            return new ExecutionResult(success, message, output.getSummary(), elapsedSeconds, JobExecution.WorkerType.COLD)
+                    .withResourceUsage(usage).withCgroupStats(cgroupStats);
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Error executing JAR file: {}", e.getMessage(), e);
-            return new ExecutionResult(false, "Error: " + e.getMessage(), e.toString(), 0);
-        }
+    private ExecutionResult errorResult(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return new ExecutionResult(false, "Error: " + cause.getMessage(), cause.toString(), 0, null);
     }
 
     /**
-     * Download JAR file from MinIO to a temporary file
+     * Class to hold the parameters of an execution
      */
-    private Path downloadJarFile(String jarName) throws IOException {
-        log.info("Downloading JAR file from MinIO: {}", jarName);
+    public static class ExecutionRequest {
+        private JarFile jarFile;
+        private List<String> arguments;
+        private UUID jobId;
+        private UUID executionId;
+        private Integer timeoutSeconds;
+        private ResourceLimits resourceLimits;
+
+        public JarFile getJarFile() {
+            return jarFile;
+        }
 
-        // Create temp file
-        Path tempFile = Files.createTempFile("job-scheduler-", "-" + jarName);
+        public List<String> getArguments() {
+            return arguments;
+        }
 
-        // Download from MinIO
-        try (var inputStream = minioService.getJarFile(jarName)) {
-            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        public UUID getJobId() {
+            return jobId;
         }
 
-        // Make sure the file is executable
-        File file = tempFile.toFile();
-        file.setExecutable(true);
+        public UUID getExecutionId() {
+            return executionId;
+        }
+
+        public Integer getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public ResourceLimits getResourceLimits() {
+            return resourceLimits;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
 
-        return tempFile;
+        public static class Builder {
+            private ExecutionRequest request = new ExecutionRequest();
+
+            public Builder jarFile(JarFile jarFile) {
+                request.jarFile = jarFile;
+                return this;
+            }
+
+            public Builder arguments(List<String> arguments) {
+                request.arguments = arguments;
+                return this;
+            }
+
+            public Builder jobId(UUID jobId) {
+                request.jobId = jobId;
+                return this;
+            }
+
+            public Builder executionId(UUID executionId) {
+                request.executionId = executionId;
+                return this;
+            }
+
+            public Builder timeoutSeconds(Integer timeoutSeconds) {
+                request.timeoutSeconds = timeoutSeconds;
+                return this;
+            }
+
+            public Builder resourceLimits(ResourceLimits resourceLimits) {
+                request.resourceLimits = resourceLimits;
+                return this;
+            }
+
+            public ExecutionRequest build() {
+                return request;
+            }
+        }
     }
 
     /**
@@ -123,12 +306,75 @@ public class JarExecutorService {
         private final String message;
         private final String output;
         private final double executionTimeSeconds;
+        private final JobExecution.WorkerType workerType;
+        private final StoredLog storedLog;
+        private final boolean cancelled;
+        private final ResourceUsage resourceUsage;
+        private final CgroupManager.CgroupStats cgroupStats;
+
+        public ExecutionResult(boolean success, String message, String output, double executionTimeSeconds,
+                JobExecution.WorkerType workerType) {
+            this(success, message, output, executionTimeSeconds, workerType, null);
+        }
+
+        public ExecutionResult(boolean success, String message, String output, double executionTimeSeconds,
+                JobExecution.WorkerType workerType, StoredLog storedLog) {
+            this(success, message, output, executionTimeSeconds, workerType, storedLog, false, null, null);
+        }
 
-        public ExecutionResult(boolean success, String message, String output, double executionTimeSeconds) {
+        private ExecutionResult(boolean success, String message, String output, double executionTimeSeconds,
+                JobExecution.WorkerType workerType, StoredLog storedLog, boolean cancelled,
+                ResourceUsage resourceUsage, CgroupManager.CgroupStats cgroupStats) {
             this.success = success;
             this.message = message;
             this.output = output;
             this.executionTimeSeconds = executionTimeSeconds;
+            this.workerType = workerType;
+            this.storedLog = storedLog;
+            this.cancelled = cancelled;
+            this.resourceUsage = resourceUsage;
+            this.cgroupStats = cgroupStats;
+        }
+
+        public ExecutionResult withStoredLog(StoredLog storedLog) {
+            return new ExecutionResult(success, message, output, executionTimeSeconds, workerType, storedLog,
+                    cancelled, resourceUsage, cgroupStats);
+        }
+
+        public ExecutionResult withCgroupStats(CgroupManager.CgroupStats cgroupStats) {
+            return new ExecutionResult(success, message, output, executionTimeSeconds, workerType, storedLog,
+                    cancelled, resourceUsage, cgroupStats);
+        }
+
+        public ExecutionResult withResourceUsage(ResourceUsage resourceUsage) {
+            return new ExecutionResult(success, message, output, executionTimeSeconds, workerType, storedLog,
+                    cancelled, resourceUsage, cgroupStats);
+        }
+
+        /**
+         * Same result for an execution that was cancelled while it ran, keeping its partial output
+         */
+        public ExecutionResult asCancelled() {
+            return new ExecutionResult(false, "Execution cancelled", output, executionTimeSeconds, workerType,
+                    storedLog, true, resourceUsage, cgroupStats);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * CPU, memory and I/O used by the job, null if it was not measured
+         */
+        public ResourceUsage getResourceUsage() {
+            return resourceUsage;
+        }
+
+        /**
+         * OOM kills and CPU throttling of the execution's cgroup, null if it ran without one
+         */
+        public CgroupManager.CgroupStats getCgroupStats() {
+            return cgroupStats;
         }
 
         public boolean isSuccess() {
@@ -147,6 +393,17 @@ public class JarExecutorService {
             return executionTimeSeconds;
         }
 
+        public JobExecution.WorkerType getWorkerType() {
+            return workerType;
+        }
+
+        /**
+         * Where the complete output was stored, null until the execution has finished
+         */
+        public StoredLog getStoredLog() {
+            return storedLog;
+        }
+
         public String getExecutionTimeFormatted() {
             return String.format("%.2fs", executionTimeSeconds);
         }
@@ -79,6 +79,7 @@ public class JarFileService {
                                 .description("JAR file: " + jarName)
                                 .path(jarName)
                                 .size(metadata.size())
+                                .etag(metadata.etag())
                                 .uploadedAt(LocalDateTime.now())
                                 .build();
 
@@ -87,6 +88,7 @@ public class JarFileService {
                         addedCount++;
                     } else {
                         log.info("JAR file {} already exists in database", jarName);
+                        refreshMetadata(jarName);
                     }
                 } catch (Exception e) {
                     log.error("Error adding JAR file {} to database: {}", jarName, e.getMessage(), e);
@@ -101,6 +103,25 @@ public class JarFileService {
         }
     }
 
+    /**
+     * Update the stored size and ETag if the JAR was replaced in MinIO, so the
+     * executor cache picks up the new contents
+     */
+    private void refreshMetadata(String jarName) {
+        JarFile jarFile = jarFileRepository.findByName(jarName).orElse(null);
+        if (jarFile == null) {
+            return;
+        }
+
+        var metadata = minioService.getJarMetadata(jarName);
+        if (!metadata.etag().equals(jarFile.getEtag())) {
+            log.info("JAR file {} changed in MinIO: etag {} -> {}", jarName, jarFile.getEtag(), metadata.etag());
+            jarFile.setEtag(metadata.etag());
+            jarFile.setSize(metadata.size());
+            jarFileRepository.save(jarFile);
+        }
+    }
+
     /**
      * Get all JAR files that are actually stored in MinIO
      */
@@ -176,6 +197,57 @@ public class JarFileService {
         }
     }
 
+    /**
+     * Switch a JAR between forked and in-JVM execution
+     */
+    @Transactional
+    public JarFileDTO updateExecutionMode(UUID id, String executionMode) {
+        JarFile.ExecutionMode mode;
+        try {
+            mode = JarFile.ExecutionMode.valueOf(executionMode.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid execution mode: " + executionMode);
+        }
+
+        Optional<JarFile> jarFileOptional = jarFileRepository.findById(id);
+        if (jarFileOptional.isEmpty()) {
+            return null;
+        }
+
+        JarFile jarFile = jarFileOptional.get();
+        jarFile.setExecutionMode(mode);
+        jarFile = jarFileRepository.save(jarFile);
+
+        log.info("JAR file {} will now be executed in {} mode", jarFile.getName(), mode);
+        return convertToDTO(jarFile);
+    }
+
+    /**
+     * Set the cgroup limits of forked executions of a JAR file, null clears a limit
+     */
+    @Transactional
+    public JarFileDTO updateResourceLimits(UUID id, Double cpuLimit, Long memoryLimitMb, Long pidsLimit) {
+        if ((cpuLimit != null && cpuLimit <= 0) || (memoryLimitMb != null && memoryLimitMb <= 0)
+                || (pidsLimit != null && pidsLimit <= 0)) {
+            throw new IllegalArgumentException("Resource limits must be positive");
+        }
+
+        Optional<JarFile> jarFileOptional = jarFileRepository.findById(id);
+        if (jarFileOptional.isEmpty()) {
+            return null;
+        }
+
+        JarFile jarFile = jarFileOptional.get();
+        jarFile.setCpuLimit(cpuLimit);
+        jarFile.setMemoryLimitMb(memoryLimitMb);
+        jarFile.setPidsLimit(pidsLimit);
+        jarFile = jarFileRepository.save(jarFile);
+
+        log.info("JAR file {} resource limits set to cpu={}, memoryMb={}, pids={}", jarFile.getName(), cpuLimit,
+                memoryLimitMb, pidsLimit);
+        return convertToDTO(jarFile);
+    }
+
     /**
      * Convert JarFile to JarFileDTO
      */
@@ -186,6 +258,12 @@ public class JarFileService {
                 .description(jarFile.getDescription())
                 .size(jarFile.getSize())
                 .uploadedAt(jarFile.getUploadedAt())
+                .executionMode(jarFile.getExecutionMode() != null
+                        ? jarFile.getExecutionMode().toString()
+                        : JarFile.ExecutionMode.FORKED.toString())
+                .cpuLimit(jarFile.getCpuLimit())
+                .memoryLimitMb(jarFile.getMemoryLimitMb())
+                .pidsLimit(jarFile.getPidsLimit())
                 .build();
     }
 }
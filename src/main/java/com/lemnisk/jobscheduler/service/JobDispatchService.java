@@ -0,0 +1,130 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
+import com.lemnisk.jobscheduler.model.JobSchedule;
+import com.lemnisk.jobscheduler.repository.JobScheduleRepository;
+
+@Service
+public class JobDispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobDispatchService.class);
+
+    private final JobScheduleRepository jobScheduleRepository;
+    private final OutboxService outboxService;
+
+    @Value("${scheduler.mode:wheel}")
+    private String schedulerMode;
+
+    // Firing lag of scheduled jobs, used to compare scheduler modes
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    public JobDispatchService(JobScheduleRepository jobScheduleRepository, OutboxService outboxService) {
+        this.jobScheduleRepository = jobScheduleRepository;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * Claim the given jobs and dispatch the ones that were still waiting to be executed
+     */
+    @Transactional
+    public void dispatchDueJobs(Collection<UUID> jobScheduleIds) {
+        List<UUID> claimedIds = jobScheduleRepository.claimJobs(jobScheduleIds);
+        if (claimedIds.size() < jobScheduleIds.size()) {
+            log.debug("Claimed {} of {} due jobs, the rest were already dispatched or cancelled",
+                    claimedIds.size(), jobScheduleIds.size());
+        }
+
+        dispatchClaimedJobs(claimedIds);
+    }
+
+    /**
+     * Claim a batch of jobs due at the given time and dispatch them
+     *
+     * @return the number of jobs claimed
+     */
+    @Transactional
+    public int claimAndDispatchDueJobs(LocalDateTime now, int batchSize) {
+        List<UUID> claimedIds = jobScheduleRepository.claimDueJobs(now, batchSize);
+        dispatchClaimedJobs(claimedIds);
+        return claimedIds.size();
+    }
+
+    /**
+     * Queue the job execution message, it is sent to Kafka once the caller's transaction commits
+     */
+    public void dispatch(JobSchedule jobSchedule) {
+        if (jobSchedule.getStatus() == JobSchedule.JobStatus.DISPATCHED
+                && jobSchedule.getExecutionType() == JobSchedule.ExecutionType.SCHEDULED) {
+            recordLag(jobSchedule);
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("jarName", jobSchedule.getJarFile().getName());
+
+        JobExecutionMessage message = JobExecutionMessage.builder()
+                .jobId(jobSchedule.getId())
+                .executionAttemptId(UUID.randomUUID())
+                .jarName(jobSchedule.getJarFile().getName())
+                .executionType(jobSchedule.getExecutionType().toString())
+                .scheduledTime(jobSchedule.getNextFireTime())
+                .recurrenceType(jobSchedule.getRecurrenceType().toString())
+                .metadata(metadata)
+                .build();
+
+        outboxService.enqueueJobExecutionMessage(message);
+    }
+
+    /**
+     * Get firing lag statistics for the active scheduler mode
+     */
+    public Map<String, Object> getDispatchStats() {
+        long count = dispatchedCount.sum();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", schedulerMode);
+        stats.put("dispatched", count);
+        stats.put("averageLagMillis", count == 0 ? 0 : totalLagMillis.sum() / count);
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+
+    private void recordLag(JobSchedule jobSchedule) {
+        long lagMillis = Math.max(ChronoUnit.MILLIS.between(jobSchedule.getNextFireTime(), LocalDateTime.now()), 0);
+
+        dispatchedCount.increment();
+        totalLagMillis.add(lagMillis);
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+
+        if (lagMillis > 1000) {
+            log.warn("Job {} is dispatched {} ms past its scheduled execution time", jobSchedule.getId(), lagMillis);
+        }
+    }
+
+    private void dispatchClaimedJobs(List<UUID> claimedIds) {
+        if (claimedIds.isEmpty()) {
+            return;
+        }
+
+        for (JobSchedule job : jobScheduleRepository.findAllById(claimedIds)) {
+            dispatch(job);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.lemnisk.jobscheduler.service;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.lemnisk.jobscheduler.dto.CursorPage;
 import com.lemnisk.jobscheduler.dto.JobExecutionDTO;
+import com.lemnisk.jobscheduler.dto.PageCursor;
 import com.lemnisk.jobscheduler.model.JobExecution;
 import com.lemnisk.jobscheduler.repository.JobExecutionRepository;
 
@@ -21,6 +25,12 @@ public class JobExecutionService {
 
     private final JobExecutionRepository jobExecutionRepository;
 
+    @Value("${api.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${api.page.max-size:200}")
+    private int maxPageSize;
+
     public JobExecutionService(JobExecutionRepository jobExecutionRepository) {
         this.jobExecutionRepository = jobExecutionRepository;
     }
@@ -34,49 +44,64 @@ public class JobExecutionService {
     }
 
     /**
-     * Get job executions by job schedule ID
+     * Delete a job execution that never ran
      */
-    public List<JobExecutionDTO> getJobExecutionsByJobScheduleId(UUID jobScheduleId) {
-        List<JobExecution> jobExecutions = jobExecutionRepository.findByJobScheduleIdOrderByStartTimeDesc(jobScheduleId);
-        List<JobExecutionDTO> jobExecutionDTOs = new ArrayList<>();
-
-        for (JobExecution jobExecution : jobExecutions) {
-            jobExecutionDTOs.add(convertToDTO(jobExecution));
-        }
+    @Transactional
+    public void deleteJobExecution(UUID id) {
+        jobExecutionRepository.deleteById(id);
+    }
 
-        return jobExecutionDTOs;
+    /**
+     * Get a page of job executions of a job schedule, latest first
+     */
+    public CursorPage<JobExecutionDTO> getJobExecutionsByJobScheduleId(UUID jobScheduleId, String cursor,
+            Integer limit) {
+        int pageSize = limit != null ? Math.min(Math.max(limit, 1), maxPageSize) : defaultPageSize;
+        PageCursor after = PageCursor.decode(cursor);
+        List<JobExecutionDTO> rows = after == null
+                ? jobExecutionRepository.findDTOsByJobScheduleId(jobScheduleId, Limit.of(pageSize + 1))
+                : jobExecutionRepository.findDTOsByJobScheduleIdAfter(jobScheduleId, after.getCreatedAt(),
+                        after.getId(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, dto -> new PageCursor(dto.getStartTime(), dto.getId()));
     }
 
     /**
      * Get job execution by ID
      */
     public JobExecutionDTO getJobExecutionById(UUID id) {
-        Optional<JobExecution> jobExecutionOptional = jobExecutionRepository.findById(id);
-        return jobExecutionOptional.map(this::convertToDTO).orElse(null);
+        return jobExecutionRepository.findDTOById(id).orElse(null);
     }
 
     /**
-     * Get latest job execution for a job schedule
+     * Get job execution entity by ID, with its job schedule
      */
-    public JobExecution getLatestJobExecution(UUID jobScheduleId) {
-        List<JobExecution> jobExecutions = jobExecutionRepository.findByJobScheduleIdOrderByStartTimeDesc(jobScheduleId);
-        return jobExecutions.isEmpty() ? null : jobExecutions.get(0);
+    public JobExecution getJobExecution(UUID id) {
+        return jobExecutionRepository.findById(id).orElse(null);
     }
 
     /**
-     * Convert JobExecution to JobExecutionDTO
+     * Get the execution of a dispatch
      */
-    private JobExecutionDTO convertToDTO(JobExecution jobExecution) {
-        return JobExecutionDTO.builder()
-                .id(jobExecution.getId())
-                .jobScheduleId(jobExecution.getJobSchedule().getId())
-                .startTime(jobExecution.getStartTime())
-                .endTime(jobExecution.getEndTime())
-                .status(jobExecution.getStatus().toString())
-                .logs(jobExecution.getLogs())
-                .errorMessage(jobExecution.getErrorMessage())
-                .executionTime(jobExecution.getExecutionTime())
-                .response(jobExecution.getResponse())
-                .build();
+    public JobExecution getJobExecutionByAttemptId(UUID attemptId) {
+        return jobExecutionRepository.findByAttemptId(attemptId).orElse(null);
+    }
+
+    /**
+     * Refresh the heartbeat of executions running on this node
+     */
+    @Transactional
+    public void recordHeartbeats(Collection<UUID> executionIds) {
+        jobExecutionRepository.updateHeartbeats(executionIds, LocalDateTime.now());
+    }
+
+    /**
+     * Take over an execution that is still STARTED but whose node stopped heartbeating before staleBefore.
+     * Only one node can reclaim an execution.
+     *
+     * @return whether the execution was reclaimed
+     */
+    @Transactional
+    public boolean reclaimAbandonedExecution(UUID id, LocalDateTime staleBefore) {
+        return jobExecutionRepository.reclaimAbandoned(id, staleBefore, LocalDateTime.now()) > 0;
     }
 }
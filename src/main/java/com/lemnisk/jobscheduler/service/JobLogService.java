@@ -0,0 +1,175 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Creates bounded output captures for executions and stores their complete output in
+ * MinIO under {@code logs/<execution id>/} as gzip-compressed chunks. Executions only
+ * keep the size, checksum and last bytes of their output, the rest is read lazily.
+ */
+@Service
+public class JobLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobLogService.class);
+
+    private static final String LOG_PREFIX = "logs/";
+
+    private final MinioService minioService;
+
+    @Value("${executor.output.head-bytes:16384}")
+    private int headBytes;
+
+    @Value("${executor.output.tail-bytes:16384}")
+    private int tailBytes;
+
+    @Value("${executor.output.spill-dir:${java.io.tmpdir}/job-scheduler-logs}")
+    private String spillDir;
+
+    @Value("${executor.output.chunk-bytes:1048576}")
+    private int chunkBytes;
+
+    @Value("${executor.output.row-tail-bytes:4096}")
+    private int rowTailBytes;
+
+    public JobLogService(MinioService minioService) {
+        this.minioService = minioService;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(spillDir));
+    }
+
+    /**
+     * Start capturing the output of an execution
+     */
+    public OutputCapture open(UUID executionId) {
+        String name = executionId != null ? executionId.toString() : UUID.randomUUID().toString();
+        return new OutputCapture(headBytes, tailBytes, Paths.get(spillDir, name + ".log"));
+    }
+
+    /**
+     * Close the capture and upload the complete output in compressed chunks, unless it fits
+     * into the tail kept with the execution
+     */
+    public StoredLog store(UUID executionId, OutputCapture capture) {
+        capture.close();
+        Path spillFile = capture.getSpillFile();
+        long size = capture.getTotalBytes();
+        String tail = capture.getTail(rowTailBytes);
+
+        try {
+            if (spillFile == null || executionId == null) {
+                return new StoredLog(null, 0, size, null, tail);
+            }
+
+            boolean upload = size > rowTailBytes;
+            String location = upload ? LOG_PREFIX + executionId + "/" : null;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long compressedBytes = 0;
+            int chunks = 0;
+
+            try (InputStream in = Files.newInputStream(spillFile)) {
+                byte[] chunk = new byte[upload ? chunkBytes : rowTailBytes];
+                int length;
+                while ((length = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                    digest.update(chunk, 0, length);
+                    if (upload) {
+                        byte[] compressed = compress(chunk, length);
+                        minioService.uploadLogChunk(chunkPath(location, chunks), compressed);
+                        compressedBytes += compressed.length;
+                        chunks++;
+                    }
+                }
+            }
+
+            if (upload) {
+                log.info("Stored {} bytes of output for execution {} at {} ({} chunks, {} bytes compressed)",
+                        size, executionId, location, chunks, compressedBytes);
+            }
+            return new StoredLog(location, chunks, size, HexFormat.of().formatHex(digest.digest()), tail);
+        } catch (Exception e) {
+            log.error("Error storing output of execution {}: {}", executionId, e.getMessage(), e);
+            return new StoredLog(null, 0, size, null, tail);
+        } finally {
+            if (spillFile != null) {
+                try {
+                    Files.deleteIfExists(spillFile);
+                } catch (IOException e) {
+                    log.warn("Could not delete spill file {}: {}", spillFile, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of chunks the output of an execution can be read in. Outputs kept with the
+     * execution and those stored as a single object read as one chunk.
+     */
+    public int countChunks(String location, Integer chunks) {
+        return location == null || location.endsWith(".log") || chunks == null ? 1 : chunks;
+    }
+
+    /**
+     * Write the output of an execution, or only one of its chunks, to the given stream
+     *
+     * @param location object prefix of the chunks, null if the tail holds the complete output
+     * @param chunk index of the chunk to write, null for the complete output
+     */
+    public void writeLog(String location, Integer chunks, String tail, Integer chunk, OutputStream out)
+            throws IOException {
+        if (location == null) {
+            if (tail != null) {
+                out.write(tail.getBytes(StandardCharsets.UTF_8));
+            }
+            return;
+        }
+
+        if (location.endsWith(".log")) {
+            // Complete output stored as one uncompressed object
+            try (InputStream in = minioService.getLog(location)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        int first = chunk != null ? chunk : 0;
+        int last = chunk != null ? chunk : chunks - 1;
+        for (int index = first; index <= last; index++) {
+            try (InputStream in = new GZIPInputStream(minioService.getLog(chunkPath(location, index)))) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    private static String chunkPath(String location, int index) {
+        return String.format("%s%05d.log.gz", location, index);
+    }
+
+    private static byte[] compress(byte[] data, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -1,26 +1,32 @@
 package com.lemnisk.jobscheduler.service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.lemnisk.jobscheduler.dto.CursorPage;
 import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
+import com.lemnisk.jobscheduler.dto.JobScheduleFilter;
 import com.lemnisk.jobscheduler.dto.JobScheduleRequest;
-import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
+import com.lemnisk.jobscheduler.dto.PageCursor;
+import com.lemnisk.jobscheduler.dto.kafka.JobControlMessage;
 import com.lemnisk.jobscheduler.model.JarFile;
 import com.lemnisk.jobscheduler.model.JobSchedule;
 import com.lemnisk.jobscheduler.repository.JarFileRepository;
 import com.lemnisk.jobscheduler.repository.JobScheduleRepository;
+import com.lemnisk.jobscheduler.scheduler.CronExpression;
+import com.lemnisk.jobscheduler.scheduler.JobTrigger;
 
 @Service
 public class JobScheduleService {
@@ -29,13 +35,23 @@ public class JobScheduleService {
 
     private final JobScheduleRepository jobScheduleRepository;
     private final JarFileRepository jarFileRepository;
-    private final KafkaProducerService kafkaProducerService;
+    private final JobDispatchService jobDispatchService;
+    private final JobTrigger jobTrigger;
+    private final OutboxService outboxService;
+
+    @Value("${api.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${api.page.max-size:200}")
+    private int maxPageSize;
 
     public JobScheduleService(JobScheduleRepository jobScheduleRepository, JarFileRepository jarFileRepository,
-            KafkaProducerService kafkaProducerService) {
+            JobDispatchService jobDispatchService, JobTrigger jobTrigger, OutboxService outboxService) {
         this.jobScheduleRepository = jobScheduleRepository;
         this.jarFileRepository = jarFileRepository;
-        this.kafkaProducerService = kafkaProducerService;
+        this.jobDispatchService = jobDispatchService;
+        this.jobTrigger = jobTrigger;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -52,49 +68,136 @@ public class JobScheduleService {
 
         JarFile jarFile = jarFileOptional.get();
 
-        // Create job schedule
+        boolean immediate = request.getExecutionType().equalsIgnoreCase("immediate");
+        LocalDateTime scheduledTime = immediate ? LocalDateTime.now() : request.getScheduledTime();
+        JobSchedule.RecurrenceType recurrenceType = request.getRecurrenceType() != null
+                ? JobSchedule.RecurrenceType.valueOf(request.getRecurrenceType().toUpperCase())
+                : JobSchedule.RecurrenceType.ONE_TIME;
+
+        // Scheduled cron jobs first fire at the first match at or after the requested time
+        LocalDateTime nextFireTime = scheduledTime;
+        String cronExpression = null;
+        if (recurrenceType == JobSchedule.RecurrenceType.CRON) {
+            cronExpression = request.getCronExpression().trim();
+            if (!immediate) {
+                LocalDateTime base = scheduledTime != null ? scheduledTime.minusSeconds(1) : LocalDateTime.now();
+                nextFireTime = CronExpression.parse(cronExpression).next(base);
+                scheduledTime = nextFireTime;
+            }
+        }
+
+        // Create job schedule. Immediate jobs are dispatched right away, so they are
+        // stored as DISPATCHED to keep the scheduler from claiming them again.
         JobSchedule jobSchedule = JobSchedule.builder()
                 .jarFile(jarFile)
                 .executionType(JobSchedule.ExecutionType.valueOf(request.getExecutionType().toUpperCase()))
-                .scheduledTime(request.getExecutionType().equalsIgnoreCase("immediate")
-                        ? LocalDateTime.now()
-                        : request.getScheduledTime())
-                .recurrenceType(request.getRecurrenceType() != null
-                        ? JobSchedule.RecurrenceType.valueOf(request.getRecurrenceType().toUpperCase())
-                        : JobSchedule.RecurrenceType.ONE_TIME)
-                .status(JobSchedule.JobStatus.SCHEDULED)
+                .scheduledTime(scheduledTime)
+                .nextFireTime(nextFireTime)
+                .recurrenceType(recurrenceType)
+                .cronExpression(cronExpression)
+                .timeoutSeconds(request.getTimeoutSeconds())
+                .cpuLimit(request.getCpuLimit())
+                .memoryLimitMb(request.getMemoryLimitMb())
+                .pidsLimit(request.getPidsLimit())
+                .status(immediate ? JobSchedule.JobStatus.DISPATCHED : JobSchedule.JobStatus.SCHEDULED)
                 .build();
 
         jobSchedule = jobScheduleRepository.save(jobSchedule);
 
         // If immediate execution, send to Kafka
         if (jobSchedule.getExecutionType() == JobSchedule.ExecutionType.IMMEDIATE) {
-            sendJobExecutionMessage(jobSchedule);
+            jobDispatchService.dispatch(jobSchedule);
+        } else {
+            registerWithTrigger(jobSchedule);
         }
 
         return convertToDTO(jobSchedule);
     }
 
     /**
-     * Create a job schedule (internal use)
+     * Advance a running recurring job to its next fire time and put it back in the SCHEDULED state.
+     * The same row is reused for every run, executions are attached to it. Jobs cancelled while
+     * they ran are left cancelled.
      */
     @Transactional
-    public JobSchedule createJobSchedule(JobSchedule jobSchedule) {
-        return jobScheduleRepository.save(jobSchedule);
+    public LocalDateTime rescheduleRecurringJob(UUID id) {
+        Optional<JobSchedule> jobScheduleOptional = jobScheduleRepository.findById(id);
+
+        if (jobScheduleOptional.isEmpty()) {
+            return null;
+        }
+
+        JobSchedule jobSchedule = jobScheduleOptional.get();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextFireTime = calculateNextExecutionTime(jobSchedule);
+        if (nextFireTime == null) {
+            if (transitionJobStatus(id, JobSchedule.JobStatus.COMPLETED, JobSchedule.JobStatus.RUNNING)) {
+                log.info("Recurring job {} has no further fire times, marked it completed", id);
+            }
+            return null;
+        }
+
+        // Validate that the next execution time is in the future
+        if (nextFireTime.isBefore(now)) {
+            log.error("Calculated next execution time is in the past! Adjusting to future time.");
+            // Add one hour to current time as a fallback
+            nextFireTime = now.plus(1, ChronoUnit.HOURS);
+        }
+
+        log.info("Rescheduling recurring job {} ({}) from {} to {}", id, jobSchedule.getRecurrenceType(),
+                jobSchedule.getNextFireTime(), nextFireTime);
+
+        if (jobScheduleRepository.rescheduleRunning(id, nextFireTime, now) == 0) {
+            log.info("Not rescheduling job {}, it is no longer running", id);
+            return null;
+        }
+
+        jobSchedule.setNextFireTime(nextFireTime);
+        jobSchedule.setStatus(JobSchedule.JobStatus.SCHEDULED);
+        registerWithTrigger(jobSchedule);
+        return nextFireTime;
     }
 
     /**
-     * Get all job schedules
+     * Put a batch of jobs that were dispatched before the given time but never started back in the
+     * SCHEDULED state and hand them to the trigger, which fires them again right away
+     *
+     * @return the number of jobs requeued
      */
-    public List<JobScheduleDTO> getAllJobSchedules() {
-        List<JobSchedule> jobSchedules = jobScheduleRepository.findAll();
-        List<JobScheduleDTO> jobScheduleDTOs = new ArrayList<>();
+    @Transactional
+    public int requeueStaleDispatches(LocalDateTime dispatchedBefore, int batchSize) {
+        List<UUID> ids = jobScheduleRepository.requeueStaleDispatches(dispatchedBefore, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
 
-        for (JobSchedule jobSchedule : jobSchedules) {
-            jobScheduleDTOs.add(convertToDTO(jobSchedule));
+        for (JobSchedule jobSchedule : jobScheduleRepository.findAllById(ids)) {
+            registerWithTrigger(jobSchedule);
         }
+        return ids.size();
+    }
+
+    /**
+     * Get a page of job schedules, newest first. Statuses and types are matched case-insensitively,
+     * the time range applies to the creation time.
+     */
+    public CursorPage<JobScheduleDTO> getJobSchedules(List<String> statuses, String jarName, String executionType,
+            LocalDateTime createdFrom, LocalDateTime createdTo, String cursor, Integer limit) {
+        JobScheduleFilter filter = JobScheduleFilter.builder()
+                .statuses(statuses != null
+                        ? statuses.stream().map(status -> JobSchedule.JobStatus.valueOf(status.toUpperCase())).toList()
+                        : null)
+                .jarName(jarName != null && !jarName.isBlank() ? jarName : null)
+                .executionType(executionType != null
+                        ? JobSchedule.ExecutionType.valueOf(executionType.toUpperCase())
+                        : null)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .build();
 
-        return jobScheduleDTOs;
+        int pageSize = limit != null ? Math.min(Math.max(limit, 1), maxPageSize) : defaultPageSize;
+        List<JobScheduleDTO> rows = jobScheduleRepository.findPage(filter, PageCursor.decode(cursor), pageSize + 1);
+        return CursorPage.of(rows, pageSize, dto -> new PageCursor(dto.getCreatedAt(), dto.getId()));
     }
 
     /**
@@ -105,98 +208,151 @@ public class JobScheduleService {
         return jobScheduleOptional.orElse(null);
     }
 
+    /**
+     * Get the current status of a job, or null if it does not exist
+     */
+    public JobSchedule.JobStatus getJobStatus(UUID id) {
+        return jobScheduleRepository.findStatusById(id).orElse(null);
+    }
+
     /**
      * Get job schedule DTO by ID
      */
     public JobScheduleDTO getJobScheduleDTOById(UUID id) {
-        Optional<JobSchedule> jobScheduleOptional = jobScheduleRepository.findById(id);
-        return jobScheduleOptional.map(this::convertToDTO).orElse(null);
+        return jobScheduleRepository.findDTOById(id).orElse(null);
     }
 
     /**
-     * Update job status
+     * Move a job to a new status in a single statement, but only if it is still in one of the
+     * expected statuses. A job moved on concurrently (e.g. cancelled) keeps its status.
+     *
+     * @return whether the job was moved
      */
     @Transactional
-    public void updateJobStatus(UUID id, JobSchedule.JobStatus status) {
-        Optional<JobSchedule> jobScheduleOptional = jobScheduleRepository.findById(id);
-
-        if (jobScheduleOptional.isPresent()) {
-            JobSchedule jobSchedule = jobScheduleOptional.get();
-            jobSchedule.setStatus(status);
-            jobScheduleRepository.save(jobSchedule);
+    public boolean transitionJobStatus(UUID id, JobSchedule.JobStatus to, JobSchedule.JobStatus... from) {
+        boolean applied = jobScheduleRepository.transitionStatus(id, List.of(from), to, LocalDateTime.now()) > 0;
+        if (!applied) {
+            log.debug("Job {} is no longer {}, not moving it to {}", id, Arrays.toString(from), to);
         }
+        return applied;
     }
 
     /**
-     * Cancel job
+     * Cancel a scheduled, dispatched or running job
      */
     @Transactional
     public boolean cancelJob(UUID id) {
-        Optional<JobSchedule> jobScheduleOptional = jobScheduleRepository.findById(id);
+        List<String> previous = jobScheduleRepository.cancel(id);
+        if (previous.isEmpty()) {
+            return false;
+        }
 
-        if (jobScheduleOptional.isPresent()) {
-            JobSchedule jobSchedule = jobScheduleOptional.get();
+        JobSchedule.JobStatus previousStatus = JobSchedule.JobStatus.valueOf(previous.get(0));
+        jobTrigger.cancel(id);
 
-            // Only cancel if job is scheduled or running
-            if (jobSchedule.getStatus() == JobSchedule.JobStatus.SCHEDULED ||
-                    jobSchedule.getStatus() == JobSchedule.JobStatus.RUNNING) {
-                jobSchedule.setStatus(JobSchedule.JobStatus.CANCELLED);
-                jobScheduleRepository.save(jobSchedule);
-                return true;
-            }
+        // Dispatched jobs may already be starting on a node, running ones have to be
+        // stopped on the node that runs them
+        if (previousStatus != JobSchedule.JobStatus.SCHEDULED) {
+            sendCancelRequest(id);
         }
-
-        return false;
+        return true;
     }
 
     /**
-     * Check for scheduled jobs that are due for execution
+     * Calculate next execution time based on recurrence type
      */
-    @Scheduled(fixedRate = 30000) // Run every 30 seconds for more precise scheduling
-    @Transactional
-    public void checkScheduledJobs() {
+    private LocalDateTime calculateNextExecutionTime(JobSchedule job) {
+        LocalDateTime lastFireTime = job.getNextFireTime();
         LocalDateTime now = LocalDateTime.now();
-        log.info("Checking for scheduled jobs due for execution at {}", now);
-
-        try {
-            List<JobSchedule> dueJobs = jobScheduleRepository.findJobsDueForExecution(now, JobSchedule.JobStatus.SCHEDULED);
-            log.info("Found {} jobs due for execution", dueJobs.size());
-
-            for (JobSchedule job : dueJobs) {
-                log.info("Processing due job: ID={}, JAR={}, ScheduledTime={}, RecurrenceType={}",
-                        job.getId(), job.getJarFile().getName(), job.getScheduledTime(), job.getRecurrenceType());
 
-                // Calculate how many minutes past the scheduled time
-                long minutesLate = java.time.temporal.ChronoUnit.MINUTES.between(job.getScheduledTime(), now);
-                if (minutesLate > 1) {
-                    log.warn("Job is {} minutes past its scheduled execution time", minutesLate);
+        // Extract the original minute and second components to maintain the same time pattern
+        int originalMinute = lastFireTime.getMinute();
+        int originalSecond = lastFireTime.getSecond();
+        int originalNano = lastFireTime.getNano();
+
+        switch (job.getRecurrenceType()) {
+            case HOURLY:
+                // First try to calculate the next hour precisely from the last fire time
+                LocalDateTime nextHour = lastFireTime.plus(1, ChronoUnit.HOURS);
+
+                // If the calculated next hour is in the past (due to delays),
+                // calculate the next hour that maintains the same minute/second pattern
+                if (nextHour.isBefore(now)) {
+                    LocalDateTime baseTime = now.withMinute(originalMinute)
+                                               .withSecond(originalSecond)
+                                               .withNano(originalNano);
+
+                    // If the adjusted time is still in the past, add one hour
+                    if (baseTime.isBefore(now)) {
+                        baseTime = baseTime.plus(1, ChronoUnit.HOURS);
+                    }
+
+                    return baseTime;
                 }
 
-                sendJobExecutionMessage(job);
-                log.info("Sent execution message for job: {}", job.getId());
-            }
-        } catch (Exception e) {
-            log.error("Error checking for scheduled jobs: {}", e.getMessage(), e);
+                return nextHour;
+            case DAILY:
+                LocalDateTime nextDay = lastFireTime.plus(1, ChronoUnit.DAYS);
+                if (nextDay.isBefore(now)) {
+                    // Maintain the same hour, minute, second pattern
+                    LocalDateTime baseTime = now.withHour(lastFireTime.getHour())
+                                               .withMinute(originalMinute)
+                                               .withSecond(originalSecond)
+                                               .withNano(originalNano);
+
+                    // If the adjusted time is still in the past, add one day
+                    if (baseTime.isBefore(now)) {
+                        baseTime = baseTime.plus(1, ChronoUnit.DAYS);
+                    }
+
+                    return baseTime;
+                }
+                return nextDay;
+            case WEEKLY:
+                LocalDateTime nextWeek = lastFireTime.plus(1, ChronoUnit.WEEKS);
+                if (nextWeek.isBefore(now)) {
+                    // Calculate how many weeks we need to add to get to the future
+                    long weeksToAdd = ChronoUnit.WEEKS.between(lastFireTime, now) + 1;
+                    return lastFireTime.plus(weeksToAdd, ChronoUnit.WEEKS);
+                }
+                return nextWeek;
+            case CRON:
+                // Skip any runs that were missed while the job was executing
+                LocalDateTime base = lastFireTime.isAfter(now) ? lastFireTime : now;
+                return CronExpression.parse(job.getCronExpression()).next(base);
+            default:
+                return lastFireTime;
         }
     }
 
     /**
-     * Send job execution message to Kafka
+     * Hand a scheduled job to the trigger once the surrounding transaction has committed,
+     * so it is never fired before the row is visible to the dispatcher
      */
-    private void sendJobExecutionMessage(JobSchedule jobSchedule) {
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("jarName", jobSchedule.getJarFile().getName());
+    private void registerWithTrigger(JobSchedule jobSchedule) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jobTrigger.schedule(jobSchedule);
+                }
+            });
+        } else {
+            jobTrigger.schedule(jobSchedule);
+        }
+    }
 
-        JobExecutionMessage message = JobExecutionMessage.builder()
-                .jobId(jobSchedule.getId())
-                .jarName(jobSchedule.getJarFile().getName())
-                .executionType(jobSchedule.getExecutionType().toString())
-                .scheduledTime(jobSchedule.getScheduledTime())
-                .recurrenceType(jobSchedule.getRecurrenceType().toString())
-                .metadata(metadata)
+    /**
+     * Ask every node to stop the job, the request is sent once the cancellation is committed
+     */
+    private void sendCancelRequest(UUID jobId) {
+        JobControlMessage message = JobControlMessage.builder()
+                .jobId(jobId)
+                .action(JobControlMessage.CANCEL)
+                .timestamp(LocalDateTime.now())
                 .build();
 
-        kafkaProducerService.sendJobExecutionMessage(message);
+        outboxService.enqueueJobControlMessage(message);
     }
 
     /**
@@ -209,7 +365,13 @@ public class JobScheduleService {
                 .jarName(jobSchedule.getJarFile().getName())
                 .executionType(jobSchedule.getExecutionType().toString())
                 .scheduledTime(jobSchedule.getScheduledTime())
+                .nextFireTime(jobSchedule.getNextFireTime())
                 .recurrenceType(jobSchedule.getRecurrenceType().toString())
+                .cronExpression(jobSchedule.getCronExpression())
+                .timeoutSeconds(jobSchedule.getTimeoutSeconds())
+                .cpuLimit(jobSchedule.getCpuLimit())
+                .memoryLimitMb(jobSchedule.getMemoryLimitMb())
+                .pidsLimit(jobSchedule.getPidsLimit())
                 .status(jobSchedule.getStatus().toString())
                 .createdAt(jobSchedule.getCreatedAt())
                 .updatedAt(jobSchedule.getUpdatedAt())
@@ -6,18 +6,25 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemnisk.jobscheduler.dto.kafka.JobControlMessage;
 import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
 import com.lemnisk.jobscheduler.dto.kafka.JobResultMessage;
+import com.lemnisk.jobscheduler.model.JarFile;
 import com.lemnisk.jobscheduler.model.JobExecution;
 import com.lemnisk.jobscheduler.model.JobSchedule;
 
@@ -30,88 +37,174 @@ public class KafkaConsumerService {
     private final JobExecutionService jobExecutionService;
     private final KafkaProducerService kafkaProducerService;
     private final JarExecutorService jarExecutorService;
+    private final ExecutionPipeline executionPipeline;
+    private final ExecutionAdmissionService executionAdmissionService;
+    private final RunningExecutionRegistry runningExecutionRegistry;
+    private final ExecutionDedupeService executionDedupeService;
     private final ObjectMapper objectMapper;
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    // A redelivered dispatch whose execution is still STARTED is checked again every interval,
+    // and reclaimed once the execution has not had a heartbeat for the timeout
+    @Value("${executor.heartbeat.interval-ms:10000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${executor.heartbeat.timeout-ms:60000}")
+    private long heartbeatTimeoutMs;
 
     public KafkaConsumerService(JobScheduleService jobScheduleService, JobExecutionService jobExecutionService,
-            KafkaProducerService kafkaProducerService, JarExecutorService jarExecutorService, ObjectMapper objectMapper) {
+            KafkaProducerService kafkaProducerService, JarExecutorService jarExecutorService,
+            ExecutionPipeline executionPipeline, ExecutionAdmissionService executionAdmissionService,
+            RunningExecutionRegistry runningExecutionRegistry, ExecutionDedupeService executionDedupeService,
+            ObjectMapper objectMapper) {
         this.jobScheduleService = jobScheduleService;
         this.jobExecutionService = jobExecutionService;
         this.kafkaProducerService = kafkaProducerService;
         this.jarExecutorService = jarExecutorService;
+        this.executionPipeline = executionPipeline;
+        this.executionAdmissionService = executionAdmissionService;
+        this.runningExecutionRegistry = runningExecutionRegistry;
+        this.executionDedupeService = executionDedupeService;
         this.objectMapper = objectMapper;
     }
 
     /**
-     * Listen for job execution messages
+     * Listen for job execution messages. The message is acknowledged once the execution
+     * has finished, and the listener is paused while too many executions are in flight.
      */
-    @KafkaListener(topics = "${kafka.topic.job-execution}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeJobExecutionMessage(JobExecutionMessage message, Acknowledgment acknowledgment) {
+    @KafkaListener(id = ExecutionAdmissionService.EXECUTION_LISTENER_ID, topics = "${kafka.topic.job-execution}",
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void consumeJobExecutionMessage(JobExecutionMessage message, Acknowledgment acknowledgment,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset) {
         log.info("Received job execution message: {}", message);
 
-        try {
-            // Process the job execution in a separate thread
-            executorService.submit(() -> processJobExecution(message));
+        executionAdmissionService.admit(topic, partition, offset, acknowledgment);
+        submitJobExecution(message, topic, partition, offset);
+    }
 
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-        } catch (Exception e) {
-            log.error("Error processing job execution message: {}", e.getMessage(), e);
+    /**
+     * Listen for job result messages. Records arrive a poll at a time and their offsets
+     * are committed once the whole batch has been processed.
+     */
+    @KafkaListener(topics = "${kafka.topic.job-result}", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "kafkaBatchListenerContainerFactory",
+            properties = "max.poll.records=${kafka.listener.result-batch-size:500}")
+    public void consumeJobResultMessages(List<JobResultMessage> messages) {
+        log.info("Received {} job result messages", messages.size());
+
+        for (JobResultMessage message : messages) {
+            try {
+                // Update job execution with result
+                updateJobExecutionWithResult(message);
+            } catch (Exception e) {
+                log.error("Error processing job result message: {}", e.getMessage(), e);
+            }
         }
     }
 
     /**
-     * Listen for job result messages
+     * Listen for job control messages. Every node has its own consumer group, so the node
+     * running the job receives the request.
      */
-    @KafkaListener(topics = "${kafka.topic.job-result}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeJobResultMessage(JobResultMessage message, Acknowledgment acknowledgment) {
-        log.info("Received job result message: {}", message);
+    @KafkaListener(topics = "${kafka.topic.job-control}", groupId = "${kafka.control.group-id}",
+            concurrency = "1", properties = "auto.offset.reset=latest")
+    public void consumeJobControlMessage(JobControlMessage message, Acknowledgment acknowledgment) {
+        log.info("Received {} control message for job {}", message.getAction(), message.getJobId());
 
         try {
-            // Update job execution with result
-            updateJobExecutionWithResult(message);
-
-            // Acknowledge the message
+            if (JobControlMessage.CANCEL.equals(message.getAction())) {
+                runningExecutionRegistry.cancelJob(message.getJobId());
+            }
+        } catch (Exception e) {
+            log.error("Error processing job control message: {}", e.getMessage(), e);
+        } finally {
             acknowledgment.acknowledge();
+        }
+    }
+
+    /**
+     * Queue the job execution, it runs on a virtual thread once permits are available. The
+     * message stays unacknowledged until the execution has finished; a redelivered dispatch
+     * whose execution is still running elsewhere is queued again later without holding permits.
+     */
+    private void submitJobExecution(JobExecutionMessage message, String topic, int partition, long offset) {
+        try {
+            executionPipeline.submit(message.getJarName(), () -> processJobExecution(message)
+                    .whenComplete((checkAgain, error) -> {
+                        if (Boolean.TRUE.equals(checkAgain)) {
+                            CompletableFuture.delayedExecutor(heartbeatIntervalMs, TimeUnit.MILLISECONDS)
+                                    .execute(() -> submitJobExecution(message, topic, partition, offset));
+                        } else {
+                            executionAdmissionService.complete(topic, partition, offset);
+                        }
+                    }));
         } catch (Exception e) {
-            log.error("Error processing job result message: {}", e.getMessage(), e);
+            log.error("Error processing job execution message: {}", e.getMessage(), e);
+            executionAdmissionService.complete(topic, partition, offset);
         }
     }
 
     /**
      * Process job execution
+     *
+     * @return a future completed once the result of the execution has been recorded, with true
+     *         if the dispatch is still being executed elsewhere and has to be checked again later
      */
-    private void processJobExecution(JobExecutionMessage message) {
+    private CompletableFuture<Boolean> processJobExecution(JobExecutionMessage message) {
+        JobSchedule jobSchedule = null;
+        JobExecution jobExecution = null;
         try {
             // Find the job schedule
-            JobSchedule jobSchedule = jobScheduleService.getJobScheduleById(message.getJobId());
+            jobSchedule = jobScheduleService.getJobScheduleById(message.getJobId());
 
             if (jobSchedule == null) {
                 log.error("Job schedule not found: {}", message.getJobId());
-                return;
+                return CompletableFuture.completedFuture(null);
+            }
+
+            if (jobSchedule.getStatus() == JobSchedule.JobStatus.CANCELLED) {
+                log.info("Job {} was cancelled before it started, skipping execution", jobSchedule.getId());
+                return CompletableFuture.completedFuture(null);
             }
 
-            // Update job status to RUNNING
-            jobScheduleService.updateJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.RUNNING);
+            // Redelivered dispatches are caught before anything runs
+            UUID attemptId = message.getExecutionAttemptId();
+            if (attemptId != null && executionDedupeService.isDuplicate(attemptId)) {
+                return handleRedelivery(jobSchedule, attemptId);
+            }
 
-            // Create job execution record
-            JobExecution jobExecution = JobExecution.builder()
+            // Create job execution record, the unique attempt id rejects a concurrent duplicate
+            jobExecution = JobExecution.builder()
                     .jobSchedule(jobSchedule)
+                    .attemptId(attemptId)
                     .startTime(LocalDateTime.now())
                     .status(JobExecution.ExecutionStatus.STARTED)
-                    .logs("Starting job execution...")
+                    .logTail("Starting job execution...")
                     .build();
 
-            jobExecution = jobExecutionService.saveJobExecution(jobExecution);
+            try {
+                jobExecution = jobExecutionService.saveJobExecution(jobExecution);
+            } catch (DataIntegrityViolationException e) {
+                executionDedupeService.recordRejected(attemptId);
+                return handleRedelivery(jobSchedule, attemptId);
+            }
+            if (attemptId != null) {
+                executionDedupeService.record(attemptId);
+            }
 
-            // Simulate job execution
-            simulateJobExecution(jobSchedule, jobExecution);
+            // Move the job to RUNNING, unless it was cancelled after the check above
+            return startJobExecution(jobSchedule, jobExecution, JobSchedule.JobStatus.DISPATCHED);
 
         } catch (Exception e) {
+            // Fail the execution and its job here, the result listener does not move jobs
+            if (jobExecution != null) {
+                handleExecutionError(jobSchedule, jobExecution, e);
+                return CompletableFuture.completedFuture(null);
+            }
             log.error("Error processing job execution: {}", e.getMessage(), e);
 
-            // Send failure result
+            // Send failure result, no execution was stored
             JobResultMessage resultMessage = JobResultMessage.builder()
                     .jobId(message.getJobId())
                     .status("failure")
@@ -121,20 +214,111 @@ public class KafkaConsumerService {
                     .build();
 
             kafkaProducerService.sendJobResultMessage(resultMessage);
+            return CompletableFuture.completedFuture(null);
         }
     }
 
     /**
-     * Execute JAR file
+     * Handle a dispatch that already has an execution. Finished executions are dropped. A STARTED
+     * execution is either still running on a node, which keeps its heartbeat fresh, or was
+     * abandoned by a node that crashed while running it; that one is reclaimed and run again here.
+     *
+     * @return a future completed once the reclaimed execution has been recorded, with true if the
+     *         execution is still running and the dispatch has to be checked again later
      */
-    private void simulateJobExecution(JobSchedule jobSchedule, JobExecution jobExecution) {
-        try {
-            // Prepare any arguments for the JAR file (could be extended in the future)
-            List<String> arguments = new ArrayList<>();
+    private CompletableFuture<Boolean> handleRedelivery(JobSchedule jobSchedule, UUID attemptId) {
+        JobExecution jobExecution = jobExecutionService.getJobExecutionByAttemptId(attemptId);
+        if (jobExecution == null || jobExecution.getStatus() != JobExecution.ExecutionStatus.STARTED) {
+            log.info("Dispatch {} of job {} was already executed, skipping duplicate", attemptId,
+                    jobSchedule.getId());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        LocalDateTime staleBefore = LocalDateTime.now().minus(heartbeatTimeoutMs, ChronoUnit.MILLIS);
+        if (runningExecutionRegistry.isRunning(jobExecution.getId())
+                || !jobExecutionService.reclaimAbandonedExecution(jobExecution.getId(), staleBefore)) {
+            log.info("Dispatch {} of job {} is still being executed, checking again in {} ms", attemptId,
+                    jobSchedule.getId(), heartbeatIntervalMs);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        // The node either crashed before moving the job to RUNNING or while it ran
+        log.warn("Execution {} of job {} was abandoned by its node, running it again", jobExecution.getId(),
+                jobSchedule.getId());
+        return startJobExecution(jobSchedule, jobExecution, JobSchedule.JobStatus.DISPATCHED,
+                JobSchedule.JobStatus.RUNNING);
+    }
 
-            // Execute the JAR file
-            JarExecutorService.ExecutionResult result = jarExecutorService.executeJar(jobSchedule.getJarFile(), arguments);
+    /**
+     * Move the job to RUNNING and execute it, unless it was moved on meanwhile. The execution
+     * is recorded as CANCELLED if the job was cancelled, and dropped if another dispatch of
+     * the job moved it on.
+     */
+    private CompletableFuture<Boolean> startJobExecution(JobSchedule jobSchedule, JobExecution jobExecution,
+            JobSchedule.JobStatus... from) {
+        if (!jobScheduleService.transitionJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.RUNNING, from)) {
+            JobSchedule.JobStatus status = jobScheduleService.getJobStatus(jobSchedule.getId());
+            if (status == JobSchedule.JobStatus.CANCELLED) {
+                log.info("Job {} was cancelled before it started, skipping execution", jobSchedule.getId());
+                jobExecution.setEndTime(LocalDateTime.now());
+                jobExecution.setStatus(JobExecution.ExecutionStatus.CANCELLED);
+                jobExecution.setLogTail("Job was cancelled before it started");
+                jobExecutionService.saveJobExecution(jobExecution);
+            } else {
+                // Another dispatch of the job moved it on, this one is a duplicate that never ran
+                log.info("Job {} is {}, skipping duplicate dispatch", jobSchedule.getId(), status);
+                jobExecutionService.deleteJobExecution(jobExecution.getId());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Simulate job execution
+        return simulateJobExecution(jobSchedule, jobExecution).thenApply(result -> null);
+    }
 
+    /**
+     * Execute JAR file. Forked processes are supervised asynchronously and the result
+     * is recorded on a new virtual thread once the job has finished.
+     */
+    private CompletableFuture<Void> simulateJobExecution(JobSchedule jobSchedule, JobExecution jobExecution) {
+        // Prepare any arguments for the JAR file (could be extended in the future)
+        List<String> arguments = new ArrayList<>();
+
+        // Execute the JAR file
+        return jarExecutorService.executeJar(
+                JarExecutorService.ExecutionRequest.builder()
+                        .jarFile(jobSchedule.getJarFile())
+                        .arguments(arguments)
+                        .jobId(jobSchedule.getId())
+                        .resourceLimits(resourceLimits(jobSchedule))
+                        .executionId(jobExecution.getId())
+                        .timeoutSeconds(jobSchedule.getTimeoutSeconds())
+                        .build())
+                .whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        handleExecutionError(jobSchedule, jobExecution, error);
+                    } else {
+                        handleExecutionResult(jobSchedule, jobExecution, result);
+                    }
+                }, executionPipeline.executor())
+                .thenApply(result -> (Void) null);
+    }
+
+    /**
+     * Limits set on the job, falling back to those of its JAR file
+     */
+    private ResourceLimits resourceLimits(JobSchedule jobSchedule) {
+        JarFile jarFile = jobSchedule.getJarFile();
+        return new ResourceLimits(jobSchedule.getCpuLimit(), jobSchedule.getMemoryLimitMb(), jobSchedule.getPidsLimit())
+                .orElse(new ResourceLimits(jarFile.getCpuLimit(), jarFile.getMemoryLimitMb(), jarFile.getPidsLimit()));
+    }
+
+    /**
+     * Record the result of a finished execution
+     */
+    private void handleExecutionResult(JobSchedule jobSchedule, JobExecution jobExecution,
+            JarExecutorService.ExecutionResult result) {
+        try {
             LocalDateTime endTime = LocalDateTime.now();
             String executionTimeFormatted = result.getExecutionTimeFormatted();
 
@@ -142,54 +326,76 @@ public class KafkaConsumerService {
             Map<String, Object> metadata = new HashMap<>();
             metadata.put("executionTime", executionTimeFormatted);
             metadata.put("jarName", jobSchedule.getJarFile().getName());
+            if (result.getWorkerType() != null) {
+                metadata.put("workerType", result.getWorkerType().toString());
+            }
+            jobExecution.setWorkerType(result.getWorkerType());
+            recordLog(jobExecution, result.getStoredLog());
+            recordResourceUsage(jobExecution, result);
+
+            if (result.isCancelled()) {
+                // The job schedule is already CANCELLED, keep the output produced so far
+                jobExecution.setEndTime(endTime);
+                jobExecution.setStatus(JobExecution.ExecutionStatus.CANCELLED);
+                jobExecution.setErrorMessage(result.getMessage());
+                jobExecution.setExecutionTime(executionTimeFormatted);
+                jobExecutionService.saveJobExecution(jobExecution);
 
-            if (result.isSuccess()) {
+                // Send cancelled result
+                JobResultMessage resultMessage = resultMessage(jobExecution)
+                        .jobId(jobSchedule.getId())
+                        .status("cancelled")
+                        .timestamp(endTime)
+                        .error(result.getMessage())
+                        .executionTime(executionTimeFormatted)
+                        .metadata(metadata)
+                        .build();
+
+                kafkaProducerService.sendJobResultMessage(resultMessage);
+            } else if (result.isSuccess()) {
                 // Update job execution
                 jobExecution.setEndTime(endTime);
                 jobExecution.setStatus(JobExecution.ExecutionStatus.COMPLETED);
-                jobExecution.setLogs(result.getOutput());
                 jobExecution.setExecutionTime(executionTimeFormatted);
                 jobExecutionService.saveJobExecution(jobExecution);
 
-                // Update job schedule status
-                jobScheduleService.updateJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.COMPLETED);
+                // Recurring jobs go back to SCHEDULED with their next fire time, one-time jobs are done
+                if (jobSchedule.getRecurrenceType() != null &&
+                        jobSchedule.getRecurrenceType() != JobSchedule.RecurrenceType.ONE_TIME) {
+                    jobScheduleService.rescheduleRecurringJob(jobSchedule.getId());
+                } else {
+                    jobScheduleService.transitionJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.COMPLETED,
+                            JobSchedule.JobStatus.RUNNING);
+                }
 
                 // Send success result
-                JobResultMessage resultMessage = JobResultMessage.builder()
+                JobResultMessage resultMessage = resultMessage(jobExecution)
                         .jobId(jobSchedule.getId())
                         .status("success")
                         .timestamp(endTime)
-                        .logs(result.getOutput())
                         .executionTime(executionTimeFormatted)
                         .metadata(metadata)
                         .build();
 
                 kafkaProducerService.sendJobResultMessage(resultMessage);
-
-                // If job is recurring, schedule the next execution
-                if (jobSchedule.getRecurrenceType() != null &&
-                        jobSchedule.getRecurrenceType() != JobSchedule.RecurrenceType.ONE_TIME) {
-                    scheduleNextExecution(jobSchedule);
-                }
             } else {
                 // Update job execution
                 jobExecution.setEndTime(endTime);
                 jobExecution.setStatus(JobExecution.ExecutionStatus.FAILED);
-                jobExecution.setLogs(result.getOutput());
                 jobExecution.setErrorMessage(result.getMessage());
                 jobExecution.setExecutionTime(executionTimeFormatted);
                 jobExecutionService.saveJobExecution(jobExecution);
 
-                // Update job schedule status
-                jobScheduleService.updateJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.FAILED);
+                // Update job schedule status, unless it was cancelled meanwhile
+                jobScheduleService.transitionJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.FAILED,
+                        JobSchedule.JobStatus.RUNNING);
 
                 // Send failure result
-                JobResultMessage resultMessage = JobResultMessage.builder()
+                JobResultMessage resultMessage = resultMessage(jobExecution)
                         .jobId(jobSchedule.getId())
                         .status("failure")
                         .timestamp(endTime)
                         .error(result.getMessage())
-                        .logs(result.getOutput())
                         .executionTime(executionTimeFormatted)
                         .metadata(metadata)
                         .build();
@@ -197,183 +403,133 @@ public class KafkaConsumerService {
                 kafkaProducerService.sendJobResultMessage(resultMessage);
             }
         } catch (Exception e) {
+            handleExecutionError(jobSchedule, jobExecution, e);
+        }
+    }
+
+    /**
+     * Keep the end of the output with the execution, together with where the complete output is stored
+     */
+    private void recordLog(JobExecution jobExecution, StoredLog storedLog) {
+        if (storedLog == null) {
+            return;
+        }
+        jobExecution.setLogTail(storedLog.getTail());
+        jobExecution.setLogLocation(storedLog.getLocation());
+        jobExecution.setLogChunks(storedLog.getChunks());
+        jobExecution.setLogSizeBytes(storedLog.getSizeBytes());
+        jobExecution.setLogChecksum(storedLog.getChecksum());
+    }
+
+    /**
+     * Start a result message for the execution, carrying its stored output
+     */
+    private JobResultMessage.Builder resultMessage(JobExecution jobExecution) {
+        return JobResultMessage.builder()
+                .executionId(jobExecution.getId())
+                .logs(jobExecution.getLogTail())
+                .logLocation(jobExecution.getLogLocation())
+                .logChunks(jobExecution.getLogChunks())
+                .logSizeBytes(jobExecution.getLogSizeBytes())
+                .logChecksum(jobExecution.getLogChecksum());
+    }
+
+    /**
+     * Store the resources used by the execution as numbers, so heavy jobs can be queried,
+     * together with the OOM kills and CPU throttling of its cgroup
+     */
+    private void recordResourceUsage(JobExecution jobExecution, JarExecutorService.ExecutionResult result) {
+        jobExecution.setWallTimeMillis(Math.round(result.getExecutionTimeSeconds() * 1000));
+
+        ResourceUsage usage = result.getResourceUsage();
+        if (usage != null) {
+            jobExecution.setCpuUserMillis(usage.getCpuUserMillis());
+            jobExecution.setCpuSystemMillis(usage.getCpuSystemMillis());
+            jobExecution.setPeakRssBytes(usage.getPeakRssBytes());
+            jobExecution.setIoReadBytes(usage.getIoReadBytes());
+            jobExecution.setIoWriteBytes(usage.getIoWriteBytes());
+        }
+
+        CgroupManager.CgroupStats cgroupStats = result.getCgroupStats();
+        if (cgroupStats != null) {
+            jobExecution.setOomKilled(cgroupStats.getOomKills() > 0);
+            jobExecution.setCpuThrottledPeriods(cgroupStats.getThrottledPeriods());
+            jobExecution.setCpuThrottledMillis(cgroupStats.getThrottledMillis());
+        }
+    }
+
+    /**
+     * Mark an execution as failed after an unexpected error
+     */
+    private void handleExecutionError(JobSchedule jobSchedule, JobExecution jobExecution, Throwable e) {
+        try {
             log.error("Error simulating job execution: {}", e.getMessage(), e);
 
             // Update job execution
             jobExecution.setEndTime(LocalDateTime.now());
             jobExecution.setStatus(JobExecution.ExecutionStatus.FAILED);
-            jobExecution.setLogs(jobExecution.getLogs() + "\\nError: " + e.getMessage());
+            jobExecution.setLogTail(jobExecution.getLogTail() + "\nError: " + e.getMessage());
             jobExecution.setErrorMessage(e.getMessage());
             jobExecutionService.saveJobExecution(jobExecution);
 
-            // Update job schedule status
-            jobScheduleService.updateJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.FAILED);
+            // Update job schedule status, unless it was cancelled meanwhile
+            jobScheduleService.transitionJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.FAILED,
+                    JobSchedule.JobStatus.RUNNING);
 
             // Send failure result
-            JobResultMessage resultMessage = JobResultMessage.builder()
+            JobResultMessage resultMessage = resultMessage(jobExecution)
                     .jobId(jobSchedule.getId())
                     .status("failure")
                     .timestamp(LocalDateTime.now())
                     .error(e.getMessage())
-                    .logs(jobExecution.getLogs())
                     .build();
 
             kafkaProducerService.sendJobResultMessage(resultMessage);
+        } catch (Exception ex) {
+            log.error("Error recording failure of job {}: {}", jobSchedule.getId(), ex.getMessage(), ex);
         }
     }
 
     /**
-     * Schedule next execution for recurring jobs
-     */
-    private void scheduleNextExecution(JobSchedule completedJob) {
-        try {
-            LocalDateTime lastScheduledTime = completedJob.getScheduledTime();
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime nextExecutionTime = calculateNextExecutionTime(completedJob);
-
-            log.info("===== SCHEDULING NEXT RECURRING JOB =====");
-            log.info("Job ID: {}", completedJob.getId());
-            log.info("JAR file: {}", completedJob.getJarFile().getName());
-            log.info("Recurrence type: {}", completedJob.getRecurrenceType());
-            log.info("Previous scheduled time: {}", lastScheduledTime);
-            log.info("Current time: {}", now);
-            log.info("Next execution time: {}", nextExecutionTime);
-            log.info("Time difference: {} minutes", ChronoUnit.MINUTES.between(lastScheduledTime, nextExecutionTime));
-
-            // Validate that the next execution time is in the future
-            if (nextExecutionTime.isBefore(now)) {
-                log.error("Calculated next execution time is in the past! Adjusting to future time.");
-                // Add one hour to current time as a fallback
-                nextExecutionTime = now.plus(1, ChronoUnit.HOURS);
-                log.info("Adjusted next execution time: {}", nextExecutionTime);
-            }
-
-            // Create a new job schedule for the next execution
-            JobSchedule nextJob = JobSchedule.builder()
-                    .jarFile(completedJob.getJarFile())
-                    .executionType(JobSchedule.ExecutionType.SCHEDULED)
-                    .scheduledTime(nextExecutionTime)
-                    .recurrenceType(completedJob.getRecurrenceType())
-                    .status(JobSchedule.JobStatus.SCHEDULED)
-                    .build();
-
-            JobSchedule savedJob = jobScheduleService.createJobSchedule(nextJob);
-            log.info("Created new job schedule with ID: {}", savedJob.getId());
-            log.info("Next execution scheduled successfully");
-            log.info("=========================================");
-        } catch (Exception e) {
-            log.error("Error scheduling next execution: {}", e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Calculate next execution time based on recurrence type
-     */
-    private LocalDateTime calculateNextExecutionTime(JobSchedule job) {
-        LocalDateTime lastScheduledTime = job.getScheduledTime();
-        LocalDateTime now = LocalDateTime.now();
-
-        // Extract the original minute and second components to maintain the same time pattern
-        int originalMinute = lastScheduledTime.getMinute();
-        int originalSecond = lastScheduledTime.getSecond();
-        int originalNano = lastScheduledTime.getNano();
-
-        switch (job.getRecurrenceType()) {
-            case HOURLY:
-                // First try to calculate the next hour precisely from the original scheduled time
-                LocalDateTime nextHour = lastScheduledTime.plus(1, ChronoUnit.HOURS);
-
-                // If the calculated next hour is in the past (due to delays),
-                // calculate the next hour that maintains the same minute/second pattern
-                if (nextHour.isBefore(now)) {
-                    // Get the current time and add hours until we're in the future
-                    LocalDateTime baseTime = now.withMinute(originalMinute)
-                                               .withSecond(originalSecond)
-                                               .withNano(originalNano);
-
-                    // If the adjusted time is still in the past, add one hour
-                    if (baseTime.isBefore(now)) {
-                        baseTime = baseTime.plus(1, ChronoUnit.HOURS);
-                    }
-
-                    log.info("Adjusted hourly schedule from {} to {} to maintain exact hour intervals",
-                             nextHour, baseTime);
-                    return baseTime;
-                }
-
-                return nextHour;
-            case DAILY:
-                // Similar logic for daily recurrence
-                LocalDateTime nextDay = lastScheduledTime.plus(1, ChronoUnit.DAYS);
-                if (nextDay.isBefore(now)) {
-                    // Maintain the same hour, minute, second pattern
-                    LocalDateTime baseTime = now.withHour(lastScheduledTime.getHour())
-                                               .withMinute(originalMinute)
-                                               .withSecond(originalSecond)
-                                               .withNano(originalNano);
-
-                    // If the adjusted time is still in the past, add one day
-                    if (baseTime.isBefore(now)) {
-                        baseTime = baseTime.plus(1, ChronoUnit.DAYS);
-                    }
-
-                    return baseTime;
-                }
-                return nextDay;
-            case WEEKLY:
-                // Similar logic for weekly recurrence
-                LocalDateTime nextWeek = lastScheduledTime.plus(1, ChronoUnit.WEEKS);
-                if (nextWeek.isBefore(now)) {
-                    // Calculate how many weeks we need to add to get to the future
-                    long weeksToAdd = ChronoUnit.WEEKS.between(lastScheduledTime, now) + 1;
-                    return lastScheduledTime.plus(weeksToAdd, ChronoUnit.WEEKS);
-                }
-                return nextWeek;
-            default:
-                return lastScheduledTime;
-        }
-    }
-
-    /**
-     * Update job execution with result
+     * Update job execution with result. The job schedule was already moved on by the executor,
+     * a late or redelivered result must not touch it: by now it may be the next run of a
+     * recurring job.
      */
     private void updateJobExecutionWithResult(JobResultMessage message) {
         try {
-            // Find the job schedule
-            JobSchedule jobSchedule = jobScheduleService.getJobScheduleById(message.getJobId());
-
-            if (jobSchedule == null) {
-                log.error("Job schedule not found: {}", message.getJobId());
+            if (message.getExecutionId() == null) {
+                // The execution failed before its record was created
+                log.debug("Job result for job {} has no execution to update", message.getJobId());
                 return;
             }
 
-            // Find the latest job execution
-            JobExecution jobExecution = jobExecutionService.getLatestJobExecution(jobSchedule.getId());
+            // Find the execution the result belongs to, together with its job schedule
+            JobExecution jobExecution = jobExecutionService.getJobExecution(message.getExecutionId());
 
             if (jobExecution == null) {
-                log.error("Job execution not found for job: {}", message.getJobId());
+                log.error("Job execution not found: {}", message.getExecutionId());
                 return;
             }
-
             // Update job execution
             jobExecution.setEndTime(message.getTimestamp());
             jobExecution.setStatus("success".equals(message.getStatus())
                     ? JobExecution.ExecutionStatus.COMPLETED
-                    : JobExecution.ExecutionStatus.FAILED);
-            jobExecution.setLogs(message.getLogs());
+                    : "cancelled".equals(message.getStatus())
+                            ? JobExecution.ExecutionStatus.CANCELLED
+                            : JobExecution.ExecutionStatus.FAILED);
+            jobExecution.setLogTail(message.getLogs());
+            jobExecution.setLogLocation(message.getLogLocation());
+            jobExecution.setLogChunks(message.getLogChunks());
+            jobExecution.setLogSizeBytes(message.getLogSizeBytes());
+            jobExecution.setLogChecksum(message.getLogChecksum());
             jobExecution.setErrorMessage(message.getError());
             jobExecution.setExecutionTime(message.getExecutionTime());
+
+            // The output is kept in the columns above, the stored response does not repeat it
+            message.setLogs(null);
             jobExecution.setResponse(objectMapper.writeValueAsString(message));
 
             jobExecutionService.saveJobExecution(jobExecution);
-
-            // Update job schedule status
-            JobSchedule.JobStatus newStatus = "success".equals(message.getStatus())
-                    ? JobSchedule.JobStatus.COMPLETED
-                    : JobSchedule.JobStatus.FAILED;
-
-            jobScheduleService.updateJobStatus(jobSchedule.getId(), newStatus);
-
         } catch (Exception e) {
             log.error("Error updating job execution with result: {}", e.getMessage(), e);
         }
@@ -9,7 +9,6 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
 import com.lemnisk.jobscheduler.dto.kafka.JobResultMessage;
 
 @Service
@@ -19,9 +18,6 @@ public class KafkaProducerService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    @Value("${kafka.topic.job-execution}")
-    private String jobExecutionTopic;
-
     @Value("${kafka.topic.job-result}")
     private String jobResultTopic;
 
@@ -29,22 +25,6 @@ public class KafkaProducerService {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    /**
-     * Send job execution message to Kafka
-     */
-    public void sendJobExecutionMessage(JobExecutionMessage message) {
-        log.info("Sending job execution message to Kafka: {}", message);
-        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(jobExecutionTopic, message.getJobId().toString(), message);
-
-        future.whenComplete((result, ex) -> {
-            if (ex == null) {
-                log.info("Job execution message sent successfully: {}", message.getJobId());
-            } else {
-                log.error("Failed to send job execution message: {}", ex.getMessage(), ex);
-            }
-        });
-    }
-
     /**
      * Send job result message to Kafka
      */
@@ -60,4 +40,11 @@ public class KafkaProducerService {
             }
         });
     }
+
+    /**
+     * Send a message relayed from the outbox, the caller handles the result
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object payload) {
+        return kafkaTemplate.send(topic, key, payload);
+    }
 }
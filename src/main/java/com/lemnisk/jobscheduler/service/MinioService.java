@@ -1,5 +1,6 @@
 package com.lemnisk.jobscheduler.service;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,7 @@ import io.minio.GetObjectArgs;
 import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
 import io.minio.Result;
 import io.minio.StatObjectArgs;
 import io.minio.StatObjectResponse;
@@ -203,4 +205,37 @@ public class MinioService {
             return false;
         }
     }
+
+    /**
+     * Upload a compressed chunk of a job's output
+     */
+    public void uploadLogChunk(String objectPath, byte[] data) {
+        try {
+            log.debug("Uploading job output chunk {} ({} bytes) to bucket {}", objectPath, data.length, bucketName);
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectPath)
+                    .stream(new ByteArrayInputStream(data), data.length, -1)
+                    .contentType("application/gzip")
+                    .build());
+        } catch (Exception e) {
+            log.error("Error uploading job output {}: {}", objectPath, e.getMessage(), e);
+            throw new RuntimeException("Error uploading job output: " + objectPath, e);
+        }
+    }
+
+    /**
+     * Get a stored job output object as input stream
+     */
+    public InputStream getLog(String objectPath) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectPath)
+                    .build());
+        } catch (Exception e) {
+            log.error("Error getting job output {}: {}", objectPath, e.getMessage(), e);
+            throw new RuntimeException("Error getting job output: " + objectPath, e);
+        }
+    }
 }
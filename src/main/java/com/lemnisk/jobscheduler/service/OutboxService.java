@@ -0,0 +1,284 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemnisk.jobscheduler.dto.kafka.JobControlMessage;
+import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
+import com.lemnisk.jobscheduler.model.OutboxMessage;
+import com.lemnisk.jobscheduler.repository.OutboxMessageRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Transactional outbox for messages that must be sent if, and only if, the transaction
+ * producing them commits.
+ *
+ * Messages are written to the outbox table in the caller's transaction. A relay thread
+ * sends the oldest rows in batches, waits for Kafka to acknowledge them and deletes them
+ * in one transaction, so a crash at any point leads to a resend rather than a lost
+ * message. Only one node relays at a time, which keeps the messages of a job in order:
+ * once a message fails, later messages with the same key wait for the next batch. A
+ * message that still fails after the maximum number of attempts is parked and no
+ * longer sent.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final long RELAY_LOCK_ID = 0x6f7574626f78L;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${kafka.topic.job-execution}")
+    private String jobExecutionTopic;
+
+    @Value("${kafka.topic.job-control}")
+    private String jobControlTopic;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    // Fallback poll for messages committed by other nodes, local commits wake the relay
+    @Value("${outbox.relay.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${outbox.relay.send-timeout-ms:30000}")
+    private long sendTimeoutMillis;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private Thread relay;
+    private volatile boolean running;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder parked = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    public OutboxService(OutboxMessageRepository outboxMessageRepository, KafkaProducerService kafkaProducerService,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        relay = new Thread(this::runRelay, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+
+        log.info("Outbox relay started: batch size {}, poll interval {}ms", batchSize, pollIntervalMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
+
+    /**
+     * Queue a job execution message, it is sent once the current transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueJobExecutionMessage(JobExecutionMessage message) {
+        enqueue(jobExecutionTopic, message.getJobId().toString(), message);
+        log.info("Queued job execution message for job: {}", message.getJobId());
+    }
+
+    /**
+     * Queue a job control message, it is sent once the current transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueJobControlMessage(JobControlMessage message) {
+        enqueue(jobControlTopic, message.getJobId().toString(), message);
+        log.info("Queued {} control message for job: {}", message.getAction(), message.getJobId());
+    }
+
+    /**
+     * Get outbox statistics
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxMessageRepository.countByParkedAtIsNull());
+        stats.put("parkedMessages", outboxMessageRepository.countByParkedAtIsNotNull());
+        stats.put("relayed", relayed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("parked", parked.sum());
+        stats.put("batches", batchCount);
+        stats.put("averageBatchSize", batchCount > 0 ? relayed.sum() / batchCount : 0);
+        stats.put("maxBatchSize", maxBatchSize.get());
+        return stats;
+    }
+
+    private void enqueue(String topic, String key, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox message: " + e.getMessage(), e);
+        }
+
+        outboxMessageRepository.save(OutboxMessage.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payloadType(payload.getClass().getName())
+                .payload(json)
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp.release();
+            }
+        });
+    }
+
+    private void runRelay() {
+        while (running) {
+            try {
+                Integer sent = transactionTemplate.execute(status -> relayBatch());
+                if (sent == null || sent < batchSize) {
+                    // Drained or failing, wait for the next commit or poll
+                    wakeUp.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error relaying outbox messages: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the oldest batch of messages and delete the ones Kafka acknowledged
+     *
+     * @return the number of messages sent
+     */
+    int relayBatch() {
+        if (!outboxMessageRepository.tryRelayLock(RELAY_LOCK_ID)) {
+            return 0;
+        }
+
+        List<OutboxMessage> batch = outboxMessageRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Everything is handed to the producer before waiting, so it can batch the sends;
+        // its per-partition ordering keeps the messages of a job in order. A message that
+        // cannot even be handed over holds back the later messages of its key.
+        Set<String> failedKeys = new HashSet<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            if (failedKeys.contains(message.getMessageKey())) {
+                sends.add(null);
+                continue;
+            }
+            try {
+                Object payload = objectMapper.readValue(message.getPayload(), Class.forName(message.getPayloadType()));
+                sends.add(kafkaProducerService.send(message.getTopic(), message.getMessageKey(), payload));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+                failedKeys.add(message.getMessageKey());
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + sendTimeoutMillis;
+        List<Long> sent = new ArrayList<>(batch.size());
+        failedKeys.clear();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            try {
+                if (send != null) {
+                    send.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+                }
+                // Sent after an earlier message of its key failed, so it is sent again after that one
+                if (send != null && !failedKeys.contains(message.getMessageKey())) {
+                    sent.add(message.getId());
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                failedKeys.add(message.getMessageKey());
+                recordFailure(message, e instanceof ExecutionException ? e.getCause().toString() : "Send timed out");
+            } catch (InterruptedException e) {
+                // Unsent rows stay in the outbox and are sent again after a restart
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxMessageRepository.deleteAllByIdInBatch(sent);
+            relayed.add(sent.size());
+            batches.increment();
+            maxBatchSize.accumulateAndGet(sent.size(), Math::max);
+        }
+        log.debug("Relayed {} of {} outbox messages", sent.size(), batch.size());
+        return sent.size();
+    }
+
+    private void recordFailure(OutboxMessage message, String error) {
+        failed.increment();
+        int attempt = message.getAttempts() + 1;
+        if (attempt < maxAttempts) {
+            log.warn("Failed to send outbox message {} to {} (attempt {}): {}", message.getId(),
+                    message.getTopic(), attempt, error);
+            outboxMessageRepository.recordFailedAttempt(message.getId(), error);
+            return;
+        }
+
+        log.error("Parking outbox message {} to {} with key {} after {} failed attempts: {}", message.getId(),
+                message.getTopic(), message.getMessageKey(), attempt, error);
+        outboxMessageRepository.park(message.getId(), error, LocalDateTime.now());
+        parked.increment();
+    }
+}
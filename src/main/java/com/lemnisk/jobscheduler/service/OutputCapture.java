@@ -0,0 +1,243 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded capture of a job's output.
+ *
+ * Keeps the first and the last bytes of the output in memory and streams everything
+ * to a spill file, so memory use does not depend on how much a job prints. The summary
+ * is the complete output when it fits into the head and tail buffers, otherwise the
+ * head and tail with a truncation marker in between. Writes after the capture was
+ * closed are dropped, e.g. those of an in-JVM job thread that outlived its execution.
+ */
+public class OutputCapture extends OutputStream {
+
+    private static final Logger log = LoggerFactory.getLogger(OutputCapture.class);
+
+    private final byte[] head;
+    private int headLength;
+
+    // Ring buffer holding the most recent bytes written after the head was full
+    private final byte[] tail;
+    private int tailPosition;
+    private long tailBytes;
+
+    private final Path spillFile;
+    private OutputStream spill;
+    private boolean spillComplete;
+    private boolean closed;
+    private long totalBytes;
+
+    public OutputCapture(int headSize, int tailSize, Path spillFile) {
+        this.head = new byte[headSize];
+        this.tail = new byte[tailSize];
+        this.spillFile = spillFile;
+
+        if (spillFile != null) {
+            try {
+                this.spill = new BufferedOutputStream(Files.newOutputStream(spillFile), 64 * 1024);
+            } catch (IOException e) {
+                log.warn("Could not create spill file {}, only the output summary is kept: {}", spillFile, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (closed) {
+            return;
+        }
+        totalBytes += len;
+        writeSpill(b, off, len);
+
+        int toHead = Math.min(len, head.length - headLength);
+        System.arraycopy(b, off, head, headLength, toHead);
+        headLength += toHead;
+        off += toHead;
+        len -= toHead;
+
+        tailBytes += len;
+        if (len == 0 || tail.length == 0) {
+            return;
+        }
+
+        if (len >= tail.length) {
+            // Only the last tail.length bytes survive
+            System.arraycopy(b, off + len - tail.length, tail, 0, tail.length);
+            tailPosition = 0;
+            return;
+        }
+
+        int firstPart = Math.min(len, tail.length - tailPosition);
+        System.arraycopy(b, off, tail, tailPosition, firstPart);
+        System.arraycopy(b, off + firstPart, tail, 0, len - firstPart);
+        tailPosition = (tailPosition + len) % tail.length;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (spill != null) {
+            try {
+                spill.flush();
+            } catch (IOException e) {
+                abandonSpill(e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (spill != null) {
+            try {
+                spill.close();
+                spillComplete = true;
+            } catch (IOException e) {
+                abandonSpill(e);
+            }
+            spill = null;
+        }
+    }
+
+    /**
+     * Hand the spill file over to a child process that writes its output directly into
+     * it. Call {@link #readSpillFile()} once the process has exited.
+     */
+    public synchronized Path detachSpillFile() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                log.warn("Error closing spill file {}: {}", spillFile, e.getMessage());
+            }
+            spill = null;
+        }
+        return spillFile;
+    }
+
+    /**
+     * Fill the head and tail buffers from a spill file written by a child process,
+     * reading only the head and the tail of the file
+     */
+    public synchronized void readSpillFile() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(spillFile.toFile(), "r")) {
+            long length = file.length();
+
+            headLength = (int) Math.min(length, head.length);
+            file.readFully(head, 0, headLength);
+
+            long remaining = length - headLength;
+            int tailLength = (int) Math.min(remaining, tail.length);
+            file.seek(length - tailLength);
+            file.readFully(tail, 0, tailLength);
+
+            tailBytes = remaining;
+            tailPosition = tail.length > 0 ? tailLength % tail.length : 0;
+            totalBytes = length;
+            spillComplete = true;
+        }
+    }
+
+    /**
+     * Whether parts of the output are missing from the summary
+     */
+    public synchronized boolean isTruncated() {
+        return tailBytes > tail.length;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Get the spill file holding the complete output once the capture is closed,
+     * or null if it could not be written
+     */
+    public synchronized Path getSpillFile() {
+        return spillComplete ? spillFile : null;
+    }
+
+    /**
+     * Get the output, or its head and tail if it was too long to keep
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder(new String(head, 0, headLength, StandardCharsets.UTF_8));
+
+        if (isTruncated()) {
+            summary.append("\n... [").append(totalBytes - headLength - tail.length)
+                    .append(" bytes truncated] ...\n");
+            // Unroll the ring before decoding so characters spanning the wrap point stay intact
+            byte[] ordered = new byte[tail.length];
+            System.arraycopy(tail, tailPosition, ordered, 0, tail.length - tailPosition);
+            System.arraycopy(tail, 0, ordered, tail.length - tailPosition, tailPosition);
+            summary.append(new String(ordered, StandardCharsets.UTF_8));
+        } else {
+            summary.append(new String(tail, 0, (int) tailBytes, StandardCharsets.UTF_8));
+        }
+
+        return summary.toString();
+    }
+
+    /**
+     * Get the last bytes of the output. Truncated outputs have at most the size of the tail buffer.
+     */
+    public synchronized String getTail(int maxBytes) {
+        // Unroll the ring, the oldest byte it holds comes first
+        int stored = (int) Math.min(tailBytes, tail.length);
+        int oldest = stored == tail.length ? tailPosition : 0;
+        byte[] ordered = new byte[stored];
+        System.arraycopy(tail, oldest, ordered, 0, stored - oldest);
+        System.arraycopy(tail, 0, ordered, stored - oldest, oldest);
+
+        // The end of the head directly precedes the tail unless bytes in between were dropped
+        int fromTail = Math.min(maxBytes, stored);
+        int fromHead = isTruncated() ? 0 : Math.min(maxBytes - fromTail, headLength);
+        byte[] last = new byte[fromHead + fromTail];
+        System.arraycopy(head, headLength - fromHead, last, 0, fromHead);
+        System.arraycopy(ordered, stored - fromTail, last, fromHead, fromTail);
+
+        // Skip continuation bytes of a character cut off at the start
+        int offset = 0;
+        while (offset < last.length && (last[offset] & 0xC0) == 0x80) {
+            offset++;
+        }
+        return new String(last, offset, last.length - offset, StandardCharsets.UTF_8);
+    }
+
+    private void writeSpill(byte[] b, int off, int len) {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.write(b, off, len);
+        } catch (IOException e) {
+            abandonSpill(e);
+        }
+    }
+
+    private void abandonSpill(IOException e) {
+        log.warn("Error writing spill file {}, only the output summary is kept: {}", spillFile, e.getMessage());
+        try {
+            spill.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException ignored) {
+            // Nothing left to clean up
+        }
+        spill = null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reads the CPU time, memory and I/O of job processes from {@code /proc}.
+ *
+ * A process's entry disappears as soon as it has exited, so forked processes are sampled
+ * periodically while they run and the result holds the last sample. Child processes of
+ * the job are included. On systems without {@code /proc} all values are null.
+ */
+@Service
+public class ProcessResourceSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessResourceSampler.class);
+
+    private static final Path PROC = Paths.get("/proc");
+
+    // Kernel clock ticks per second (USER_HZ), 100 on all common Linux platforms
+    @Value("${executor.resources.clock-ticks:100}")
+    private long clockTicks;
+
+    @Value("${executor.resources.sample-interval-ms:500}")
+    private long sampleIntervalMillis;
+
+    private final boolean supported = Files.isReadable(PROC.resolve("self").resolve("stat"));
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * Sample a process and its descendants now
+     *
+     * @return the usage so far, or null if the process cannot be read
+     */
+    public ResourceUsage sample(ProcessHandle process) {
+        if (!supported) {
+            return null;
+        }
+
+        ResourceUsage usage = readProcess(process.pid(), true);
+        if (usage == null) {
+            return null;
+        }
+
+        // Children still running; the CPU time of children that have been waited for is in the parent's stat
+        List<ProcessHandle> descendants = process.descendants().toList();
+        long childRss = 0;
+        for (ProcessHandle descendant : descendants) {
+            ResourceUsage child = readProcess(descendant.pid(), false);
+            if (child != null) {
+                usage = new ResourceUsage(
+                        sum(usage.getCpuUserMillis(), child.getCpuUserMillis()),
+                        sum(usage.getCpuSystemMillis(), child.getCpuSystemMillis()),
+                        usage.getPeakRssBytes(),
+                        sum(usage.getIoReadBytes(), child.getIoReadBytes()),
+                        sum(usage.getIoWriteBytes(), child.getIoWriteBytes()));
+                childRss += child.getPeakRssBytes() != null ? child.getPeakRssBytes() : 0;
+            }
+        }
+
+        if (childRss > 0 && usage.getPeakRssBytes() != null) {
+            usage = new ResourceUsage(usage.getCpuUserMillis(), usage.getCpuSystemMillis(),
+                    usage.getPeakRssBytes() + childRss, usage.getIoReadBytes(), usage.getIoWriteBytes());
+        }
+        return usage;
+    }
+
+    /**
+     * Sample a forked process until it exits. Call {@link Tracker#stop()} once it has.
+     */
+    public Tracker track(Process process) {
+        Tracker tracker = new Tracker(process.toHandle());
+        if (supported) {
+            tracker.sampleNow();
+            tracker.schedule = sampler.scheduleAtFixedRate(tracker::sampleNow, sampleIntervalMillis,
+                    sampleIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return tracker;
+    }
+
+    /**
+     * Read one process. The peak RSS is the high-water mark for the process itself and
+     * the current RSS for its children, which are summed.
+     */
+    private ResourceUsage readProcess(long pid, boolean root) {
+        Path dir = PROC.resolve(Long.toString(pid));
+        try {
+            // The command name may contain spaces and parentheses, the fields follow the last ')'
+            String stat = Files.readString(dir.resolve("stat"));
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            long userTicks = Long.parseLong(fields[11]) + Long.parseLong(fields[13]);
+            long systemTicks = Long.parseLong(fields[12]) + Long.parseLong(fields[14]);
+
+            Long rss = null;
+            for (String line : Files.readAllLines(dir.resolve("status"))) {
+                if (line.startsWith(root ? "VmHWM:" : "VmRSS:")) {
+                    rss = parseKilobytes(line);
+                }
+            }
+
+            Long readBytes = null;
+            Long writeBytes = null;
+            try {
+                for (String line : Files.readAllLines(dir.resolve("io"))) {
+                    if (line.startsWith("read_bytes:")) {
+                        readBytes = Long.parseLong(line.substring("read_bytes:".length()).trim());
+                    } else if (line.startsWith("write_bytes:")) {
+                        writeBytes = Long.parseLong(line.substring("write_bytes:".length()).trim());
+                    }
+                }
+            } catch (IOException e) {
+                // I/O accounting is not readable in some containers
+            }
+
+            return new ResourceUsage(userTicks * 1000 / clockTicks, systemTicks * 1000 / clockTicks, rss,
+                    readBytes, writeBytes);
+        } catch (IOException | RuntimeException e) {
+            // Process exited between listing and reading
+            log.trace("Could not read /proc entry of process {}: {}", pid, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long parseKilobytes(String line) {
+        String value = line.substring(line.indexOf(':') + 1).trim();
+        return Long.parseLong(value.substring(0, value.indexOf(' '))) * 1024;
+    }
+
+    private static Long sum(Long a, Long b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : a + b;
+    }
+
+    /**
+     * Periodic sampling of one forked process
+     */
+    public class Tracker {
+        private final ProcessHandle process;
+        private volatile ScheduledFuture<?> schedule;
+        private ResourceUsage usage;
+
+        private Tracker(ProcessHandle process) {
+            this.process = process;
+        }
+
+        private void sampleNow() {
+            ResourceUsage sample = sample(process);
+            if (sample != null) {
+                synchronized (this) {
+                    usage = sample.max(usage);
+                }
+            }
+        }
+
+        /**
+         * Stop sampling
+         *
+         * @return the last usage seen, or null if the process was never sampled
+         */
+        public synchronized ResourceUsage stop() {
+            if (schedule != null) {
+                schedule.cancel(false);
+            }
+            return usage;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Watches forked job processes without dedicating a thread to each of them.
+ *
+ * Exits are observed through {@link Process#onExit()} and timeouts are armed on one
+ * shared timer. A process that runs past its timeout is asked to terminate and is
+ * killed forcibly, together with its child processes, if it is still alive after the
+ * grace period.
+ */
+@Service
+public class ProcessSupervisor {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessSupervisor.class);
+
+    @Value("${executor.supervisor.threads:4}")
+    private int completionThreads;
+
+    @Value("${executor.kill-grace-seconds:10}")
+    private long killGraceSeconds;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "process-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Runs the post-exit work (reading output, uploads) off the JDK's process reaper thread
+    private ExecutorService completionExecutor;
+
+    private final AtomicInteger supervised = new AtomicInteger();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder forciblyKilled = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        completionExecutor = Executors.newFixedThreadPool(completionThreads, r -> {
+            Thread thread = new Thread(r, "process-supervisor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        completionExecutor.shutdown();
+    }
+
+    /**
+     * Supervise a started process
+     *
+     * @return a future completed on the supervisor's completion threads once the process has exited
+     */
+    public CompletableFuture<ProcessExit> supervise(Process process, long timeoutSeconds) {
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean expired = new AtomicBoolean();
+        supervised.incrementAndGet();
+
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            expired.set(true);
+            terminate(process);
+        }, timeoutSeconds, TimeUnit.SECONDS);
+
+        return process.onExit().thenApplyAsync(exited -> {
+            timeout.cancel(false);
+            supervised.decrementAndGet();
+            return new ProcessExit(exited.exitValue(), expired.get(), System.currentTimeMillis() - startTime);
+        }, completionExecutor);
+    }
+
+    /**
+     * Kill a supervised process and its child processes right away, e.g. when its
+     * execution is cancelled. The future returned by {@link #supervise} completes once
+     * the process has exited.
+     */
+    public void kill(Process process) {
+        if (!process.isAlive()) {
+            return;
+        }
+
+        cancelled.increment();
+        log.info("Killing process {}", process.pid());
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Get supervisor statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("supervisedProcesses", supervised.get());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("forciblyKilled", forciblyKilled.sum());
+        stats.put("cancelled", cancelled.sum());
+        return stats;
+    }
+
+    private void terminate(Process process) {
+        if (!process.isAlive()) {
+            return;
+        }
+
+        timedOut.increment();
+        log.warn("Process {} timed out, terminating it", process.pid());
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+
+        timer.schedule(() -> {
+            if (process.isAlive()) {
+                forciblyKilled.increment();
+                log.warn("Process {} still running {}s after termination request, killing it", process.pid(),
+                        killGraceSeconds);
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        }, killGraceSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Exit status of a supervised process
+     */
+    public static class ProcessExit {
+        private final int exitCode;
+        private final boolean timedOut;
+        private final long elapsedMillis;
+
+        public ProcessExit(int exitCode, boolean timedOut, long elapsedMillis) {
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
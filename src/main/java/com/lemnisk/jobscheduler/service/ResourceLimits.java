@@ -0,0 +1,52 @@
+package com.lemnisk.jobscheduler.service;
+
+/**
+ * cgroup limits for one execution. A null value leaves that resource unlimited.
+ */
+public class ResourceLimits {
+
+    public static final ResourceLimits NONE = new ResourceLimits(null, null, null);
+
+    private final Double cpuCores;
+    private final Long memoryMb;
+    private final Long pids;
+
+    public ResourceLimits(Double cpuCores, Long memoryMb, Long pids) {
+        this.cpuCores = cpuCores;
+        this.memoryMb = memoryMb;
+        this.pids = pids;
+    }
+
+    public Double getCpuCores() {
+        return cpuCores;
+    }
+
+    public Long getMemoryMb() {
+        return memoryMb;
+    }
+
+    public Long getPids() {
+        return pids;
+    }
+
+    public boolean isEmpty() {
+        return cpuCores == null && memoryMb == null && pids == null;
+    }
+
+    /**
+     * Fill the limits not set here from a lower-priority source
+     */
+    public ResourceLimits orElse(ResourceLimits fallback) {
+        return new ResourceLimits(
+                cpuCores != null ? cpuCores : fallback.cpuCores,
+                memoryMb != null ? memoryMb : fallback.memoryMb,
+                pids != null ? pids : fallback.pids);
+    }
+
+    @Override
+    public String toString() {
+        return "cpu=" + (cpuCores != null ? cpuCores : "max")
+                + ", memory=" + (memoryMb != null ? memoryMb + "MB" : "max")
+                + ", pids=" + (pids != null ? pids : "max");
+    }
+}
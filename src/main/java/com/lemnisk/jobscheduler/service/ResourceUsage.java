@@ -0,0 +1,88 @@
+package com.lemnisk.jobscheduler.service;
+
+/**
+ * Resources used by one execution. Values that could not be measured for the way the
+ * job was run are null.
+ */
+public class ResourceUsage {
+
+    private final Long cpuUserMillis;
+    private final Long cpuSystemMillis;
+    private final Long peakRssBytes;
+    private final Long ioReadBytes;
+    private final Long ioWriteBytes;
+
+    public ResourceUsage(Long cpuUserMillis, Long cpuSystemMillis, Long peakRssBytes, Long ioReadBytes,
+            Long ioWriteBytes) {
+        this.cpuUserMillis = cpuUserMillis;
+        this.cpuSystemMillis = cpuSystemMillis;
+        this.peakRssBytes = peakRssBytes;
+        this.ioReadBytes = ioReadBytes;
+        this.ioWriteBytes = ioWriteBytes;
+    }
+
+    public Long getCpuUserMillis() {
+        return cpuUserMillis;
+    }
+
+    public Long getCpuSystemMillis() {
+        return cpuSystemMillis;
+    }
+
+    public Long getPeakRssBytes() {
+        return peakRssBytes;
+    }
+
+    public Long getIoReadBytes() {
+        return ioReadBytes;
+    }
+
+    public Long getIoWriteBytes() {
+        return ioWriteBytes;
+    }
+
+    /**
+     * Usage between an earlier sample of the same process and this one, for processes
+     * that run more than one execution. The peak RSS is this sample's.
+     */
+    public ResourceUsage since(ResourceUsage earlier) {
+        if (earlier == null) {
+            return this;
+        }
+        return new ResourceUsage(
+                difference(cpuUserMillis, earlier.cpuUserMillis),
+                difference(cpuSystemMillis, earlier.cpuSystemMillis),
+                peakRssBytes,
+                difference(ioReadBytes, earlier.ioReadBytes),
+                difference(ioWriteBytes, earlier.ioWriteBytes));
+    }
+
+    /**
+     * Field-wise maximum, for merging samples of counters that only grow
+     */
+    public ResourceUsage max(ResourceUsage other) {
+        if (other == null) {
+            return this;
+        }
+        return new ResourceUsage(
+                max(cpuUserMillis, other.cpuUserMillis),
+                max(cpuSystemMillis, other.cpuSystemMillis),
+                max(peakRssBytes, other.peakRssBytes),
+                max(ioReadBytes, other.ioReadBytes),
+                max(ioWriteBytes, other.ioWriteBytes));
+    }
+
+    private static Long difference(Long later, Long earlier) {
+        if (later == null || earlier == null) {
+            return null;
+        }
+        return Math.max(0, later - earlier);
+    }
+
+    private static Long max(Long a, Long b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : Math.max(a, b);
+    }
+}
@@ -0,0 +1,138 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Executions running on this node, so a cancel request can stop the process, worker or
+ * thread that runs the job. Their heartbeats are refreshed periodically, which tells a
+ * redelivered dispatch whether its execution is still running somewhere.
+ */
+@Service
+public class RunningExecutionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RunningExecutionRegistry.class);
+
+    private final JobExecutionService jobExecutionService;
+
+    private final Map<UUID, RunningExecution> executions = new ConcurrentHashMap<>();
+
+    private final LongAdder cancelled = new LongAdder();
+
+    public RunningExecutionRegistry(JobExecutionService jobExecutionService) {
+        this.jobExecutionService = jobExecutionService;
+    }
+
+    /**
+     * Register an execution that is about to start, unregister it once it has finished
+     */
+    public RunningExecution register(UUID executionId, UUID jobId) {
+        RunningExecution execution = new RunningExecution(
+                executionId != null ? executionId : UUID.randomUUID(), jobId);
+        executions.put(execution.executionId, execution);
+        return execution;
+    }
+
+    public void unregister(RunningExecution execution) {
+        executions.remove(execution.executionId, execution);
+    }
+
+    public boolean isRunning(UUID executionId) {
+        return executions.containsKey(executionId);
+    }
+
+    /**
+     * Refresh the heartbeat of every execution running on this node
+     */
+    @Scheduled(fixedDelayString = "${executor.heartbeat.interval-ms:10000}")
+    public void heartbeat() {
+        List<UUID> executionIds = List.copyOf(executions.keySet());
+        if (executionIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            jobExecutionService.recordHeartbeats(executionIds);
+        } catch (Exception e) {
+            log.warn("Error refreshing heartbeats of {} executions: {}", executionIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Cancel the executions of a job running on this node
+     *
+     * @return the number of executions cancelled
+     */
+    public int cancelJob(UUID jobId) {
+        int count = 0;
+        for (RunningExecution execution : executions.values()) {
+            if (jobId.equals(execution.jobId) && execution.cancel()) {
+                log.info("Cancelled execution {} of job {}", execution.executionId, jobId);
+                cancelled.increment();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get registry statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", executions.size());
+        stats.put("cancelled", cancelled.sum());
+        return stats;
+    }
+
+    /**
+     * Handle on a running execution. The executor sets the action that stops whatever
+     * currently runs the job and clears it once the job no longer runs there.
+     */
+    public static class RunningExecution {
+        private final UUID executionId;
+        private final UUID jobId;
+        private Runnable cancelAction;
+        private boolean cancelled;
+
+        private RunningExecution(UUID executionId, UUID jobId) {
+            this.executionId = executionId;
+            this.jobId = jobId;
+        }
+
+        /**
+         * Set the action that stops the job, it runs right away if the execution has
+         * already been cancelled. Pass null once the job has stopped.
+         */
+        public synchronized void onCancel(Runnable action) {
+            cancelAction = action;
+            if (cancelled && action != null) {
+                action.run();
+            }
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (cancelAction != null) {
+                cancelAction.run();
+            }
+            return true;
+        }
+    }
+}
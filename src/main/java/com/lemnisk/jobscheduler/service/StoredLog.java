@@ -0,0 +1,51 @@
+package com.lemnisk.jobscheduler.service;
+
+/**
+ * Where and how the complete output of an execution was stored. Outputs that fit into
+ * the tail are not uploaded, their location is null and they have no chunks.
+ */
+public class StoredLog {
+
+    private final String location;
+    private final int chunks;
+    private final long sizeBytes;
+    private final String checksum;
+    private final String tail;
+
+    public StoredLog(String location, int chunks, long sizeBytes, String checksum, String tail) {
+        this.location = location;
+        this.chunks = chunks;
+        this.sizeBytes = sizeBytes;
+        this.checksum = checksum;
+        this.tail = tail;
+    }
+
+    /**
+     * Object prefix of the compressed chunks, null if the output was not uploaded
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * SHA-256 of the complete output, null if it could not be read back
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Last bytes of the output, kept with the execution
+     */
+    public String getTail() {
+        return tail;
+    }
+}
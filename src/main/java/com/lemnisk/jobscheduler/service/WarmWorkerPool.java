@@ -0,0 +1,394 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.lemnisk.jobscheduler.model.JobExecution;
+import com.lemnisk.jobscheduler.worker.JarWorkerMain;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pool of pre-started worker JVMs that run forked jobs without paying JVM startup per execution.
+ *
+ * Workers run {@link JarWorkerMain} and receive run requests over their stdin. A worker
+ * is retired after a configurable number of runs, after any failed run, after a run that
+ * left threads or JVM wide state behind, and whenever its process dies, a replacement is
+ * started in the background. Executions that find
+ * no idle worker fall back to a cold {@code java -jar}.
+ */
+@Service
+public class WarmWorkerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmWorkerPool.class);
+
+    private final ProcessResourceSampler processResourceSampler;
+    private final CgroupManager cgroupManager;
+
+    @Value("${executor.worker-pool.size:2}")
+    private int poolSize;
+
+    @Value("${executor.worker-pool.max-runs:100}")
+    private int maxRunsPerWorker;
+
+    @Value("${executor.worker-pool.jvm-options:-XX:TieredStopAtLevel=1 -Xshare:auto}")
+    private String jvmOptions;
+
+    @Value("${executor.worker-pool.preload-classes:}")
+    private List<String> preloadClasses;
+
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+
+    private final ExecutorService starter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "worker-pool-starter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "worker-pool-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder warmExecutions = new LongAdder();
+    private final LongAdder workersStarted = new LongAdder();
+    private final LongAdder workersRetired = new LongAdder();
+    private final AtomicInteger workerNumber = new AtomicInteger();
+
+    private Path workerClasspath;
+    private volatile boolean running;
+
+    public WarmWorkerPool(ProcessResourceSampler processResourceSampler, CgroupManager cgroupManager) {
+        this.processResourceSampler = processResourceSampler;
+        this.cgroupManager = cgroupManager;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (poolSize <= 0) {
+            log.info("Warm worker pool disabled, forked jobs start a new JVM per execution");
+            return;
+        }
+
+        workerClasspath = extractWorkerClasses();
+        running = true;
+
+        for (int i = 0; i < poolSize; i++) {
+            starter.execute(this::startWorker);
+        }
+        log.info("Starting {} warm worker JVMs (max {} runs each)", poolSize, maxRunsPerWorker);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        starter.shutdownNow();
+        timeouts.shutdownNow();
+
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.destroy();
+        }
+        deleteWorkerClasses();
+    }
+
+    /**
+     * Run the JAR on an idle warm worker
+     *
+     * @return the result, or null if no warm worker is available right now
+     */
+    public JarExecutorService.ExecutionResult execute(String jarName, Path jarPath, List<String> arguments,
+            long timeoutSeconds, OutputCapture output, RunningExecutionRegistry.RunningExecution execution) {
+        Worker worker = idleWorkers.poll();
+        if (worker == null) {
+            return null;
+        }
+
+        log.debug("Running {} on warm worker {}", jarName, worker.pid());
+        warmExecutions.increment();
+
+        // Cancelling kills the worker, the run then ends like a job that called System.exit
+        execution.onCancel(() -> worker.process.destroyForcibly());
+        // The worker outlives the run, so its usage is the difference between samples before and after
+        ResourceUsage before = processResourceSampler.sample(worker.process.toHandle());
+        RunOutcome outcome;
+        ResourceUsage after;
+        try {
+            outcome = worker.run(jarPath, arguments, timeoutSeconds, output);
+        } finally {
+            after = processResourceSampler.sample(worker.process.toHandle());
+            execution.onCancel(null);
+        }
+
+        if (outcome.reusable && worker.runs < maxRunsPerWorker && running) {
+            idleWorkers.offer(worker);
+        } else {
+            retire(worker);
+        }
+        // Not available if the run ended the worker
+        return outcome.result.withResourceUsage(after != null ? after.since(before) : null);
+    }
+
+    /**
+     * Get pool statistics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", poolSize);
+        stats.put("idleWorkers", idleWorkers.size());
+        stats.put("warmExecutions", warmExecutions.sum());
+        stats.put("workersStarted", workersStarted.sum());
+        stats.put("workersRetired", workersRetired.sum());
+        return stats;
+    }
+
+    private void retire(Worker worker) {
+        worker.destroy();
+        workersRetired.increment();
+        if (running) {
+            starter.execute(this::startWorker);
+        }
+    }
+
+    private void startWorker() {
+        if (!running) {
+            return;
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add("java");
+        for (String option : jvmOptions.trim().split("\\s+")) {
+            if (!option.isEmpty()) {
+                command.add(option);
+            }
+        }
+        command.add("-cp");
+        command.add(workerClasspath.toString());
+        command.add(JarWorkerMain.class.getName());
+        for (String className : preloadClasses) {
+            if (!className.isBlank()) {
+                command.add(className.trim());
+            }
+        }
+
+        // Each worker runs under the default limits in a group of its own
+        CgroupManager.Cgroup cgroup = cgroupManager.create("worker-" + workerNumber.incrementAndGet(),
+                cgroupManager.getDefaultLimits());
+        Worker worker = null;
+        try {
+            Process process = new ProcessBuilder(cgroup != null ? cgroup.wrap(command) : command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            worker = new Worker(process, cgroup);
+
+            // Blocks until the worker has loaded its classes
+            if (worker.input.readByte() != JarWorkerMain.READY) {
+                throw new IOException("Unexpected handshake from worker");
+            }
+
+            workersStarted.increment();
+            idleWorkers.offer(worker);
+            log.debug("Warm worker {} ready", worker.pid());
+        } catch (IOException e) {
+            log.error("Could not start warm worker: {}", e.getMessage(), e);
+            if (worker != null) {
+                worker.destroy();
+            } else if (cgroup != null) {
+                cgroup.close();
+            }
+        }
+    }
+
+    /**
+     * Copy the worker classes out of the application so a plain JVM can load them
+     */
+    private Path extractWorkerClasses() throws IOException {
+        Path dir = Files.createTempDirectory("job-scheduler-worker-");
+        ClassLoader classLoader = WarmWorkerPool.class.getClassLoader();
+
+        for (String classFile : JarWorkerMain.CLASS_FILES) {
+            Path target = dir.resolve(classFile);
+            Files.createDirectories(target.getParent());
+            try (InputStream inputStream = classLoader.getResourceAsStream(classFile)) {
+                if (inputStream == null) {
+                    throw new IOException("Worker class not found: " + classFile);
+                }
+                Files.copy(inputStream, target);
+            }
+        }
+        return dir;
+    }
+
+    private void deleteWorkerClasses() {
+        if (workerClasspath == null) {
+            return;
+        }
+        // Workers still running a job have loaded their classes already
+        try (Stream<Path> paths = Files.walk(workerClasspath)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not delete worker classes in {}: {}", workerClasspath, e.getMessage());
+        }
+    }
+
+    private static class RunOutcome {
+        private final JarExecutorService.ExecutionResult result;
+        private final boolean reusable;
+
+        RunOutcome(JarExecutorService.ExecutionResult result, boolean reusable) {
+            this.result = result;
+            this.reusable = reusable;
+        }
+    }
+
+    private class Worker {
+        private final Process process;
+        private final CgroupManager.Cgroup cgroup;
+        private final DataInputStream input;
+        private final DataOutputStream output;
+        private int runs;
+
+        Worker(Process process, CgroupManager.Cgroup cgroup) {
+            this.process = process;
+            this.cgroup = cgroup;
+            this.input = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            this.output = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+
+        long pid() {
+            return process.pid();
+        }
+
+        RunOutcome run(Path jarPath, List<String> arguments, long timeoutSeconds, OutputCapture jobOutput) {
+            runs++;
+            long startTime = System.currentTimeMillis();
+            AtomicBoolean timedOut = new AtomicBoolean();
+
+            ScheduledFuture<?> timeout = timeouts.schedule(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }, timeoutSeconds, TimeUnit.SECONDS);
+
+            try {
+                output.writeUTF(jarPath.toString());
+                output.writeInt(arguments != null ? arguments.size() : 0);
+                if (arguments != null) {
+                    for (String argument : arguments) {
+                        output.writeUTF(argument);
+                    }
+                }
+                output.flush();
+
+                byte[] chunk = new byte[8192];
+                while (true) {
+                    byte frame = input.readByte();
+                    if (frame == JarWorkerMain.OUTPUT) {
+                        int length = input.readInt();
+                        if (chunk.length < length) {
+                            chunk = new byte[length];
+                        }
+                        input.readFully(chunk, 0, length);
+                        jobOutput.write(chunk, 0, length);
+                    } else if (frame == JarWorkerMain.RESULT) {
+                        int exitCode = input.readInt();
+                        String error = input.readUTF();
+                        boolean reusable = input.readBoolean();
+                        timeout.cancel(false);
+
+                        boolean success = exitCode == 0;
+                        return new RunOutcome(new JarExecutorService.ExecutionResult(
+                                success,
+                                success ? "Process completed successfully" : "Process failed: " + error,
+                                jobOutput.getSummary(),
+                                elapsedSeconds(startTime),
+                                JobExecution.WorkerType.WARM), success && reusable);
+                    } else {
+                        throw new IOException("Unexpected frame from worker: " + frame);
+                    }
+                }
+            } catch (EOFException e) {
+                // The job called System.exit or the worker was killed on timeout
+                timeout.cancel(false);
+                return new RunOutcome(exitResult(jobOutput, startTime, timedOut.get(), timeoutSeconds), false);
+            } catch (IOException e) {
+                timeout.cancel(false);
+                log.error("Warm worker {} failed: {}", pid(), e.getMessage(), e);
+                return new RunOutcome(new JarExecutorService.ExecutionResult(false, "Error: " + e.getMessage(),
+                        jobOutput.getSummary(), elapsedSeconds(startTime),
+                        JobExecution.WorkerType.WARM), false);
+            }
+        }
+
+        private JarExecutorService.ExecutionResult exitResult(OutputCapture jobOutput, long startTime,
+                boolean timedOut, long timeoutSeconds) {
+            String outputText = jobOutput.getSummary();
+            if (timedOut) {
+                return new JarExecutorService.ExecutionResult(false,
+                        "Process timed out after " + timeoutSeconds + " seconds", outputText,
+                        elapsedSeconds(startTime), JobExecution.WorkerType.WARM);
+            }
+
+            try {
+                int exitCode = process.waitFor();
+                boolean success = exitCode == 0;
+                return new JarExecutorService.ExecutionResult(
+                        success,
+                        success ? "Process completed successfully" : "Process failed with exit code " + exitCode,
+                        outputText,
+                        elapsedSeconds(startTime),
+                        JobExecution.WorkerType.WARM);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new JarExecutorService.ExecutionResult(false, "Interrupted waiting for worker", outputText,
+                        elapsedSeconds(startTime), JobExecution.WorkerType.WARM);
+            }
+        }
+
+        void destroy() {
+            try {
+                output.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            process.destroy();
+            if (cgroup != null) {
+                // A group can only be removed once its processes have exited
+                process.onExit().thenRun(cgroup::close);
+            }
+        }
+
+        private double elapsedSeconds(long startTime) {
+            return (System.currentTimeMillis() - startTime) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.lemnisk.jobscheduler.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TimeZone;
+
+/**
+ * Entry point of a pre-started worker JVM.
+ *
+ * The worker reads run requests from stdin and runs each JAR's main class in a fresh
+ * class loader and thread group. Like a JVM, a run only ends once main has returned and
+ * every non-daemon thread it started has finished. Job output and results are sent back
+ * over stdout as frames:
+ * <pre>
+ *   request:  UTF jarPath, int argc, UTF arg...
+ *   response: byte OUTPUT, int length, bytes     (any number of times)
+ *             byte RESULT, int exitCode, UTF error, boolean reusable
+ * </pre>
+ * A worker is not reusable when the run left daemon threads behind or changed JVM wide
+ * state (system properties, default locale or time zone, System.out), the pool retires it.
+ * The worker is launched from classes extracted out of the scheduler, so it must only
+ * depend on the JDK. A job calling System.exit ends the worker, the pool treats the
+ * process exit code as the job's exit code.
+ */
+public final class JarWorkerMain {
+
+    public static final byte READY = 'H';
+    public static final byte OUTPUT = 'O';
+    public static final byte RESULT = 'R';
+
+    // Classes the worker needs on its class path
+    public static final String[] CLASS_FILES = {
+            "com/lemnisk/jobscheduler/worker/JarWorkerMain.class",
+            "com/lemnisk/jobscheduler/worker/JarWorkerMain$FramedOutputStream.class"
+    };
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static DataOutputStream control;
+
+    private static int runNumber;
+
+    private JarWorkerMain() {
+    }
+
+    /**
+     * @param args names of classes to load before reporting ready
+     */
+    public static void main(String[] args) throws IOException {
+        control = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+
+        PrintStream jobOutput = new PrintStream(new FramedOutputStream(), true, StandardCharsets.UTF_8);
+        System.setOut(jobOutput);
+        System.setErr(jobOutput);
+
+        warmUp(args);
+        synchronized (control) {
+            control.writeByte(READY);
+            control.flush();
+        }
+
+        while (true) {
+            String jarPath;
+            try {
+                jarPath = requests.readUTF();
+            } catch (EOFException e) {
+                // Pool closed our stdin
+                return;
+            }
+
+            String[] jobArgs = new String[requests.readInt()];
+            for (int i = 0; i < jobArgs.length; i++) {
+                jobArgs[i] = requests.readUTF();
+            }
+
+            // Looking up the default time zone sets user.timezone, so it goes before the properties
+            Locale locale = Locale.getDefault();
+            TimeZone timeZone = TimeZone.getDefault();
+            Properties properties = (Properties) System.getProperties().clone();
+            ThreadGroup group = new ThreadGroup("job-" + ++runNumber);
+
+            int exitCode = 0;
+            String error = "";
+            try {
+                run(jarPath, jobArgs, group);
+            } catch (Throwable t) {
+                exitCode = 1;
+                error = t.toString();
+                if (error.length() > MAX_ERROR_LENGTH) {
+                    error = error.substring(0, MAX_ERROR_LENGTH);
+                }
+                t.printStackTrace();
+            }
+            jobOutput.flush();
+
+            boolean reusable = group.activeCount() == 0
+                    && properties.equals(System.getProperties())
+                    && locale.equals(Locale.getDefault())
+                    && timeZone.equals(TimeZone.getDefault())
+                    && System.out == jobOutput
+                    && System.err == jobOutput;
+
+            synchronized (control) {
+                control.writeByte(RESULT);
+                control.writeInt(exitCode);
+                control.writeUTF(error);
+                control.writeBoolean(reusable);
+                control.flush();
+            }
+        }
+    }
+
+    private static void warmUp(String[] classNames) {
+        for (String className : classNames) {
+            try {
+                Class.forName(className);
+            } catch (Throwable t) {
+                // Not available on this JDK
+            }
+        }
+    }
+
+    /**
+     * Run main on a thread of the job's group, then wait for the non-daemon threads the job started
+     */
+    private static void run(String jarPath, String[] args, ThreadGroup group) throws Throwable {
+        URL jarUrl = Paths.get(jarPath).toUri().toURL();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jarUrl }, ClassLoader.getPlatformClassLoader());
+                java.util.jar.JarFile jar = new java.util.jar.JarFile(jarPath)) {
+            String mainClassName = jar.getManifest() != null
+                    ? jar.getManifest().getMainAttributes().getValue("Main-Class")
+                    : null;
+            if (mainClassName == null) {
+                throw new IllegalStateException("JAR manifest has no Main-Class");
+            }
+
+            Method main = Class.forName(mainClassName, true, classLoader).getMethod("main", String[].class);
+            Throwable[] failure = new Throwable[1];
+            Thread mainThread = new Thread(group, () -> {
+                try {
+                    main.invoke(null, (Object) args);
+                } catch (InvocationTargetException e) {
+                    failure[0] = e.getCause();
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }, "main");
+            mainThread.setContextClassLoader(classLoader);
+            mainThread.start();
+            mainThread.join();
+
+            awaitNonDaemonThreads(group);
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+
+    private static void awaitNonDaemonThreads(ThreadGroup group) throws InterruptedException {
+        while (true) {
+            // Threads may start more threads, so look again after each wait
+            Thread[] threads = new Thread[group.activeCount() + 16];
+            int count = group.enumerate(threads, true);
+            Thread nonDaemon = null;
+            for (int i = 0; i < count && nonDaemon == null; i++) {
+                if (!threads[i].isDaemon()) {
+                    nonDaemon = threads[i];
+                }
+            }
+            if (nonDaemon == null) {
+                return;
+            }
+            nonDaemon.join();
+        }
+    }
+
+    /**
+     * Wraps everything the job prints into OUTPUT frames
+     */
+    private static final class FramedOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (control) {
+                control.writeByte(OUTPUT);
+                control.writeInt(len);
+                control.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (control) {
+                control.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+-- Initial schema of the job scheduler. Hibernate only validates it (ddl-auto=validate), every
+-- later change goes into a new migration. The QRTZ_ tables of Quartz are created by V4.
+
+CREATE TABLE jar_file (
+    id              UUID         NOT NULL,
+    name            VARCHAR(255),
+    description     VARCHAR(255),
+    path            VARCHAR(255),
+    etag            VARCHAR(255),
+    size            BIGINT       NOT NULL,
+    uploaded_at     TIMESTAMP(6),
+    execution_mode  VARCHAR(255) CHECK (execution_mode IN ('FORKED', 'IN_JVM')),
+    cpu_limit       FLOAT(53),
+    memory_limit_mb BIGINT,
+    pids_limit      BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE job_schedule (
+    id              UUID         NOT NULL,
+    jar_file_id     UUID         REFERENCES jar_file (id),
+    execution_type  VARCHAR(255) CHECK (execution_type IN ('IMMEDIATE', 'SCHEDULED')),
+    scheduled_time  TIMESTAMP(6),
+    next_fire_time  TIMESTAMP(6),
+    recurrence_type VARCHAR(255) CHECK (recurrence_type IN ('ONE_TIME', 'HOURLY', 'DAILY', 'WEEKLY', 'CRON')),
+    cron_expression VARCHAR(255),
+    timeout_seconds INTEGER,
+    cpu_limit       FLOAT(53),
+    memory_limit_mb BIGINT,
+    pids_limit      BIGINT,
+    status          VARCHAR(255) CHECK (status IN ('SCHEDULED', 'DISPATCHED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE job_execution (
+    id                    UUID         NOT NULL,
+    job_schedule_id       UUID         REFERENCES job_schedule (id),
+    attempt_id            UUID         UNIQUE,
+    start_time            TIMESTAMP(6),
+    end_time              TIMESTAMP(6),
+    status                VARCHAR(255) CHECK (status IN ('STARTED', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    worker_type           VARCHAR(255) CHECK (worker_type IN ('COLD', 'WARM', 'IN_JVM')),
+    logs                  TEXT,
+    log_location          VARCHAR(255),
+    error_message         TEXT,
+    execution_time        VARCHAR(255),
+    response              TEXT,
+    wall_time_millis      BIGINT,
+    cpu_user_millis       BIGINT,
+    cpu_system_millis     BIGINT,
+    peak_rss_bytes        BIGINT,
+    io_read_bytes         BIGINT,
+    io_write_bytes        BIGINT,
+    oom_killed            BOOLEAN,
+    cpu_throttled_periods BIGINT,
+    cpu_throttled_millis  BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE outbox_message (
+    id           BIGSERIAL    NOT NULL,
+    topic        VARCHAR(255),
+    message_key  VARCHAR(255),
+    payload_type VARCHAR(255),
+    payload      TEXT,
+    attempts     INTEGER      NOT NULL,
+    last_error   TEXT,
+    created_at   TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- Due-job scans and claims (status = 'SCHEDULED' AND next_fire_time <= ?). Only the small set of
+-- pending jobs is indexed, finished history never enters it.
+CREATE INDEX idx_job_schedule_due ON job_schedule (next_fire_time) WHERE status = 'SCHEDULED';
+
+-- Schedule listings, newest first by (created_at, id), optionally narrowed to a status or JAR
+CREATE INDEX idx_job_schedule_created ON job_schedule (created_at, id);
+CREATE INDEX idx_job_schedule_status_created ON job_schedule (status, created_at, id);
+CREATE INDEX idx_job_schedule_jar_created ON job_schedule (jar_file_id, created_at, id);
+
+-- Executions of a schedule, newest first
+CREATE INDEX idx_job_execution_schedule_start ON job_execution (job_schedule_id, start_time DESC, id DESC);
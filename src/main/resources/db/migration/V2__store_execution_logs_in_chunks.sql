@@ -0,0 +1,22 @@
+-- Execution rows keep only the end of the output, the complete output is stored in MinIO
+-- as compressed chunks. Existing rows keep the output summary they already have.
+ALTER TABLE job_execution RENAME COLUMN logs TO log_tail;
+ALTER TABLE job_execution ADD COLUMN log_chunks INTEGER;
+ALTER TABLE job_execution ADD COLUMN log_size_bytes BIGINT;
+ALTER TABLE job_execution ADD COLUMN log_checksum VARCHAR(64);
+
+-- Stored result messages no longer repeat the output. Responses that are not valid JSON are
+-- kept as they are instead of failing the migration.
+DO $$
+DECLARE
+    execution RECORD;
+BEGIN
+    FOR execution IN SELECT id FROM job_execution WHERE response LIKE '%"logs"%' LOOP
+        BEGIN
+            UPDATE job_execution SET response = (response::jsonb - 'logs')::text
+            WHERE id = execution.id AND jsonb_typeof(response::jsonb) = 'object';
+        EXCEPTION WHEN invalid_text_representation THEN
+            RAISE NOTICE 'Keeping response of execution %, it is not JSON', execution.id;
+        END;
+    END LOOP;
+END $$;
@@ -0,0 +1,3 @@
+-- Nodes refresh the heartbeat of the executions they run. A redelivered dispatch whose
+-- execution is still STARTED but no longer heartbeating reclaims it instead of being dropped.
+ALTER TABLE job_execution ADD COLUMN heartbeat_at TIMESTAMP(6);
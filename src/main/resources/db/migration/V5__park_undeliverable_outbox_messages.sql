@@ -0,0 +1,3 @@
+-- Outbox messages that still fail after outbox.relay.max-attempts sends are parked instead of
+-- being sent again forever. Parked rows are kept for inspection, the relay skips them.
+ALTER TABLE outbox_message ADD COLUMN parked_at TIMESTAMP(6);
@@ -0,0 +1,130 @@
+package com.lemnisk.jobscheduler.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import com.lemnisk.jobscheduler.dto.JobExecutionDTO;
+import com.lemnisk.jobscheduler.dto.JobScheduleDTO;
+import com.lemnisk.jobscheduler.dto.JobScheduleFilter;
+import com.lemnisk.jobscheduler.dto.PageCursor;
+import com.lemnisk.jobscheduler.model.JarFile;
+import com.lemnisk.jobscheduler.model.JobExecution;
+import com.lemnisk.jobscheduler.model.JobSchedule;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Listings are DTO projections with the JAR name joined in: a page of any size takes a
+ * single statement and loads no entities. The migrations are Postgres only, so the
+ * schema comes from the entities here.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ListingQueriesTest {
+
+    private static final int JOBS = 3;
+    private static final int EXECUTIONS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JobScheduleRepository jobScheduleRepository;
+
+    @Autowired
+    private JobExecutionRepository jobExecutionRepository;
+
+    private JobSchedule jobSchedule;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < JOBS; i++) {
+            JarFile jarFile = entityManager.persist(JarFile.builder().name("job-" + i + ".jar").size(1).build());
+            jobSchedule = entityManager.persist(JobSchedule.builder()
+                    .jarFile(jarFile)
+                    .executionType(JobSchedule.ExecutionType.IMMEDIATE)
+                    .recurrenceType(JobSchedule.RecurrenceType.HOURLY)
+                    .status(JobSchedule.JobStatus.SCHEDULED)
+                    .build());
+            for (int j = 0; j < EXECUTIONS; j++) {
+                entityManager.persist(JobExecution.builder()
+                        .jobSchedule(jobSchedule)
+                        .startTime(now.minusHours(j))
+                        .status(JobExecution.ExecutionStatus.COMPLETED)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listsJobSchedulesInOneStatement() {
+        List<JobScheduleDTO> page = jobScheduleRepository.findPage(JobScheduleFilter.builder().build(), null, 50);
+
+        assertEquals(JOBS, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void listsFilteredJobSchedulesAfterCursorInOneStatement() {
+        JobScheduleDTO first = jobScheduleRepository.findDTOById(jobSchedule.getId()).orElseThrow();
+        statistics.clear();
+
+        List<JobScheduleDTO> page = jobScheduleRepository.findPage(JobScheduleFilter.builder()
+                .statuses(List.of(JobSchedule.JobStatus.SCHEDULED))
+                .build(), new PageCursor(first.getCreatedAt().plusSeconds(1), first.getId()), 50);
+
+        assertEquals(JOBS, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void listsJobExecutionsInOneStatement() {
+        List<JobExecutionDTO> page = jobExecutionRepository.findDTOsByJobScheduleId(jobSchedule.getId(),
+                Limit.of(50));
+
+        assertEquals(EXECUTIONS, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void listsJobExecutionsAfterCursorInOneStatement() {
+        JobExecutionDTO first = jobExecutionRepository.findDTOsByJobScheduleId(jobSchedule.getId(), Limit.of(1))
+                .get(0);
+        statistics.clear();
+
+        List<JobExecutionDTO> page = jobExecutionRepository.findDTOsByJobScheduleIdAfter(jobSchedule.getId(),
+                first.getStartTime(), first.getId(), Limit.of(50));
+
+        assertEquals(EXECUTIONS - 1, page.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
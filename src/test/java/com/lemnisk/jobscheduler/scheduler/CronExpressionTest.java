@@ -0,0 +1,136 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+class CronExpressionTest {
+
+    @Test
+    void matchesEitherDayFieldWhenBothAreRestricted() {
+        // The 13th or any Friday
+        CronExpression cron = CronExpression.parse("0 0 13 * FRI");
+
+        assertEquals(LocalDateTime.of(2026, 10, 23, 0, 0), cron.next(LocalDateTime.of(2026, 10, 17, 12, 0)));
+        assertEquals(LocalDateTime.of(2026, 10, 13, 0, 0), cron.next(LocalDateTime.of(2026, 10, 12, 12, 0)));
+        assertMatchesBruteForce(cron, time -> time.getDayOfMonth() == 13 || time.getDayOfWeek() == DayOfWeek.FRIDAY,
+                0, 0);
+    }
+
+    @Test
+    void matchesBothDayFieldsWhenOneIsAWildcard() {
+        CronExpression mondays = CronExpression.parse("30 8 * * 1");
+        CronExpression everyOtherDay = CronExpression.parse("0 0 */2 * 1");
+
+        assertEquals(LocalDateTime.of(2026, 10, 19, 8, 30), mondays.next(LocalDateTime.of(2026, 10, 17, 12, 0)));
+        // A stepped wildcard still counts as a wildcard, as in Vixie cron: odd days that are Mondays
+        assertMatchesBruteForce(everyOtherDay,
+                time -> time.getDayOfMonth() % 2 == 1 && time.getDayOfWeek() == DayOfWeek.MONDAY, 0, 0);
+    }
+
+    @Test
+    void treatsSevenAsSunday() {
+        assertEquals(LocalDateTime.of(2026, 10, 18, 0, 0),
+                CronExpression.parse("0 0 * * 7").next(LocalDateTime.of(2026, 10, 17, 12, 0)));
+        assertEquals(LocalDateTime.of(2026, 10, 18, 0, 0),
+                CronExpression.parse("0 0 * * SUN").next(LocalDateTime.of(2026, 10, 17, 12, 0)));
+    }
+
+    @Test
+    void rollsOverMonthsAndYears() {
+        assertEquals(LocalDateTime.of(2026, 5, 31, 0, 0),
+                CronExpression.parse("0 0 31 * *").next(LocalDateTime.of(2026, 4, 15, 0, 0)));
+        assertEquals(LocalDateTime.of(2027, 12, 31, 23, 59),
+                CronExpression.parse("59 23 31 12 *").next(LocalDateTime.of(2026, 12, 31, 23, 59)));
+        assertEquals(LocalDateTime.of(2027, 1, 1, 0, 0),
+                CronExpression.parse("0 0 1 JAN *").next(LocalDateTime.of(2026, 12, 31, 23, 59, 59)));
+        assertEquals(LocalDateTime.of(2026, 10, 17, 13, 0),
+                CronExpression.parse("0 * * * *").next(LocalDateTime.of(2026, 10, 17, 12, 0)));
+    }
+
+    @Test
+    void findsLeapDays() {
+        CronExpression leapDay = CronExpression.parse("0 12 29 2 *");
+
+        assertEquals(LocalDateTime.of(2028, 2, 29, 12, 0), leapDay.next(LocalDateTime.of(2025, 3, 1, 0, 0)));
+        // 2100 is not a leap year
+        assertEquals(LocalDateTime.of(2104, 2, 29, 12, 0), leapDay.next(LocalDateTime.of(2096, 2, 29, 12, 0)));
+    }
+
+    @Test
+    void supportsSecondsField() {
+        CronExpression cron = CronExpression.parse("*/15 * * * * *");
+
+        assertEquals(LocalDateTime.of(2026, 10, 17, 12, 1, 0), cron.next(LocalDateTime.of(2026, 10, 17, 12, 0, 45)));
+        assertEquals(LocalDateTime.of(2026, 10, 17, 12, 0, 15), cron.next(LocalDateTime.of(2026, 10, 17, 12, 0, 0)));
+        // Fractions of a second never fire the same second again
+        assertEquals(LocalDateTime.of(2026, 10, 17, 12, 0, 15),
+                cron.next(LocalDateTime.of(2026, 10, 17, 12, 0, 0, 500_000_000)));
+    }
+
+    @Test
+    void agreesWithBruteForceOnRangesListsAndSteps() {
+        CronExpression cron = CronExpression.parse("5-20/5 9-17 1,15 JAN-MAR,SEP *");
+
+        assertMatchesBruteForce(cron, time -> time.getMinute() % 5 == 0 && time.getMinute() >= 5
+                && time.getMinute() <= 20 && time.getHour() >= 9 && time.getHour() <= 17
+                && (time.getDayOfMonth() == 1 || time.getDayOfMonth() == 15)
+                && (time.getMonthValue() <= 3 || time.getMonthValue() == 9), -1, -1);
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * 10-5 * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * 1,,2 * *"));
+        // February never has 30 days
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 0 30 2 *"));
+        assertFalse(CronExpression.isValid("0 0 * * FOO"));
+        assertTrue(CronExpression.isValid("0 0 * * MON-FRI"));
+    }
+
+    @Test
+    void cachesOnlyRecentExpressions() {
+        CronExpression cron = CronExpression.parse("0 3 * * *");
+        assertSame(cron, CronExpression.parse("0 3 * * *"));
+
+        for (int minute = 0; minute < 60; minute++) {
+            for (int hour = 0; hour < 24; hour++) {
+                CronExpression.parse(minute + " " + hour + " * * *");
+            }
+        }
+        assertTrue(CronExpression.cacheSize() <= 1024);
+    }
+
+    /**
+     * Compare next() with a minute by minute search from random start times
+     *
+     * @param hour the hour the expression fires at, or -1 to check every hour
+     * @param minute the minute the expression fires at, or -1 to check every minute
+     */
+    private static void assertMatchesBruteForce(CronExpression cron, Predicate<LocalDateTime> matches, int hour,
+            int minute) {
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime after = LocalDateTime.of(2024 + random.nextInt(4), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+            LocalDateTime expected = after.plusMinutes(1);
+            while (!matches.test(expected) || (hour >= 0 && expected.getHour() != hour)
+                    || (minute >= 0 && expected.getMinute() != minute)) {
+                expected = expected.plusMinutes(1);
+            }
+            assertEquals(expected, cron.next(after), "Next fire time after " + after);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.lemnisk.jobscheduler.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+    // Not aligned to any tick, so rounding is exercised
+    private static final long START = 1_700_000_000_003L;
+
+    // The clock advances irregularly, like a driver thread that does not wake up on time
+    private static final int MAX_STEP_MS = 10;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final Random steps = new Random(1);
+    private final Map<Integer, Long> firedAt = new HashMap<>();
+
+    @Test
+    void firesEveryKeyOnTime() throws InterruptedException {
+        // Production defaults: 10 ms ticks, 512 buckets, deadlines reaching two overflow wheels
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 512, START, clock::get);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        Random random = new Random(42);
+        for (int key = 0; key < 5000; key++) {
+            long deadline = START + 1 + random.nextInt(20 * 60 * 1000);
+            deadlines.put(key, deadline);
+            assertTrue(wheel.schedule(key, deadline));
+        }
+
+        runUntil(wheel, START + 20 * 60 * 1000 + 20);
+
+        assertFiredOnTime(deadlines, 10);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesKeysScheduledWhileTheWheelAdvances() throws InterruptedException {
+        // A tiny wheel, so most keys cascade through several overflow wheels
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 8, START, clock::get);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        Random random = new Random(7);
+        int key = 0;
+        for (long now = START; now < START + 120_000; now += 1 + steps.nextInt(MAX_STEP_MS)) {
+            clock.set(now);
+            if (random.nextInt(20) == 0) {
+                long deadline = now + 1 + random.nextInt(random.nextBoolean() ? 50 : 60_000);
+                deadlines.put(key, deadline);
+                assertTrue(wheel.schedule(key++, deadline));
+            }
+            collect(wheel, now);
+        }
+        runUntil(wheel, START + 180_020);
+
+        assertFiredOnTime(deadlines, 1);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void doesNotStoreKeysThatAreAlreadyDue() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 512, START, clock::get);
+
+        assertFalse(wheel.schedule(1, START - 10_000));
+        assertFalse(wheel.schedule(2, START - START % 10));
+        assertFalse(wheel.contains(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledKeysDoNotFire() throws InterruptedException {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 8, START, clock::get);
+        wheel.schedule(1, START + 50);
+        wheel.schedule(2, START + 5_000);
+        wheel.schedule(3, START + 50);
+
+        assertTrue(wheel.cancel(1));
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(2));
+        assertEquals(1, wheel.size());
+
+        runUntil(wheel, START + 10_000);
+
+        assertEquals(Set.of(3), firedAt.keySet());
+    }
+
+    @Test
+    void reschedulingReplacesTheDeadline() throws InterruptedException {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 8, START, clock::get);
+        wheel.schedule(1, START + 5_000);
+        wheel.schedule(1, START + 200);
+        wheel.schedule(2, START + 200);
+        wheel.schedule(2, START + 3_000);
+
+        assertEquals(2, wheel.size());
+        runUntil(wheel, START + 10_000);
+
+        assertFiredOnTime(Map.of(1, START + 200, 2, START + 3_000), 10);
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<Integer>(0, 512, START));
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<Integer>(10, 0, START));
+    }
+
+    private void runUntil(HierarchicalTimingWheel<Integer> wheel, long endMs) throws InterruptedException {
+        for (long now = clock.get(); now <= endMs; now += 1 + steps.nextInt(MAX_STEP_MS)) {
+            clock.set(now);
+            collect(wheel, now);
+        }
+    }
+
+    private void collect(HierarchicalTimingWheel<Integer> wheel, long now) throws InterruptedException {
+        for (Integer key : wheel.advance(0)) {
+            if (firedAt.put(key, now) != null) {
+                fail("Key " + key + " fired twice");
+            }
+        }
+    }
+
+    private void assertFiredOnTime(Map<Integer, Long> deadlines, long tickMs) {
+        assertEquals(deadlines.size(), firedAt.size());
+        deadlines.forEach((key, deadline) -> {
+            assertTrue(firedAt.containsKey(key), "Key " + key + " due at " + deadline + " did not fire");
+            long lateMs = firedAt.get(key) - deadline;
+            assertTrue(lateMs >= 0 && lateMs < tickMs + MAX_STEP_MS,
+                    "Key " + key + " due at " + deadline + " fired " + lateMs + " ms late");
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.lemnisk.jobscheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ExecutionAdmissionServiceTest {
+
+    private static final String TOPIC = "job-execution";
+
+    private final MessageListenerContainer container = mock(MessageListenerContainer.class);
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final Map<String, Acknowledgment> acknowledgments = new HashMap<>();
+
+    private ExecutionAdmissionService admission;
+
+    @BeforeEach
+    void setUp() {
+        KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(ExecutionAdmissionService.EXECUTION_LISTENER_ID)).thenReturn(container);
+        when(container.isPauseRequested()).thenAnswer(invocation -> paused.get());
+        doAnswer(invocation -> {
+            paused.set(true);
+            return null;
+        }).when(container).pause();
+        doAnswer(invocation -> {
+            paused.set(false);
+            return null;
+        }).when(container).resume();
+
+        admission = new ExecutionAdmissionService(registry);
+        ReflectionTestUtils.setField(admission, "highWater", 4);
+        ReflectionTestUtils.setField(admission, "lowWater", 2);
+    }
+
+    @Test
+    void acknowledgesOnlyTheFinishedPrefixOfAPartition() {
+        for (long offset = 10; offset <= 14; offset++) {
+            admit(0, offset);
+        }
+        admit(1, 7);
+
+        // Later records finishing first commit nothing
+        admission.complete(TOPIC, 0, 12);
+        admission.complete(TOPIC, 0, 11);
+        verify(ack(0, 11), never()).acknowledge();
+        verify(ack(0, 12), never()).acknowledge();
+
+        // The first record finishing commits up to the last finished one after it
+        admission.complete(TOPIC, 0, 10);
+        verify(ack(0, 12)).acknowledge();
+        verify(ack(0, 10), never()).acknowledge();
+        verify(ack(0, 11), never()).acknowledge();
+
+        admission.complete(TOPIC, 0, 14);
+        verify(ack(0, 14), never()).acknowledge();
+        admission.complete(TOPIC, 0, 13);
+        verify(ack(0, 14)).acknowledge();
+
+        // Partitions are committed independently
+        verify(ack(1, 7), never()).acknowledge();
+        admission.complete(TOPIC, 1, 7);
+        verify(ack(1, 7)).acknowledge();
+        assertEquals(0, admission.getStats().get("inFlight"));
+    }
+
+    @Test
+    void pausesAtHighWaterAndResumesAtLowWater() {
+        for (long offset = 0; offset < 3; offset++) {
+            admit(0, offset);
+        }
+        verify(container, never()).pause();
+
+        admit(0, 3);
+        verify(container).pause();
+        assertTrue((Boolean) admission.getStats().get("paused"));
+
+        // Still paused above the low-water mark
+        admission.complete(TOPIC, 0, 3);
+        verify(container, never()).resume();
+
+        admission.complete(TOPIC, 0, 2);
+        verify(container).resume();
+        assertFalse((Boolean) admission.getStats().get("paused"));
+        assertEquals(1L, admission.getStats().get("pauses"));
+
+        // Draining further does not resume again
+        admission.complete(TOPIC, 0, 1);
+        verify(container, times(1)).resume();
+    }
+
+    @Test
+    void dropsRecordsOfRevokedPartitions() {
+        admit(0, 0);
+        admit(0, 1);
+        admit(1, 0);
+        admission.complete(TOPIC, 0, 1);
+
+        admission.onPartitionsRevokedBeforeCommit(mock(Consumer.class), List.of(new TopicPartition(TOPIC, 0)));
+        assertEquals(1, admission.getStats().get("inFlight"));
+
+        // Executions finishing after the revocation are neither committed nor counted again
+        admission.complete(TOPIC, 0, 0);
+        verify(ack(0, 0), never()).acknowledge();
+        verify(ack(0, 1), never()).acknowledge();
+        assertEquals(1, admission.getStats().get("inFlight"));
+
+        // A record of the reassigned partition starts a fresh prefix
+        admit(0, 0);
+        admission.complete(TOPIC, 0, 0);
+        verify(ack(0, 0)).acknowledge();
+        assertEquals(1, admission.getStats().get("inFlight"));
+    }
+
+    private void admit(int partition, long offset) {
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        acknowledgments.put(partition + "@" + offset, acknowledgment);
+        admission.admit(TOPIC, partition, offset, acknowledgment);
+    }
+
+    private Acknowledgment ack(int partition, long offset) {
+        return acknowledgments.get(partition + "@" + offset);
+    }
+}
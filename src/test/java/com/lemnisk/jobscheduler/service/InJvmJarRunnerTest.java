@@ -0,0 +1,165 @@
+package com.lemnisk.jobscheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InJvmJarRunnerTest {
+
+    private static final String RELEASE = "injvm.test.release";
+    private static final String LOADED = "injvm.test.loaded";
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutionPipeline pipeline;
+    private InJvmJarRunner runner;
+    private RunningExecutionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ExecutionPipeline();
+        ReflectionTestUtils.setField(pipeline, "maxConcurrent", 4);
+        ReflectionTestUtils.setField(pipeline, "perJar", 2);
+        ReflectionTestUtils.setField(pipeline, "cpuPermitsPerCore", 1);
+        pipeline.start();
+
+        runner = new InJvmJarRunner(pipeline);
+        runner.installOutputRouting();
+        registry = new RunningExecutionRegistry(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.restoreOutput();
+        pipeline.stop();
+        System.clearProperty(RELEASE);
+        System.clearProperty(LOADED);
+    }
+
+    @Test
+    void capturesOutputOfAJobThatReturns() throws IOException {
+        OutputCapture output = new OutputCapture(1024, 1024, null);
+
+        JarExecutorService.ExecutionResult result = run(Hello.class, 10, output, UUID.randomUUID());
+
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertEquals("hello from the job" + System.lineSeparator(), output.getSummary());
+        assertEquals(0, runner.leakedThreads());
+        assertEquals(0, pipeline.getStats().get("held"));
+    }
+
+    @Test
+    void keepsAPermitAndTheClassLoaderOfAJobThatOutlivesItsTimeout() throws IOException {
+        OutputCapture output = new OutputCapture(1024, 1024, null);
+
+        JarExecutorService.ExecutionResult result = run(Stubborn.class, 1, output, UUID.randomUUID());
+
+        assertFalse(result.isSuccess());
+        assertEquals("Process timed out after 1 seconds", result.getMessage());
+        assertEquals("working" + System.lineSeparator(), output.getSummary());
+        assertEquals(1, runner.leakedThreads());
+        assertEquals(1, pipeline.getStats().get("held"));
+        assertEquals(3, pipeline.getStats().get("availablePermits"));
+
+        // Stored like JobLogService.store does, output written afterwards is dropped
+        output.close();
+        long storedBytes = output.getTotalBytes();
+        System.setProperty(RELEASE, "true");
+        await(() -> runner.leakedThreads() == 0);
+
+        assertEquals("true", System.getProperty(LOADED), "class loader closed while the job still ran");
+        assertEquals(storedBytes, output.getTotalBytes());
+        await(() -> Integer.valueOf(0).equals(pipeline.getStats().get("held")));
+        assertEquals(4, pipeline.getStats().get("availablePermits"));
+    }
+
+    @Test
+    void interruptsACancelledJob() throws IOException {
+        OutputCapture output = new OutputCapture(1024, 1024, null);
+        UUID jobId = UUID.randomUUID();
+        CompletableFuture.runAsync(() -> registry.cancelJob(jobId),
+                CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+
+        JarExecutorService.ExecutionResult result = run(Sleeper.class, 30, output, jobId);
+
+        assertFalse(result.isSuccess());
+        assertEquals("Execution cancelled", result.getMessage());
+        assertTrue(output.getSummary().startsWith("sleeping"), output.getSummary());
+        await(() -> runner.leakedThreads() == 0);
+        await(() -> Integer.valueOf(0).equals(pipeline.getStats().get("held")));
+    }
+
+    private JarExecutorService.ExecutionResult run(Class<?> mainClass, long timeoutSeconds, OutputCapture output,
+            UUID jobId) throws IOException {
+        Path jar = TestJars.jar(tempDir, mainClass);
+        RunningExecutionRegistry.RunningExecution execution = registry.register(UUID.randomUUID(), jobId);
+        try {
+            return runner.run(mainClass.getSimpleName(), jar, List.of(), timeoutSeconds, output, execution);
+        } finally {
+            registry.unregister(execution);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10 seconds");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public static class Hello {
+        public static void main(String[] args) {
+            System.out.println("hello from the job");
+        }
+    }
+
+    /**
+     * Ignores interrupts until the test releases it, then writes and loads a resource
+     */
+    public static class Stubborn {
+        public static void main(String[] args) {
+            System.out.println("working");
+            while (System.getProperty("injvm.test.release") == null) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    // Ignored on purpose
+                }
+            }
+            System.out.println("still writing after the timeout");
+            System.setProperty("injvm.test.loaded",
+                    String.valueOf(Stubborn.class.getResource("/META-INF/MANIFEST.MF") != null));
+        }
+    }
+
+    public static class Sleeper {
+        public static void main(String[] args) {
+            System.out.println("sleeping");
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                System.out.println("interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.lemnisk.jobscheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemnisk.jobscheduler.dto.kafka.JobExecutionMessage;
+import com.lemnisk.jobscheduler.dto.kafka.JobResultMessage;
+import com.lemnisk.jobscheduler.model.JarFile;
+import com.lemnisk.jobscheduler.model.JobExecution;
+import com.lemnisk.jobscheduler.model.JobSchedule;
+
+class KafkaConsumerServiceTest {
+
+    private static final String TOPIC = "job-execution";
+
+    private final JobScheduleService jobScheduleService = mock(JobScheduleService.class);
+    private final JobExecutionService jobExecutionService = mock(JobExecutionService.class);
+    private final JarExecutorService jarExecutorService = mock(JarExecutorService.class);
+    private final ExecutionPipeline executionPipeline = mock(ExecutionPipeline.class);
+    private final ExecutionAdmissionService executionAdmissionService = mock(ExecutionAdmissionService.class);
+    private final RunningExecutionRegistry runningExecutionRegistry = mock(RunningExecutionRegistry.class);
+    private final ExecutionDedupeService executionDedupeService = mock(ExecutionDedupeService.class);
+
+    private final KafkaConsumerService consumer = new KafkaConsumerService(jobScheduleService, jobExecutionService,
+            mock(KafkaProducerService.class), jarExecutorService, executionPipeline, executionAdmissionService,
+            runningExecutionRegistry, executionDedupeService, new ObjectMapper().findAndRegisterModules());
+
+    private final UUID attemptId = UUID.randomUUID();
+    private JobSchedule jobSchedule;
+    private JobExecution execution;
+
+    @BeforeEach
+    void setUp() {
+        // Executions run right away, on the calling thread
+        doAnswer(invocation -> invocation.<Supplier<CompletableFuture<?>>>getArgument(1).get())
+                .when(executionPipeline).submit(anyString(), any());
+        when(executionPipeline.executor()).thenReturn(Runnable::run);
+        ReflectionTestUtils.setField(consumer, "heartbeatIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(consumer, "heartbeatTimeoutMs", 60_000L);
+
+        jobSchedule = JobSchedule.builder()
+                .jarFile(JarFile.builder().name("job.jar").build())
+                .recurrenceType(JobSchedule.RecurrenceType.HOURLY)
+                .status(JobSchedule.JobStatus.RUNNING)
+                .build();
+        jobSchedule.setId(UUID.randomUUID());
+        when(jobScheduleService.getJobScheduleById(jobSchedule.getId())).thenReturn(jobSchedule);
+
+        // The node that crashed had already stored the execution of this dispatch
+        execution = JobExecution.builder()
+                .jobSchedule(jobSchedule)
+                .attemptId(attemptId)
+                .startTime(LocalDateTime.now().minusMinutes(5))
+                .status(JobExecution.ExecutionStatus.STARTED)
+                .build();
+        execution.setId(UUID.randomUUID());
+        when(executionDedupeService.isDuplicate(attemptId)).thenReturn(true);
+        when(jobExecutionService.getJobExecutionByAttemptId(attemptId)).thenReturn(execution);
+    }
+
+    @Test
+    void acknowledgesRedeliveryOfFinishedExecution() {
+        execution.setStatus(JobExecution.ExecutionStatus.COMPLETED);
+
+        redeliver();
+
+        verify(executionAdmissionService).complete(TOPIC, 0, 42L);
+        verify(jarExecutorService, never()).executeJar(any());
+    }
+
+    @Test
+    void keepsRedeliveryOfRunningExecutionUnacknowledged() {
+        when(jobExecutionService.reclaimAbandonedExecution(eq(execution.getId()), any())).thenReturn(false);
+
+        redeliver();
+
+        verify(executionAdmissionService, never()).complete(anyString(), anyInt(), anyLong());
+        verify(jarExecutorService, never()).executeJar(any());
+    }
+
+    @Test
+    void doesNotReclaimExecutionRunningOnThisNode() {
+        when(runningExecutionRegistry.isRunning(execution.getId())).thenReturn(true);
+
+        redeliver();
+
+        verify(jobExecutionService, never()).reclaimAbandonedExecution(any(), any());
+        verify(executionAdmissionService, never()).complete(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void runsAbandonedExecutionAgainAndAcknowledgesItOnceFinished() {
+        when(jobExecutionService.reclaimAbandonedExecution(eq(execution.getId()), any())).thenReturn(true);
+        when(jobScheduleService.transitionJobStatus(jobSchedule.getId(), JobSchedule.JobStatus.RUNNING,
+                JobSchedule.JobStatus.DISPATCHED, JobSchedule.JobStatus.RUNNING)).thenReturn(true);
+        when(jarExecutorService.executeJar(any())).thenReturn(CompletableFuture.completedFuture(
+                new JarExecutorService.ExecutionResult(true, "done", "", 1.0, JobExecution.WorkerType.COLD)));
+
+        redeliver();
+
+        ArgumentCaptor<JarExecutorService.ExecutionRequest> request =
+                ArgumentCaptor.forClass(JarExecutorService.ExecutionRequest.class);
+        verify(jarExecutorService).executeJar(request.capture());
+        assertEquals(execution.getId(), request.getValue().getExecutionId());
+        assertEquals(JobExecution.ExecutionStatus.COMPLETED, execution.getStatus());
+        verify(jobScheduleService).rescheduleRecurringJob(jobSchedule.getId());
+        verify(executionAdmissionService).complete(TOPIC, 0, 42L);
+    }
+
+    @Test
+    void dropsExecutionOfDuplicateDispatchOfAJobThatMovedOn() {
+        // Another dispatch of the job already moved it to RUNNING
+        when(jobScheduleService.getJobStatus(jobSchedule.getId())).thenReturn(JobSchedule.JobStatus.RUNNING);
+
+        JobExecution stored = dispatch();
+
+        verify(jobExecutionService).deleteJobExecution(stored.getId());
+        assertEquals(JobExecution.ExecutionStatus.STARTED, stored.getStatus());
+        verify(jarExecutorService, never()).executeJar(any());
+        verify(executionAdmissionService).complete(TOPIC, 0, 43L);
+    }
+
+    @Test
+    void recordsExecutionOfAJobCancelledBeforeItStartedAsCancelled() {
+        when(jobScheduleService.getJobStatus(jobSchedule.getId())).thenReturn(JobSchedule.JobStatus.CANCELLED);
+
+        JobExecution stored = dispatch();
+
+        assertEquals(JobExecution.ExecutionStatus.CANCELLED, stored.getStatus());
+        verify(jobExecutionService, never()).deleteJobExecution(any());
+        verify(jarExecutorService, never()).executeJar(any());
+    }
+
+    @Test
+    void resultOnlyUpdatesTheExecution() {
+        // A late result must not move the schedule, it may already be the next run
+        when(jobExecutionService.getJobExecution(execution.getId())).thenReturn(execution);
+        JobResultMessage result = JobResultMessage.builder()
+                .jobId(jobSchedule.getId())
+                .executionId(execution.getId())
+                .status("success")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        consumer.consumeJobResultMessages(List.of(result));
+
+        assertEquals(JobExecution.ExecutionStatus.COMPLETED, execution.getStatus());
+        verify(jobExecutionService).saveJobExecution(execution);
+        verifyNoInteractions(jobScheduleService);
+    }
+
+    /**
+     * Deliver a first dispatch of the job whose move to RUNNING fails
+     *
+     * @return the execution stored for it
+     */
+    private JobExecution dispatch() {
+        jobSchedule.setStatus(JobSchedule.JobStatus.DISPATCHED);
+        UUID executionId = UUID.randomUUID();
+        when(jobExecutionService.saveJobExecution(any())).thenAnswer(invocation -> {
+            JobExecution saved = invocation.getArgument(0);
+            saved.setId(executionId);
+            return saved;
+        });
+
+        JobExecutionMessage message = JobExecutionMessage.builder()
+                .jobId(jobSchedule.getId())
+                .executionAttemptId(UUID.randomUUID())
+                .jarName("job.jar")
+                .build();
+        consumer.consumeJobExecutionMessage(message, mock(Acknowledgment.class), TOPIC, 0, 43L);
+
+        ArgumentCaptor<JobExecution> saved = ArgumentCaptor.forClass(JobExecution.class);
+        verify(jobExecutionService, atLeastOnce()).saveJobExecution(saved.capture());
+        return saved.getValue();
+    }
+
+    private void redeliver() {
+        JobExecutionMessage message = JobExecutionMessage.builder()
+                .jobId(jobSchedule.getId())
+                .executionAttemptId(attemptId)
+                .jarName("job.jar")
+                .build();
+        consumer.consumeJobExecutionMessage(message, mock(Acknowledgment.class), TOPIC, 0, 42L);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lemnisk.jobscheduler.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lemnisk.jobscheduler.model.OutboxMessage;
+import com.lemnisk.jobscheduler.repository.OutboxMessageRepository;
+
+class OutboxServiceTest {
+
+    private static final String TOPIC = "job-execution";
+
+    private final OutboxMessageRepository outboxMessageRepository = mock(OutboxMessageRepository.class);
+    private final KafkaProducerService kafkaProducerService = mock(KafkaProducerService.class);
+
+    private final OutboxService outboxService = new OutboxService(outboxMessageRepository, kafkaProducerService,
+            new ObjectMapper(), mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "batchSize", 500);
+        ReflectionTestUtils.setField(outboxService, "sendTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 3);
+        when(outboxMessageRepository.tryRelayLock(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void deletesSentMessages() {
+        givenBatch(message(1, "a", "{\"n\":1}"), message(2, "b", "{\"n\":2}"));
+        when(kafkaProducerService.send(eq(TOPIC), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxService.relayBatch();
+
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void keepsLaterMessagesOfAKeyWhoseMessageFailed() {
+        givenBatch(message(1, "a", "{\"n\":1}"), message(2, "b", "{\"n\":2}"), message(3, "a", "{\"n\":3}"));
+        when(kafkaProducerService.send(eq(TOPIC), eq("a"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaProducerService.send(eq(TOPIC), eq("b"), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxService.relayBatch();
+
+        // Message 3 went out, but stays to be sent again after message 1
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(2L));
+        verify(outboxMessageRepository).recordFailedAttempt(eq(1L), anyString());
+        verify(outboxMessageRepository, never()).recordFailedAttempt(eq(3L), anyString());
+    }
+
+    @Test
+    void doesNotSendLaterMessagesOfAKeyWhosePayloadCannotBeRead() {
+        givenBatch(message(1, "a", "not json"), message(2, "a", "{\"n\":2}"));
+
+        outboxService.relayBatch();
+
+        verify(kafkaProducerService, never()).send(anyString(), anyString(), any());
+        verify(outboxMessageRepository).recordFailedAttempt(eq(1L), anyString());
+        verify(outboxMessageRepository, never()).recordFailedAttempt(eq(2L), anyString());
+        verify(outboxMessageRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void parksMessageAfterMaxAttempts() {
+        OutboxMessage tooLarge = message(1, "a", "{\"n\":1}");
+        tooLarge.setAttempts(2);
+        givenBatch(tooLarge, message(2, "b", "{\"n\":2}"));
+        when(kafkaProducerService.send(eq(TOPIC), eq("a"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+        when(kafkaProducerService.send(eq(TOPIC), eq("b"), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxService.relayBatch();
+
+        verify(outboxMessageRepository).park(eq(1L), anyString(), any());
+        verify(outboxMessageRepository, never()).recordFailedAttempt(anyLong(), anyString());
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void doesNothingWithoutTheRelayLock() {
+        when(outboxMessageRepository.tryRelayLock(anyLong())).thenReturn(false);
+
+        outboxService.relayBatch();
+
+        verify(outboxMessageRepository, never()).findNextBatch(anyInt());
+    }
+
+    private void givenBatch(OutboxMessage... messages) {
+        when(outboxMessageRepository.findNextBatch(500)).thenReturn(List.of(messages));
+    }
+
+    private static OutboxMessage message(long id, String key, String payload) {
+        OutboxMessage message = OutboxMessage.builder()
+                .topic(TOPIC)
+                .messageKey(key)
+                .payloadType("java.util.HashMap")
+                .payload(payload)
+                .build();
+        message.setId(id);
+        return message;
+    }
+}
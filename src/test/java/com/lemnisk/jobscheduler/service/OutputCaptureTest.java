@@ -0,0 +1,176 @@
+package com.lemnisk.jobscheduler.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutputCaptureTest {
+
+    private static final int HEAD = 16;
+    private static final int TAIL = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepsOutputThatFitsIntoHeadAndTail() {
+        for (int length = 0; length <= HEAD + TAIL; length++) {
+            OutputCapture capture = new OutputCapture(HEAD, TAIL, null);
+            String output = text(length);
+            write(capture, output);
+
+            assertFalse(capture.isTruncated(), "Length " + length);
+            assertEquals(output, capture.getSummary(), "Length " + length);
+            assertEquals(length, capture.getTotalBytes());
+        }
+    }
+
+    @Test
+    void truncatesOutputOneByteLongerThanHeadAndTail() {
+        OutputCapture capture = new OutputCapture(HEAD, TAIL, null);
+        String output = text(HEAD + TAIL + 1);
+        write(capture, output);
+
+        assertTrue(capture.isTruncated());
+        assertEquals(expectedSummary(output), capture.getSummary());
+        assertTrue(capture.getSummary().contains("[1 bytes truncated]"));
+    }
+
+    @Test
+    void wrapsTheTailForAnyWriteSizes() {
+        Random random = new Random(3);
+        for (int run = 0; run < 200; run++) {
+            OutputCapture capture = new OutputCapture(HEAD, TAIL, null);
+            StringBuilder output = new StringBuilder();
+            int writes = random.nextInt(12);
+            for (int i = 0; i < writes; i++) {
+                // Single bytes, writes that straddle the wrap point and writes longer than the tail
+                String chunk = text(output.length(), random.nextInt(2 * TAIL + 2));
+                if (chunk.length() == 1 && random.nextBoolean()) {
+                    capture.write(chunk.charAt(0));
+                } else {
+                    write(capture, chunk);
+                }
+                output.append(chunk);
+            }
+
+            String expected = output.toString();
+            assertEquals(expectedSummary(expected), capture.getSummary(), "Output " + expected);
+            for (int maxBytes = 0; maxBytes <= HEAD + TAIL + 2; maxBytes++) {
+                assertEquals(expectedTail(expected, maxBytes), capture.getTail(maxBytes),
+                        "Last " + maxBytes + " bytes of " + expected);
+            }
+        }
+    }
+
+    @Test
+    void keepsCharactersSpanningTheWrapPointIntact() {
+        OutputCapture capture = new OutputCapture(4, 6, null);
+        write(capture, "abcdx");
+        write(capture, "éé");
+        // Two bytes, the ring wraps in the middle of the character
+        write(capture, "é");
+
+        assertEquals("abcd\n... [1 bytes truncated] ...\nééé", capture.getSummary());
+        // A character cut off at the start of the tail is dropped
+        assertEquals("éé", capture.getTail(5));
+    }
+
+    @Test
+    void worksWithoutTailBuffer() {
+        OutputCapture capture = new OutputCapture(HEAD, 0, null);
+        String output = text(HEAD + 5);
+        write(capture, output);
+
+        assertTrue(capture.isTruncated());
+        assertEquals(output.substring(0, HEAD) + "\n... [5 bytes truncated] ...\n", capture.getSummary());
+        assertEquals("", capture.getTail(10));
+    }
+
+    @Test
+    void spillsTheCompleteOutput() throws IOException {
+        Path spillFile = tempDir.resolve("spill.log");
+        OutputCapture capture = new OutputCapture(HEAD, TAIL, spillFile);
+        String output = text(1000);
+        write(capture, output);
+        capture.close();
+
+        assertEquals(spillFile, capture.getSpillFile());
+        assertEquals(output, Files.readString(spillFile));
+    }
+
+    @Test
+    void dropsWritesAfterClose() throws IOException {
+        Path spillFile = tempDir.resolve("closed.log");
+        OutputCapture capture = new OutputCapture(HEAD, TAIL, spillFile);
+        write(capture, "before");
+        capture.close();
+        write(capture, "after");
+        capture.write('!');
+
+        assertEquals("before", capture.getSummary());
+        assertEquals(6, capture.getTotalBytes());
+        assertEquals("before", Files.readString(spillFile));
+    }
+
+    @Test
+    void readsHeadAndTailBackFromSpillFile() throws IOException {
+        for (int length : new int[] { 0, HEAD - 1, HEAD + TAIL, HEAD + TAIL + 1, HEAD + 3 * TAIL + 3 }) {
+            Path spillFile = tempDir.resolve("child-" + length + ".log");
+            OutputCapture capture = new OutputCapture(HEAD, TAIL, spillFile);
+            String output = text(length);
+            Files.writeString(capture.detachSpillFile(), output);
+
+            capture.readSpillFile();
+
+            assertEquals(expectedSummary(output), capture.getSummary(), "Length " + length);
+            assertEquals(expectedTail(output, TAIL), capture.getTail(TAIL), "Length " + length);
+            assertEquals(length, capture.getTotalBytes());
+            assertEquals(spillFile, capture.getSpillFile());
+        }
+    }
+
+    private static void write(OutputCapture capture, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        capture.write(bytes, 0, bytes.length);
+    }
+
+    private static String text(int length) {
+        return text(0, length);
+    }
+
+    /**
+     * ASCII text whose characters show their position in the output
+     */
+    private static String text(int from, int length) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = from; i < from + length; i++) {
+            bytes.write('a' + i % 26);
+        }
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static String expectedSummary(String output) {
+        if (output.length() <= HEAD + TAIL) {
+            return output;
+        }
+        return output.substring(0, HEAD) + "\n... [" + (output.length() - HEAD - TAIL) + " bytes truncated] ...\n"
+                + output.substring(output.length() - TAIL);
+    }
+
+    private static String expectedTail(String output, int maxBytes) {
+        // Once bytes were dropped, only the tail buffer is left
+        int available = output.length() > HEAD + TAIL ? TAIL : output.length();
+        return output.substring(output.length() - Math.min(maxBytes, available));
+    }
+}
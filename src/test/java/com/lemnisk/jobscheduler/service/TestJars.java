@@ -0,0 +1,38 @@
+package com.lemnisk.jobscheduler.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Builds job JARs from compiled test classes. The classes may only depend on the JDK,
+ * jobs do not see the test class path.
+ */
+public final class TestJars {
+
+    private TestJars() {
+    }
+
+    public static Path jar(Path directory, Class<?> mainClass) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass.getName());
+
+        Path jar = directory.resolve(mainClass.getSimpleName() + ".jar");
+        String entryName = mainClass.getName().replace('.', '/') + ".class";
+        try (OutputStream file = Files.newOutputStream(jar);
+                JarOutputStream out = new JarOutputStream(file, manifest);
+                InputStream classFile = mainClass.getClassLoader().getResourceAsStream(entryName)) {
+            out.putNextEntry(new JarEntry(entryName));
+            classFile.transferTo(out);
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
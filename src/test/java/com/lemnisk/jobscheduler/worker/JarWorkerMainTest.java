@@ -0,0 +1,196 @@
+package com.lemnisk.jobscheduler.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.lemnisk.jobscheduler.service.TestJars;
+
+/**
+ * Drives a worker JVM over its stdin and stdout like the warm worker pool does, which
+ * retires a worker whose run was not successful and reusable
+ */
+class JarWorkerMainTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @TempDir
+    Path tempDir;
+
+    private Process worker;
+    private DataOutputStream requests;
+    private DataInputStream frames;
+
+    @BeforeEach
+    void startWorker() throws IOException {
+        // Only the classes the pool extracts, so a missing entry in CLASS_FILES fails here
+        Path classes = Files.createDirectories(tempDir.resolve("worker-classes"));
+        for (String classFile : JarWorkerMain.CLASS_FILES) {
+            Path target = classes.resolve(classFile);
+            Files.createDirectories(target.getParent());
+            try (InputStream in = JarWorkerMain.class.getClassLoader().getResourceAsStream(classFile)) {
+                Files.copy(in, target);
+            }
+        }
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        worker = new ProcessBuilder(java, "-Xshare:auto", "-cp", classes.toString(), JarWorkerMain.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        requests = new DataOutputStream(new BufferedOutputStream(worker.getOutputStream()));
+        frames = new DataInputStream(new BufferedInputStream(worker.getInputStream()));
+        assertEquals(JarWorkerMain.READY, frames.readByte());
+    }
+
+    @AfterEach
+    void stopWorker() throws InterruptedException {
+        worker.destroyForcibly();
+        worker.waitFor(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void framesOutputAndReportsExitCodeOfConsecutiveRuns() throws IOException {
+        Run printed = run(Printer.class, "first", "20000");
+
+        assertEquals(0, printed.exitCode);
+        assertEquals("", printed.error);
+        assertEquals("first" + NL + "on stderr" + NL + "x".repeat(20000) + NL, printed.output);
+        assertTrue(printed.outputFrames >= 3, "frames: " + printed.outputFrames);
+        assertTrue(printed.reusable);
+
+        // The same worker runs the next job
+        Run failed = run(Failing.class);
+
+        assertEquals(1, failed.exitCode);
+        assertEquals("java.lang.IllegalStateException: boom", failed.error);
+        assertTrue(failed.output.startsWith("java.lang.IllegalStateException: boom"), failed.output);
+        assertTrue(failed.reusable);
+
+        Run again = run(Printer.class, "second", "0");
+        assertEquals(0, again.exitCode);
+        assertEquals("second" + NL + "on stderr" + NL + NL, again.output);
+    }
+
+    @Test
+    void waitsForNonDaemonThreadsOfTheJob() throws IOException {
+        Run run = run(NonDaemonThread.class);
+
+        assertEquals(0, run.exitCode);
+        assertEquals("main returned" + NL + "thread finished" + NL, run.output);
+        assertTrue(run.reusable);
+    }
+
+    @Test
+    void isNotReusableAfterARunLeftADaemonThreadBehind() throws IOException {
+        Run run = run(DaemonThread.class);
+
+        assertEquals(0, run.exitCode);
+        assertFalse(run.reusable);
+    }
+
+    @Test
+    void isNotReusableAfterARunChangedASystemProperty() throws IOException {
+        Run run = run(PropertySetter.class);
+
+        assertEquals(0, run.exitCode);
+        assertFalse(run.reusable);
+    }
+
+    private Run run(Class<?> mainClass, String... args) throws IOException {
+        Path jar = TestJars.jar(tempDir, mainClass);
+        requests.writeUTF(jar.toString());
+        requests.writeInt(args.length);
+        for (String arg : args) {
+            requests.writeUTF(arg);
+        }
+        requests.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int outputFrames = 0;
+        while (true) {
+            byte frame = frames.readByte();
+            if (frame == JarWorkerMain.OUTPUT) {
+                byte[] bytes = new byte[frames.readInt()];
+                frames.readFully(bytes);
+                output.write(bytes);
+                outputFrames++;
+            } else {
+                assertEquals(JarWorkerMain.RESULT, frame);
+                int exitCode = frames.readInt();
+                String error = frames.readUTF();
+                boolean reusable = frames.readBoolean();
+                return new Run(output.toString(StandardCharsets.UTF_8), outputFrames, exitCode, error, reusable);
+            }
+        }
+    }
+
+    private record Run(String output, int outputFrames, int exitCode, String error, boolean reusable) {
+    }
+
+    public static class Printer {
+        public static void main(String[] args) {
+            System.out.println(args[0]);
+            System.err.println("on stderr");
+            System.out.println("x".repeat(Integer.parseInt(args[1])));
+        }
+    }
+
+    public static class Failing {
+        public static void main(String[] args) {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    public static class NonDaemonThread {
+        public static void main(String[] args) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                System.out.println("thread finished");
+            });
+            thread.start();
+            System.out.println("main returned");
+        }
+    }
+
+    public static class DaemonThread {
+        public static void main(String[] args) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    // Ends with the worker
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public static class PropertySetter {
+        public static void main(String[] args) {
+            System.setProperty("job.left.behind", "true");
+        }
+    }
+}